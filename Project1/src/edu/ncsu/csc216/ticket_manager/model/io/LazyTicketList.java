@@ -0,0 +1,44 @@
+package edu.ncsu.csc216.ticket_manager.model.io;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+
+/**
+ * Tickets read by TicketReader.readTicketFileLazy, which keeps the ticket file
+ * open so the tickets can load their notes on first use. Closing the list
+ * closes the file; a ticket whose notes were not loaded by then throws an
+ * IllegalArgumentException when they are used. The owner of the list closes it
+ * once the tickets are no longer used, for example when the list is replaced
+ * by another.
+ *
+ * @author Benson Liu
+ *
+ */
+public class LazyTicketList extends ArrayList<Ticket> implements Closeable {
+
+	/** ID number used for object serialization. */
+	private static final long serialVersionUID = 1L;
+	/** File the notes are loaded from, null if every ticket has its notes */
+	private final transient TicketNotesFile file;
+
+	/**
+	 * Constructor for LazyTicketList
+	 *
+	 * @param file file the notes are loaded from, or null if there is none
+	 */
+	LazyTicketList(TicketNotesFile file) {
+		this.file = file;
+	}
+
+	/**
+	 * Closes the file the notes are loaded from
+	 */
+	@Override
+	public void close() {
+		if (file != null) {
+			file.close();
+		}
+	}
+}
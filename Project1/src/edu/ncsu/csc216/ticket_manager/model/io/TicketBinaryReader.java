@@ -0,0 +1,261 @@
+package edu.ncsu.csc216.ticket_manager.model.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+
+/**
+ * Reads tickets from a binary snapshot written by TicketBinaryWriter. Fields
+ * that can only be one of a few names are stored as single bytes and mapped
+ * back to the shared name constants, so loading a ticket only creates the
+ * Strings for its subject, caller, owner and notes. Tickets with the same
+ * caller or owner share one copy of the name for as long as they are loaded.
+ *
+ * TicketReader uses this format for file names ending in EXTENSION.
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketBinaryReader {
+
+	/** Extension of ticket files in the binary snapshot format */
+	public static final String EXTENSION = ".tkb";
+	/** Number of bytes read from the file at a time */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Channel the snapshot is read from */
+	private FileChannel channel;
+	/** Bytes read from the channel and not parsed yet */
+	private ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+	/** Caller and owner names read so far, shared by the tickets of this read */
+	private HashMap<String, String> names = new HashMap<String, String>();
+
+	/**
+	 * Constructor for TicketBinaryReader
+	 *
+	 * @param channel Channel the snapshot is read from
+	 */
+	private TicketBinaryReader(FileChannel channel) {
+		this.channel = channel;
+		in.flip();
+	}
+
+	/**
+	 * Returns whether a file name is of a binary snapshot
+	 *
+	 * @param fileName Name of a ticket file
+	 * @return true if the name ends in EXTENSION
+	 */
+	public static boolean isBinaryFile(String fileName) {
+		return fileName.regionMatches(true, fileName.length() - EXTENSION.length(), EXTENSION, 0,
+				EXTENSION.length());
+	}
+
+	/**
+	 * Reads tickets from a binary snapshot. If there are any errors in processing
+	 * the file an IllegalArgumentException is thrown.
+	 *
+	 * @param fileName Name of the file being read
+	 * @return ArrayList of Tickets read from the file
+	 */
+	public static ArrayList<Ticket> readTicketFile(String fileName) {
+		return readTicketFile(fileName, null);
+	}
+
+	/**
+	 * Reads tickets from a binary snapshot, reporting the number of tickets read.
+	 * If there are any errors in processing the file an IllegalArgumentException
+	 * is thrown, and a CancellationException if the progress was canceled.
+	 *
+	 * @param fileName Name of the file being read
+	 * @param progress Progress to report to, or null
+	 * @return ArrayList of Tickets read from the file
+	 */
+	public static ArrayList<Ticket> readTicketFile(String fileName, TicketProgress progress) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			return readTickets(channel, progress);
+		} catch (IOException | InvalidPathException | IndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Reads tickets from a channel holding a binary snapshot. Records with values
+	 * a Ticket does not accept are skipped, as in the text format.
+	 *
+	 * @param channel Channel to read from
+	 * @return ArrayList of Tickets read
+	 * @throws IOException if the channel cannot be read or does not hold a
+	 *                     snapshot of a known version
+	 */
+	static ArrayList<Ticket> readTickets(FileChannel channel) throws IOException {
+		return readTickets(channel, null);
+	}
+
+	/**
+	 * Reads tickets from a channel holding a binary snapshot, reporting the number
+	 * of tickets read every PROGRESS_INTERVAL tickets
+	 *
+	 * @param channel  Channel to read from
+	 * @param progress Progress to report to, or null
+	 * @return ArrayList of Tickets read
+	 * @throws IOException if the channel cannot be read or does not hold a
+	 *                     snapshot of a known version
+	 */
+	static ArrayList<Ticket> readTickets(FileChannel channel, TicketProgress progress) throws IOException {
+		TicketBinaryReader reader = new TicketBinaryReader(channel);
+		reader.require(TicketBinaryWriter.MAGIC.length + 1);
+		for (int i = 0; i < TicketBinaryWriter.MAGIC.length; i++) {
+			if (reader.in.get() != TicketBinaryWriter.MAGIC[i]) {
+				throw new IOException("Not a binary ticket file");
+			}
+		}
+		if (reader.in.get() != TicketBinaryWriter.VERSION) {
+			throw new IOException("Unknown binary ticket file version");
+		}
+		int count = reader.readVarint();
+		ArrayList<Ticket> tickets = new ArrayList<Ticket>(Math.min(count, 1 << 20));
+		for (int i = 0; i < count; i++) {
+			if (i % TicketBinaryWriter.PROGRESS_INTERVAL == 0) {
+				TicketProgress.report(progress, i, count);
+			}
+			Ticket ticket = reader.readTicket();
+			if (ticket != null) {
+				tickets.add(ticket);
+			}
+		}
+		TicketProgress.report(progress, count, count);
+		return tickets;
+	}
+
+	/**
+	 * Reads one ticket record
+	 *
+	 * @return Ticket read, or null if the record is not a valid ticket
+	 * @throws IOException if the channel cannot be read
+	 */
+	private Ticket readTicket() throws IOException {
+		int id = readVarint();
+		require(5);
+		String state = TicketRecordParser.STATE_NAMES[in.get()];
+		String type = TicketRecordParser.TYPE_NAMES[in.get()];
+		String category = TicketRecordParser.CATEGORY_NAMES[in.get()];
+		String priority = TicketRecordParser.PRIORITY_NAMES[in.get()];
+		int codeIndex = in.get() & 0xFF;
+		String code = codeIndex == TicketBinaryWriter.NO_CODE ? null : TicketRecordParser.CODE_NAMES[codeIndex];
+		String subject = readString();
+		String caller = name(readString());
+		String owner = name(readString());
+		int noteCount = readVarint();
+		// Each note takes at least one byte, so a damaged count cannot size the list
+		ArrayList<String> notes = new ArrayList<String>((int) Math.min(noteCount, remaining()));
+		for (int i = 0; i < noteCount; i++) {
+			notes.add(readString());
+		}
+		try {
+			return new Ticket(id, state, type, subject, caller, category, priority, owner, code, notes);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the copy of a caller or owner name shared by the tickets of this
+	 * read
+	 *
+	 * @param name name read
+	 * @return shared String equal to name
+	 */
+	private String name(String name) {
+		String shared = names.putIfAbsent(name, name);
+		return shared == null ? name : shared;
+	}
+
+	/**
+	 * Reads a String written as its UTF-8 length and bytes
+	 *
+	 * @return String read
+	 * @throws IOException if the channel cannot be read
+	 */
+	private String readString() throws IOException {
+		int length = readVarint();
+		if (length > remaining()) {
+			throw new EOFException();
+		}
+		if (length <= in.capacity()) {
+			require(length);
+			String s = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+			in.position(in.position() + length);
+			return s;
+		}
+		byte[] bytes = new byte[length];
+		int offset = 0;
+		while (offset < length) {
+			require(1);
+			int count = Math.min(in.remaining(), length - offset);
+			in.get(bytes, offset, count);
+			offset += count;
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads a varint of seven bits per byte, low bits first
+	 *
+	 * @return number read
+	 * @throws IOException if the channel cannot be read or the varint is too long
+	 */
+	private int readVarint() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			require(1);
+			byte b = in.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0 && value >= 0) {
+				return value;
+			} else if (b >= 0) {
+				break;
+			}
+		}
+		throw new IOException("Invalid number");
+	}
+
+	/**
+	 * Returns the number of bytes left to read, in the buffer and the channel
+	 *
+	 * @return number of bytes not read yet
+	 * @throws IOException if the size of the channel cannot be read
+	 */
+	private long remaining() throws IOException {
+		return channel.size() - channel.position() + in.remaining();
+	}
+
+	/**
+	 * Reads from the channel until the buffer holds at least a number of bytes,
+	 * which must not be more than its capacity
+	 *
+	 * @param bytes number of bytes needed
+	 * @throws IOException if the channel cannot be read or ends first
+	 */
+	private void require(int bytes) throws IOException {
+		if (in.remaining() >= bytes) {
+			return;
+		}
+		in.compact();
+		while (in.position() < bytes) {
+			if (channel.read(in) < 0) {
+				throw new EOFException();
+			}
+		}
+		in.flip();
+	}
+}
@@ -0,0 +1,217 @@
+package edu.ncsu.csc216.ticket_manager.model.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+
+/**
+ * Writes tickets in the binary snapshot format. A snapshot starts with the
+ * MAGIC bytes, a VERSION byte, and the number of tickets. Each ticket is then
+ * written as its ID, one byte each for the state, type, category, priority and
+ * code, the subject, caller and owner, and the number of notes followed by the
+ * notes. Numbers are written as varints of seven bits per byte, low bits first,
+ * and Strings as their UTF-8 length followed by their bytes. The state and code
+ * are written as their position in the lists of names in TicketRecordParser,
+ * with NO_CODE for a ticket without a code.
+ *
+ * TicketWriter uses this format for file names ending in
+ * TicketBinaryReader.EXTENSION.
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketBinaryWriter {
+
+	/** First bytes of a binary snapshot */
+	static final byte[] MAGIC = { 'T', 'K', 'T', 'B' };
+	/** Version of the binary snapshot format */
+	static final byte VERSION = 1;
+	/** Code byte of a ticket without a code */
+	static final int NO_CODE = 0xFF;
+	/** Number of tickets between progress reports */
+	static final int PROGRESS_INTERVAL = 4096;
+	/** Size of the buffer the snapshot is collected in before it is written */
+	private static final int BLOCK_SIZE = 256 * 1024;
+	/** Most bytes a varint takes */
+	private static final int MAX_VARINT = 5;
+
+	/** Channel the snapshot is written to */
+	private FileChannel channel;
+	/** Bytes not written to the channel yet */
+	private ByteBuffer out = ByteBuffer.allocate(BLOCK_SIZE);
+
+	/**
+	 * Constructor for TicketBinaryWriter
+	 *
+	 * @param channel Channel the snapshot is written to
+	 */
+	private TicketBinaryWriter(FileChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * Writes tickets to a channel as a binary snapshot
+	 *
+	 * @param channel Channel the tickets are written to
+	 * @param tickets The tickets being written
+	 * @throws IOException if the channel cannot be written or a ticket has a
+	 *                     value the format cannot hold
+	 */
+	static void writeTickets(FileChannel channel, List<Ticket> tickets) throws IOException {
+		writeTickets(channel, tickets, null);
+	}
+
+	/**
+	 * Writes tickets to a channel as a binary snapshot, reporting the number of
+	 * tickets written every PROGRESS_INTERVAL tickets
+	 *
+	 * @param channel  Channel the tickets are written to
+	 * @param tickets  The tickets being written
+	 * @param progress Progress to report to, or null
+	 * @throws IOException if the channel cannot be written or a ticket has a
+	 *                     value the format cannot hold
+	 */
+	static void writeTickets(FileChannel channel, List<Ticket> tickets, TicketProgress progress)
+			throws IOException {
+		TicketBinaryWriter writer = new TicketBinaryWriter(channel);
+		writer.out.put(MAGIC).put(VERSION);
+		writer.writeVarint(tickets.size());
+		for (int i = 0; i < tickets.size(); i++) {
+			if (i % PROGRESS_INTERVAL == 0) {
+				TicketProgress.report(progress, i, tickets.size());
+			}
+			writer.writeTicket(tickets.get(i));
+		}
+		writer.drain();
+		TicketProgress.report(progress, tickets.size(), tickets.size());
+	}
+
+	/**
+	 * Writes one ticket record
+	 *
+	 * @param ticket Ticket to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	private void writeTicket(Ticket ticket) throws IOException {
+		ensure(MAX_VARINT + 5);
+		writeVarint(ticket.getTicketId());
+		out.put((byte) index(ticket.getState(), TicketRecordParser.STATE_NAMES));
+		out.put((byte) ticket.getTicketType().ordinal());
+		out.put((byte) ticket.getTicketCategory().ordinal());
+		out.put((byte) ticket.getTicketPriority().ordinal());
+		String code = ticket.getCode();
+		out.put((byte) ("".equals(code) ? NO_CODE : index(code, TicketRecordParser.CODE_NAMES)));
+		writeString(ticket.getSubject());
+		writeString(ticket.getCaller());
+		writeString(ticket.getOwner());
+		int notes = ticket.getNoteCount();
+		ensure(MAX_VARINT);
+		writeVarint(notes);
+		for (int i = 0; i < notes; i++) {
+			writeString(ticket.getNote(i));
+		}
+	}
+
+	/**
+	 * Writes a String as its UTF-8 length and bytes. ASCII Strings are copied
+	 * straight into the buffer.
+	 *
+	 * @param s String to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	private void writeString(String s) throws IOException {
+		if (s == null) {
+			s = "";
+		}
+		int length = s.length();
+		boolean ascii = true;
+		for (int i = 0; i < length && ascii; i++) {
+			ascii = s.charAt(i) < 0x80;
+		}
+		if (ascii) {
+			ensure(MAX_VARINT + length);
+			writeVarint(length);
+			if (out.remaining() >= length) {
+				for (int i = 0; i < length; i++) {
+					out.put((byte) s.charAt(i));
+				}
+				return;
+			}
+		}
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		if (!ascii) {
+			ensure(MAX_VARINT);
+			writeVarint(bytes.length);
+		}
+		int offset = 0;
+		while (offset < bytes.length) {
+			if (!out.hasRemaining()) {
+				drain();
+			}
+			int count = Math.min(out.remaining(), bytes.length - offset);
+			out.put(bytes, offset, count);
+			offset += count;
+		}
+	}
+
+	/**
+	 * Writes a non-negative number as a varint. The buffer must have room for
+	 * MAX_VARINT bytes.
+	 *
+	 * @param value number to write
+	 */
+	private void writeVarint(int value) {
+		while ((value & ~0x7F) != 0) {
+			out.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	}
+
+	/**
+	 * Makes room in the buffer for a number of bytes, writing out what it holds if
+	 * needed. Requests larger than the buffer only empty it.
+	 *
+	 * @param bytes number of bytes needed
+	 * @throws IOException if the channel cannot be written
+	 */
+	private void ensure(int bytes) throws IOException {
+		if (out.remaining() < bytes) {
+			drain();
+		}
+	}
+
+	/**
+	 * Writes every byte in the buffer to the channel and empties the buffer
+	 *
+	 * @throws IOException if the channel cannot be written
+	 */
+	private void drain() throws IOException {
+		out.flip();
+		while (out.hasRemaining()) {
+			channel.write(out);
+		}
+		out.clear();
+	}
+
+	/**
+	 * Returns the position of a name in a list of names
+	 *
+	 * @param name  name to find
+	 * @param names list of names
+	 * @return position of the name
+	 * @throws IOException if the name is not in the list
+	 */
+	private static int index(String name, String[] names) throws IOException {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name)) {
+				return i;
+			}
+		}
+		throw new IOException("Unable to write " + name);
+	}
+}
@@ -0,0 +1,716 @@
+package edu.ncsu.csc216.ticket_manager.model.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+import edu.ncsu.csc216.ticket_manager.model.command.Command;
+import edu.ncsu.csc216.ticket_manager.model.command.Command.CancellationCode;
+import edu.ncsu.csc216.ticket_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.ticket_manager.model.command.Command.FeedbackCode;
+import edu.ncsu.csc216.ticket_manager.model.command.Command.ResolutionCode;
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+
+/**
+ * Append-only journal of the changes made to a ticket file since it was last
+ * written in full. The journal is kept next to the ticket file, with the
+ * ".journal" extension, and holds one compact binary record per added ticket,
+ * deleted ticket, or applied Command. Records are collected in memory and
+ * appended when the ticket list is saved, so a save only writes the changes.
+ * Once the journal grows large, it is folded back into the ticket file on a
+ * background thread.
+ *
+ * Appends use group commit: while one thread writes and forces a batch of
+ * records to disk, other threads keep recording, and their records go out
+ * together in the next batch. A thread whose records were already forced by
+ * another thread's batch returns without touching the disk.
+ *
+ * Each record is framed by the length of its body and a CRC32 of the body. A
+ * crash during an append can leave a record cut short or half written at the
+ * end of the journal; replay stops at the first record that is cut short or
+ * does not match its checksum, and the next append cuts the journal back to
+ * the end of the last whole record before writing, so new records never follow
+ * the damaged bytes.
+ *
+ * Replaying a record more than once has no further effect: an added ticket is
+ * skipped if its ID is already present, and a Command is skipped if the ticket
+ * already has the note the Command added. This keeps a load correct even if
+ * compaction stopped after replacing the ticket file but before removing the
+ * journal it folded in.
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketJournal {
+
+	/** Extension of the journal file */
+	public static final String JOURNAL_EXTENSION = ".journal";
+	/** Extension of a journal that is being folded into the ticket file */
+	public static final String COMPACTING_EXTENSION = ".compacting";
+	/** Size in bytes at which the journal is folded into the ticket file */
+	static final long COMPACTION_THRESHOLD = 4L * 1024 * 1024;
+	/** First bytes of every journal file */
+	private static final int MAGIC = 0x544D4A32;
+	/** Number of bytes of the magic number */
+	private static final int HEADER_SIZE = 4;
+	/** Number of bytes of the length and checksum before each record body */
+	private static final int FRAME_SIZE = 8;
+	/** Record of an added ticket */
+	private static final byte ADD = 'A';
+	/** Record of a deleted ticket */
+	private static final byte DELETE = 'D';
+	/** Record of an applied Command */
+	private static final byte COMMAND = 'C';
+	/** Thread that folds journals into their ticket files */
+	private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "ticket-journal-compactor");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/** Ticket file the journal belongs to */
+	private Path ticketFile;
+	/** Journal file */
+	private Path journalFile;
+	/** Journal file being folded into the ticket file */
+	private Path compactingFile;
+	/** Records that have not been appended to the journal file yet */
+	private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+	/** Writer for the pending records */
+	private DataOutputStream out = new DataOutputStream(pending);
+	/** Body of the record being recorded */
+	private ByteArrayOutputStream record = new ByteArrayOutputStream();
+	/** Writer for the body of the record being recorded */
+	private DataOutputStream body = new DataOutputStream(record);
+	/** Open journal file, null until the first append */
+	private FileChannel channel;
+	/** Number of records recorded so far */
+	private long recorded;
+	/** Number of records forced to the journal file */
+	private long durable;
+	/** Whether a thread is writing a batch of records */
+	private boolean appending;
+	/** Compaction that is running or queued, if any */
+	private Future<?> compaction;
+
+	/**
+	 * Constructor for TicketJournal. Creates the journal of the given ticket file.
+	 *
+	 * @param fileName Name of the ticket file
+	 */
+	public TicketJournal(String fileName) {
+		ticketFile = Paths.get(fileName).toAbsolutePath().normalize();
+		journalFile = sibling(ticketFile, JOURNAL_EXTENSION);
+		compactingFile = sibling(ticketFile, COMPACTING_EXTENSION);
+	}
+
+	/**
+	 * Returns whether this is the journal of the given ticket file and that file
+	 * still exists, so changes can be appended instead of writing the file again
+	 *
+	 * @param fileName Name of a ticket file
+	 * @return true if changes to fileName can go to this journal
+	 */
+	public boolean isJournalOf(String fileName) {
+		return ticketFile.equals(Paths.get(fileName).toAbsolutePath().normalize()) && Files.exists(ticketFile);
+	}
+
+	/**
+	 * Records a ticket that was added
+	 *
+	 * @param ticket Ticket that was added
+	 */
+	public synchronized void recordAdd(Ticket ticket) {
+		try {
+			body.writeByte(ADD);
+			writeString(body, ticket.toString());
+			endRecord();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Records a ticket that was deleted
+	 *
+	 * @param id ID of the deleted ticket
+	 */
+	public synchronized void recordDelete(int id) {
+		try {
+			body.writeByte(DELETE);
+			body.writeInt(id);
+			endRecord();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Records a Command that was applied to a ticket
+	 *
+	 * @param ticket  Ticket after the Command was applied
+	 * @param command Command that was applied
+	 */
+	public synchronized void recordCommand(Ticket ticket, Command command) {
+		try {
+			body.writeByte(COMMAND);
+			body.writeInt(ticket.getTicketId());
+			body.writeInt(ticket.getNoteCount());
+			body.writeByte(command.getCommand().ordinal());
+			writeString(body, command.getOwnerId());
+			body.writeByte(ordinal(command.getFeedbackCode()));
+			body.writeByte(ordinal(command.getResolutionCode()));
+			body.writeByte(ordinal(command.getCancellationCode()));
+			writeString(body, command.getNote());
+			endRecord();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Frames the record body written so far with its length and checksum and
+	 * adds it to the pending records. Must be called while holding the lock of
+	 * this journal.
+	 *
+	 * @throws IOException if the pending records cannot be written
+	 */
+	private void endRecord() throws IOException {
+		byte[] bytes = record.toByteArray();
+		record.reset();
+		out.writeInt(bytes.length);
+		out.writeInt(checksum(bytes, 0, bytes.length));
+		out.write(bytes);
+		recorded++;
+	}
+
+	/**
+	 * Returns whether there are recorded changes that have not been appended
+	 *
+	 * @return true if there are pending changes
+	 */
+	public synchronized boolean hasPendingChanges() {
+		return durable < recorded;
+	}
+
+	/**
+	 * Appends the recorded changes to the journal file and forces them to disk.
+	 * Returns once every change recorded before the call is durable, which may be
+	 * through a batch written by another thread. Once the journal is over the
+	 * compaction threshold, it is folded into the ticket file in the background.
+	 * If the journal cannot be written an IllegalArgumentException is thrown and
+	 * the changes stay pending.
+	 */
+	public void flush() {
+		long target;
+		synchronized (this) {
+			target = recorded;
+		}
+		while (true) {
+			byte[] batch;
+			long batchEnd;
+			synchronized (this) {
+				while (appending && durable < target) {
+					awaitAppend();
+				}
+				if (durable >= target) {
+					return;
+				}
+				appending = true;
+				batch = pending.toByteArray();
+				batchEnd = recorded;
+				pending.reset();
+			}
+			long size = -1;
+			try {
+				size = append(batch);
+			} finally {
+				synchronized (this) {
+					appending = false;
+					if (size < 0) {
+						byte[] later = pending.toByteArray();
+						pending.reset();
+						pending.write(batch, 0, batch.length);
+						pending.write(later, 0, later.length);
+					} else {
+						durable = batchEnd;
+						if (size >= COMPACTION_THRESHOLD && (compaction == null || compaction.isDone())) {
+							compaction = COMPACTOR.submit(this::compact);
+						}
+					}
+					notifyAll();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes a batch of records to the end of the journal file and forces it to
+	 * disk. Only the thread that set appending calls this, so the channel is not
+	 * shared.
+	 *
+	 * @param batch records to write
+	 * @return size of the journal file afterwards
+	 */
+	private long append(byte[] batch) {
+		try {
+			if (channel == null) {
+				channel = openJournal();
+			}
+			write(channel, ByteBuffer.wrap(batch));
+			channel.force(false);
+			return channel.size();
+		} catch (IOException e) {
+			closeChannel();
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+	}
+
+	/**
+	 * Opens the journal file for appending. Bytes after the last whole record,
+	 * left by a crash during an earlier append, are cut off first, and a file
+	 * without a valid header is started anew.
+	 *
+	 * @return channel positioned at the end of the last whole record
+	 * @throws IOException if the journal file cannot be read or written
+	 */
+	private FileChannel openJournal() throws IOException {
+		int end = 0;
+		try {
+			end = validLength(Files.readAllBytes(journalFile));
+		} catch (NoSuchFileException e) {
+			// a new journal
+		}
+		FileChannel opened = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		try {
+			opened.truncate(end);
+			opened.position(end);
+			if (end == 0) {
+				write(opened, ByteBuffer.allocate(HEADER_SIZE).putInt(0, MAGIC));
+			}
+			return opened;
+		} catch (IOException e) {
+			opened.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Drops the pending changes and removes the journal files. Used once the
+	 * ticket file has been written in full.
+	 */
+	public void discard() {
+		awaitCompaction();
+		synchronized (this) {
+			while (appending) {
+				awaitAppend();
+			}
+			pending.reset();
+			durable = recorded;
+			deleteFiles();
+		}
+	}
+
+	/**
+	 * Removes the journal files but keeps the pending changes, so they are the
+	 * first changes appended. Used once the ticket file has been written in full
+	 * from a copy of the tickets taken after this journal started recording.
+	 */
+	public void restart() {
+		awaitCompaction();
+		synchronized (this) {
+			while (appending) {
+				awaitAppend();
+			}
+			deleteFiles();
+		}
+	}
+
+	/**
+	 * Closes and removes the journal files. Must be called while holding the lock
+	 * of this journal, with no batch being appended.
+	 */
+	private void deleteFiles() {
+		closeChannel();
+		try {
+			Files.deleteIfExists(journalFile);
+			Files.deleteIfExists(compactingFile);
+		} catch (IOException e) {
+			// replaying an old journal onto a full save has no effect
+		}
+	}
+
+	/**
+	 * Stops using the journal once running appends and compaction have finished.
+	 * Changes that were not flushed are dropped.
+	 */
+	public void close() {
+		awaitCompaction();
+		synchronized (this) {
+			while (appending) {
+				awaitAppend();
+			}
+			closeChannel();
+		}
+	}
+
+	/**
+	 * Waits for a running compaction to finish
+	 */
+	public void awaitCompaction() {
+		Future<?> running;
+		synchronized (this) {
+			running = compaction;
+		}
+		if (running == null) {
+			return;
+		}
+		try {
+			running.get();
+		} catch (ExecutionException e) {
+			// the journal is kept and replayed on the next load
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Folds the journal into the ticket file. The journal is first renamed so new
+	 * changes can be appended while the ticket file is rewritten; the renamed
+	 * journal is removed once the new ticket file is in place.
+	 */
+	void compact() {
+		synchronized (this) {
+			while (appending) {
+				awaitAppend();
+			}
+			closeChannel();
+			try {
+				if (!Files.exists(compactingFile)) {
+					TicketWriter.moveAtomic(journalFile, compactingFile);
+				}
+			} catch (IOException e) {
+				return;
+			}
+		}
+		ArrayList<Ticket> tickets = TicketReader.readTicketFile(ticketFile.toString());
+		tickets = replayFile(compactingFile, tickets);
+		TicketWriter.writeTicketFileAtomic(ticketFile.toString(), tickets);
+		try {
+			Files.deleteIfExists(compactingFile);
+		} catch (IOException e) {
+			// replayed again on load, which has no further effect
+		}
+	}
+
+	/**
+	 * Waits while another thread appends a batch. Must be called while holding the
+	 * lock of this journal.
+	 */
+	private void awaitAppend() {
+		try {
+			wait();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Closes the journal file, so the next append opens it again
+	 */
+	private void closeChannel() {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// nothing was left to write
+			}
+			channel = null;
+		}
+	}
+
+	/**
+	 * Writes all of a buffer to a channel
+	 *
+	 * @param channel channel to write to
+	 * @param buffer  bytes to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Applies the journal of a ticket file to the tickets read from it
+	 *
+	 * @param fileName Name of the ticket file
+	 * @param tickets  Tickets read from the ticket file
+	 * @return Tickets with the journaled changes applied
+	 */
+	public static ArrayList<Ticket> replay(String fileName, ArrayList<Ticket> tickets) {
+		Path ticketFile = Paths.get(fileName).toAbsolutePath().normalize();
+		tickets = replayFile(sibling(ticketFile, COMPACTING_EXTENSION), tickets);
+		return replayFile(sibling(ticketFile, JOURNAL_EXTENSION), tickets);
+	}
+
+	/**
+	 * Applies the records of one journal file to a list of tickets. A journal
+	 * cut short inside its header has no records.
+	 *
+	 * @param journal Journal file, which may not exist
+	 * @param tickets Tickets to apply the records to
+	 * @return Tickets with the records applied
+	 */
+	private static ArrayList<Ticket> replayFile(Path journal, ArrayList<Ticket> tickets) {
+		byte[] bytes;
+		try {
+			bytes = Files.readAllBytes(journal);
+		} catch (NoSuchFileException e) {
+			return tickets;
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		if (bytes.length < HEADER_SIZE) {
+			return tickets;
+		}
+		if (ByteBuffer.wrap(bytes).getInt(0) != MAGIC) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return replayRecords(bytes, tickets);
+	}
+
+	/**
+	 * Applies the records of a journal to a list of tickets. The replay stops at
+	 * the first record that is cut short or does not match its checksum. Throws
+	 * an IllegalArgumentException if a whole record cannot be decoded.
+	 *
+	 * @param journal Bytes of the journal, starting with its header
+	 * @param tickets Tickets to apply the records to
+	 * @return Tickets with the records applied, in their original order followed
+	 *         by the added tickets
+	 */
+	static ArrayList<Ticket> replayRecords(byte[] journal, ArrayList<Ticket> tickets) {
+		HashMap<Integer, Ticket> byId = new HashMap<Integer, Ticket>();
+		for (Ticket ticket : tickets) {
+			byId.putIfAbsent(ticket.getTicketId(), ticket);
+		}
+		ArrayList<Ticket> result = new ArrayList<Ticket>(tickets);
+		HashSet<Ticket> deleted = new HashSet<Ticket>();
+		int offset = HEADER_SIZE;
+		for (int next = nextRecord(journal, offset); next >= 0; next = nextRecord(journal, offset)) {
+			DataInputStream in = new DataInputStream(
+					new ByteArrayInputStream(journal, offset + FRAME_SIZE, next - offset - FRAME_SIZE));
+			try {
+				applyRecord(in, byId, result, deleted);
+			} catch (IOException | RuntimeException e) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+			offset = next;
+		}
+		if (!deleted.isEmpty()) {
+			result.removeIf(deleted::contains);
+		}
+		return result;
+	}
+
+	/**
+	 * Applies one journal record
+	 *
+	 * @param in      Body of the record
+	 * @param byId    Tickets by ID
+	 * @param result  Tickets, which added tickets are appended to
+	 * @param deleted Tickets that were deleted
+	 * @throws IOException if the record cannot be decoded
+	 */
+	private static void applyRecord(DataInputStream in, HashMap<Integer, Ticket> byId, ArrayList<Ticket> result,
+			HashSet<Ticket> deleted) throws IOException {
+		byte type = in.readByte();
+		if (type == ADD) {
+			ArrayList<Ticket> added = TicketReader.readTickets(new StringReader(readString(in)));
+			for (Ticket ticket : added) {
+				if (byId.putIfAbsent(ticket.getTicketId(), ticket) == null) {
+					result.add(ticket);
+				}
+			}
+		} else if (type == DELETE) {
+			Ticket ticket = byId.remove(in.readInt());
+			if (ticket != null) {
+				deleted.add(ticket);
+			}
+		} else if (type == COMMAND) {
+			applyCommand(in, byId);
+		} else {
+			throw new IOException("Unknown journal record");
+		}
+	}
+
+	/**
+	 * Returns the offset after the record at an offset of a journal
+	 *
+	 * @param journal Bytes of the journal
+	 * @param offset  Offset of the record's frame
+	 * @return offset after the record, or -1 if there is no whole record with a
+	 *         matching checksum at the offset
+	 */
+	private static int nextRecord(byte[] journal, int offset) {
+		if (journal.length - offset < FRAME_SIZE) {
+			return -1;
+		}
+		ByteBuffer frame = ByteBuffer.wrap(journal, offset, FRAME_SIZE);
+		int length = frame.getInt();
+		int checksum = frame.getInt();
+		if (length < 0 || length > journal.length - offset - FRAME_SIZE
+				|| checksum(journal, offset + FRAME_SIZE, length) != checksum) {
+			return -1;
+		}
+		return offset + FRAME_SIZE + length;
+	}
+
+	/**
+	 * Returns the length of a journal up to the end of its last whole record
+	 *
+	 * @param journal Bytes of the journal
+	 * @return length of the valid part, or 0 if the header is missing or wrong
+	 */
+	private static int validLength(byte[] journal) {
+		if (journal.length < HEADER_SIZE || ByteBuffer.wrap(journal).getInt(0) != MAGIC) {
+			return 0;
+		}
+		int offset = HEADER_SIZE;
+		for (int next = nextRecord(journal, offset); next >= 0; next = nextRecord(journal, offset)) {
+			offset = next;
+		}
+		return offset;
+	}
+
+	/**
+	 * Returns the CRC32 of a range of bytes
+	 *
+	 * @param bytes  bytes to check
+	 * @param offset offset of the range
+	 * @param length length of the range
+	 * @return checksum
+	 */
+	private static int checksum(byte[] bytes, int offset, int length) {
+		CRC32 crc = new CRC32();
+		crc.update(bytes, offset, length);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Reads a Command record and applies it, unless the ticket is missing or
+	 * already has the note the Command added
+	 *
+	 * @param in   Stream positioned after the record type
+	 * @param byId Tickets by ID
+	 * @throws IOException if the stream cannot be read
+	 */
+	private static void applyCommand(DataInputStream in, HashMap<Integer, Ticket> byId) throws IOException {
+		int id = in.readInt();
+		int noteCount = in.readInt();
+		CommandValue value = CommandValue.values()[in.readByte()];
+		String owner = readString(in);
+		FeedbackCode feedback = value(FeedbackCode.values(), in.readByte());
+		ResolutionCode resolution = value(ResolutionCode.values(), in.readByte());
+		CancellationCode cancellation = value(CancellationCode.values(), in.readByte());
+		String note = readString(in);
+		Ticket ticket = byId.get(id);
+		if (ticket == null || ticket.getNoteCount() >= noteCount) {
+			return;
+		}
+		try {
+			ticket.update(new Command(value, owner, feedback, resolution, cancellation, note));
+		} catch (UnsupportedOperationException | IllegalArgumentException e) {
+			// the ticket file no longer matches the journal for this ticket
+		}
+	}
+
+	/**
+	 * Returns the path of a file next to the ticket file
+	 *
+	 * @param ticketFile ticket file
+	 * @param extension  extension added to the ticket file name
+	 * @return path of the sibling file
+	 */
+	private static Path sibling(Path ticketFile, String extension) {
+		return ticketFile.resolveSibling(ticketFile.getFileName().toString() + extension);
+	}
+
+	/**
+	 * Writes a String that may be null as a flag, a length, and UTF-8 bytes
+	 *
+	 * @param out stream to write to
+	 * @param s   String to write
+	 * @throws IOException if the stream cannot be written
+	 */
+	static void writeString(DataOutputStream out, String s) throws IOException {
+		if (s == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a String written by writeString
+	 *
+	 * @param in stream to read from
+	 * @return String read, or null
+	 * @throws IOException if the stream cannot be read
+	 */
+	static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the ordinal of an enum value, or -1 for null
+	 *
+	 * @param value enum value
+	 * @return ordinal or -1
+	 */
+	private static int ordinal(Enum<?> value) {
+		return value == null ? -1 : value.ordinal();
+	}
+
+	/**
+	 * Returns the enum value with an ordinal, or null for a negative ordinal
+	 *
+	 * @param <E>     type of enum
+	 * @param values  values of the enum
+	 * @param ordinal ordinal of the value
+	 * @return enum value or null
+	 */
+	private static <E> E value(E[] values, int ordinal) {
+		return ordinal < 0 ? null : values[ordinal];
+	}
+}
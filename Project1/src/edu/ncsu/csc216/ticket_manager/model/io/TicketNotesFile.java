@@ -0,0 +1,108 @@
+package edu.ncsu.csc216.ticket_manager.model.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Ticket file that notes are loaded from on first use. The channel stays open
+ * until the LazyTicketList of the tickets read from it is closed, so the notes
+ * are read from the file as it was loaded even if the file is later replaced
+ * by a save or a journal compaction. Reads are positional, so tickets can load
+ * their notes from several threads at once.
+ *
+ * @author Benson Liu
+ *
+ */
+class TicketNotesFile {
+
+	/** Channel of the ticket file */
+	private final FileChannel channel;
+
+	/**
+	 * Constructor for TicketNotesFile
+	 *
+	 * @param channel open channel of the ticket file
+	 */
+	TicketNotesFile(FileChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * Returns a loader for the notes in a range of the file
+	 *
+	 * @param start offset of the first note line
+	 * @param end   offset after the last note line
+	 * @return loader that reads and parses the range
+	 */
+	Supplier<ArrayList<String>> range(long start, long end) {
+		return new Range(this, start, (int) (end - start));
+	}
+
+	/**
+	 * Closes the channel, so notes that were not loaded can no longer be read
+	 */
+	void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// nothing left to read
+		}
+	}
+
+	/**
+	 * Reads and parses the notes in a range of the file. Throws an
+	 * IllegalArgumentException if the file cannot be read.
+	 *
+	 * @param start  offset of the first note line
+	 * @param length number of bytes of note lines
+	 * @return notes in the range
+	 */
+	ArrayList<String> read(long start, int length) {
+		ByteBuffer buf = ByteBuffer.allocate(length);
+		try {
+			while (buf.hasRemaining()) {
+				if (channel.read(buf, start + buf.position()) < 0) {
+					throw new IOException("Ticket file is shorter than when it was loaded.");
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return TicketRecordParser.parseNotes(new String(buf.array(), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Notes of one ticket, as a range of the file
+	 */
+	private static class Range implements Supplier<ArrayList<String>> {
+
+		/** File holding the notes */
+		private final TicketNotesFile file;
+		/** Offset of the first note line */
+		private final long start;
+		/** Number of bytes of note lines */
+		private final int length;
+
+		/**
+		 * Constructor for Range
+		 *
+		 * @param file   file holding the notes
+		 * @param start  offset of the first note line
+		 * @param length number of bytes of note lines
+		 */
+		Range(TicketNotesFile file, long start, int length) {
+			this.file = file;
+			this.start = start;
+			this.length = length;
+		}
+
+		@Override
+		public ArrayList<String> get() {
+			return file.read(start, length);
+		}
+	}
+}
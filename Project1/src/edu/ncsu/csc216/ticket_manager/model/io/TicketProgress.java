@@ -0,0 +1,49 @@
+package edu.ncsu.csc216.ticket_manager.model.io;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Progress of a ticket file being read or written. Readers report the bytes of
+ * a text file or the tickets of a binary file read so far, and writers report
+ * the tickets written so far. Reading and writing stop with a
+ * CancellationException once the progress reports that it was canceled; a
+ * file that was being written is left as it was.
+ *
+ * @author Benson Liu
+ *
+ */
+public interface TicketProgress {
+
+	/**
+	 * Called as a file is read or written
+	 *
+	 * @param done  units done so far
+	 * @param total units in the whole file
+	 */
+	void progress(long done, long total);
+
+	/**
+	 * Returns whether reading or writing should stop
+	 *
+	 * @return true if the task was canceled
+	 */
+	boolean isCanceled();
+
+	/**
+	 * Reports progress if there is a progress to report to, and throws a
+	 * CancellationException if it was canceled
+	 *
+	 * @param progress progress to report to, or null
+	 * @param done     units done so far
+	 * @param total    units in the whole file
+	 */
+	static void report(TicketProgress progress, long done, long total) {
+		if (progress == null) {
+			return;
+		}
+		if (progress.isCanceled()) {
+			throw new CancellationException("Canceled.");
+		}
+		progress.progress(done, total);
+	}
+}
@@ -1,81 +1,696 @@
 package edu.ncsu.csc216.ticket_manager.model.io;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+import edu.ncsu.csc216.ticket_manager.model.ticket.TicketNotes;
 
 /**
  * Reads tickets from a .txt file. Creates an ArrayList of Tickets read from the
  * file.
- * 
+ *
  * @author Benson Liu
  *
  */
 public class TicketReader {
 
+	/** Number of characters read from the file at a time */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	/** Largest number of bytes of a file mapped into memory at a time */
+	static final int WINDOW_SIZE = 256 * 1024 * 1024;
+	/** Size in bytes from which readTicketFile loads a file in parallel */
+	static final long PARALLEL_THRESHOLD = 64L * 1024 * 1024;
+	/** Number of chunks per core a file is split into for parallel loading */
+	private static final int CHUNKS_PER_CORE = 4;
+	/** Bytes scanned between progress reports, minus one */
+	private static final int PROGRESS_MASK = (1 << 20) - 1;
+
 	/**
 	 * Reads tickets from a .txt file. If there are any errors in processing the
 	 * file an IllegalArgumentException is thrown. Returns the tickets read in an
-	 * ArrayList
-	 * 
+	 * ArrayList. Files of at least PARALLEL_THRESHOLD bytes are loaded with
+	 * readTicketFileParallel when more than one core is available. Files named
+	 * with TicketBinaryReader.EXTENSION are read as binary snapshots.
+	 *
 	 * @param fileName Name of the file being read
 	 * @return ArrayList of Tickets read from the file
-	 * @throws FileNotFoundException
 	 */
 	public static ArrayList<Ticket> readTicketFile(String fileName) {
-		Scanner fileReader = null;
+		if (TicketBinaryReader.isBinaryFile(fileName)) {
+			return TicketBinaryReader.readTicketFile(fileName);
+		}
+		if (new File(fileName).length() >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+			return readTicketFileParallel(fileName);
+		}
+		Reader fileReader = null;
 		try {
-			fileReader = new Scanner(new FileInputStream(fileName));
+			fileReader = new InputStreamReader(new FileInputStream(fileName), StandardCharsets.UTF_8);
 		} catch (FileNotFoundException e) {
 			throw new IllegalArgumentException("Unable to load file.");
 		}
-		ArrayList<Ticket> tickets = new ArrayList<Ticket>();
-		while (fileReader.hasNextLine()) {
+		try {
+			return readTickets(fileReader);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		} finally {
+			try {
+				fileReader.close();
+			} catch (IOException e) {
+				// nothing left to read
+			}
+		}
+	}
+
+	/**
+	 * Reads tickets from a file like readTicketFile(String), reporting the bytes
+	 * of a text file or the tickets of a binary file read so far. Text files of
+	 * at least PARALLEL_THRESHOLD bytes are loaded with readTicketFileParallel
+	 * when more than one core is available. If there are any errors in
+	 * processing the file an IllegalArgumentException is thrown, and a
+	 * CancellationException if the progress was canceled.
+	 *
+	 * @param fileName Name of the file being read
+	 * @param progress Progress to report to, or null
+	 * @return ArrayList of Tickets read from the file
+	 */
+	public static ArrayList<Ticket> readTicketFile(String fileName, TicketProgress progress) {
+		if (progress == null) {
+			return readTicketFile(fileName);
+		}
+		if (TicketBinaryReader.isBinaryFile(fileName)) {
+			return TicketBinaryReader.readTicketFile(fileName, progress);
+		}
+		if (new File(fileName).length() >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+			return readTicketFileParallel(fileName, progress);
+		}
+		Reader fileReader = null;
+		try {
+			File file = new File(fileName);
+			fileReader = new InputStreamReader(new ProgressInputStream(new FileInputStream(file), file.length(),
+					progress), StandardCharsets.UTF_8);
+		} catch (FileNotFoundException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		try {
+			return readTickets(fileReader);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		} finally {
 			try {
-				Ticket ticket = readTicket(fileReader);
-				tickets.add(ticket);
-			} catch (IllegalArgumentException e) {
-				// skip line
+				fileReader.close();
+			} catch (IOException e) {
+				// nothing left to read
+			}
+		}
+	}
+
+	/**
+	 * Reads tickets from a Reader in one pass. The input is read in large blocks
+	 * into a single buffer, and each line is handed to the parser as a range of
+	 * that buffer, so no String is created for a line. Invalid records are
+	 * skipped.
+	 *
+	 * @param in Reader for the ticket records
+	 * @return ArrayList of Tickets read
+	 * @throws IOException if the Reader cannot be read
+	 */
+	static ArrayList<Ticket> readTickets(Reader in) throws IOException {
+		ArrayList<Ticket> tickets = new ArrayList<Ticket>();
+		TicketRecordParser parser = new TicketRecordParser(tickets);
+		char[] buf = new char[BUFFER_SIZE];
+		int lineStart = 0;
+		int limit = 0;
+		while (true) {
+			if (lineStart > 0) {
+				// Move the unfinished line to the front of the buffer
+				System.arraycopy(buf, lineStart, buf, 0, limit - lineStart);
+				limit -= lineStart;
+				lineStart = 0;
+			} else if (limit == buf.length) {
+				buf = Arrays.copyOf(buf, buf.length * 2);
+			}
+			int scanFrom = limit;
+			int read = in.read(buf, limit, buf.length - limit);
+			if (read < 0) {
+				break;
 			}
+			limit += read;
+			for (int i = scanFrom; i < limit; i++) {
+				if (buf[i] == '\n') {
+					parser.parseLine(buf, lineStart, i);
+					lineStart = i + 1;
+				}
+			}
+		}
+		if (limit > lineStart) {
+			parser.parseLine(buf, lineStart, limit);
 		}
-		fileReader.close();
+		parser.finish();
 		return tickets;
 	}
 
 	/**
-	 * Private method for reading a line. Sorts tokens and creates a Ticket object
-	 * with them, which is returned
-	 * 
-	 * @param fileReader Scanner for reading lines
-	 * @return Ticket object created with scanned tokens
+	 * Reads tickets from a .txt file by mapping it into memory. Records are parsed
+	 * straight from the mapped bytes, so the file is not copied through a stream
+	 * and decoded as a whole first. Files larger than the mapping window are
+	 * mapped one window at a time, with each window starting at the beginning of
+	 * a line. If there are any errors in processing the file an
+	 * IllegalArgumentException is thrown.
+	 *
+	 * @param fileName Name of the file being read
+	 * @return ArrayList of Tickets read from the file
 	 */
-	private static Ticket readTicket(Scanner fileReader) {
-		Scanner lineScan = new Scanner(fileReader.nextLine());
-		lineScan.useDelimiter("#");
+	public static ArrayList<Ticket> readTicketFileMapped(String fileName) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			ArrayList<Ticket> tickets = new ArrayList<Ticket>();
+			readMapped(channel, 0, channel.size(), new TicketRecordParser(tickets), null);
+			return tickets;
+		} catch (IOException | RuntimeException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Reads tickets from a .txt file without reading their notes. Only the header
+	 * lines are decoded; for the note lines just the position in the file is
+	 * kept, and the notes of a ticket are read and parsed the first time they are
+	 * used. The file stays open until the returned list is closed. Binary
+	 * snapshots are read in full by readTicketFile. If there are any errors in
+	 * processing the file an IllegalArgumentException is thrown.
+	 *
+	 * @param fileName Name of the file being read
+	 * @return list of Tickets read from the file, to be closed once they are no
+	 *         longer used
+	 */
+	public static LazyTicketList readTicketFileLazy(String fileName) {
+		return readTicketFileLazy(fileName, null);
+	}
+
+	/**
+	 * Reads tickets from a file like readTicketFileLazy(String), reporting the
+	 * bytes scanned so far. A CancellationException is thrown if the progress was
+	 * canceled.
+	 *
+	 * @param fileName Name of the file being read
+	 * @param progress Progress to report to, or null
+	 * @return list of Tickets read from the file, to be closed once they are no
+	 *         longer used
+	 */
+	public static LazyTicketList readTicketFileLazy(String fileName, TicketProgress progress) {
+		if (TicketBinaryReader.isBinaryFile(fileName)) {
+			LazyTicketList tickets = new LazyTicketList(null);
+			tickets.addAll(readTicketFile(fileName, progress));
+			return tickets;
+		}
+		FileChannel channel = null;
+		boolean loaded = false;
 		try {
-			int id = Integer.parseInt(String.valueOf(lineScan.next().charAt(1)));
-			ArrayList<String> notes = new ArrayList<String>();
-			String state = lineScan.next();
-			String ticketType = lineScan.next();
-			String subject = lineScan.next();
-			String caller = lineScan.next();
-			String category = lineScan.next();
-			String priority = lineScan.next();
-			String owner = null;
-			if (lineScan.hasNext()) {
-				owner = lineScan.next();
-			}
-			String code = null;
-			if (lineScan.hasNext()) {
-				code = lineScan.next();
-			}
-			Ticket ticket = new Ticket(id, state, ticketType, subject, caller, category, priority, owner, code, notes);
-			lineScan.close();
-			lineScan.close();
-			return ticket;
-		} catch (NoSuchElementException e) {
-			throw new IllegalArgumentException();
+			channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+			TicketNotesFile file = new TicketNotesFile(channel);
+			LazyTicketList tickets = new LazyTicketList(file);
+			readHeaders(channel, file, new TicketRecordParser(tickets), progress);
+			loaded = true;
+			return tickets;
+		} catch (CancellationException e) {
+			throw e;
+		} catch (IOException | RuntimeException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		} finally {
+			if (channel != null && !loaded) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					// nothing left to read
+				}
+			}
+		}
+	}
+
+	/**
+	 * Parses the header lines of a file through memory mapped windows, giving
+	 * each record notes that are loaded from the lines between its header and the
+	 * next one
+	 *
+	 * @param channel channel of the file
+	 * @param file    file the notes are loaded from
+	 * @param parser   parser the records are handed to
+	 * @param progress progress to report the bytes scanned to, or null
+	 * @throws IOException if the file cannot be mapped
+	 */
+	static void readHeaders(FileChannel channel, TicketNotesFile file, TicketRecordParser parser,
+			TicketProgress progress) throws IOException {
+		CharsetDecoder decoder = newDecoder();
+		char[] header = new char[BUFFER_SIZE];
+		int headerLength = -1;
+		long notesStart = 0;
+		long size = channel.size();
+		long position = 0;
+		while (position < size) {
+			int windowSize = (int) Math.min(WINDOW_SIZE, size - position);
+			boolean last = position + windowSize == size;
+			MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+			int lineStart = 0;
+			for (int i = 0; i <= windowSize; i++) {
+				if (i < windowSize && window.get(i) != '\n') {
+					if ((i & PROGRESS_MASK) == 0) {
+						TicketProgress.report(progress, position + i, size);
+					}
+					continue;
+				}
+				if (i == windowSize && (!last || lineStart == windowSize)) {
+					break;
+				}
+				if (i > lineStart && window.get(lineStart) == '*') {
+					if (headerLength >= 0) {
+						addRecord(parser, file, header, headerLength, notesStart, position + lineStart);
+					}
+					header = ensureCapacity(header, i - lineStart);
+					headerLength = copyLine(decoder, window, lineStart, i, header);
+					notesStart = position + Math.min(i + 1, windowSize);
+				}
+				lineStart = i + 1;
+			}
+			if (last) {
+				position = size;
+			} else if (lineStart == 0) {
+				throw new IllegalArgumentException("Line is longer than the mapping window.");
+			} else {
+				position += lineStart;
+			}
+		}
+		if (headerLength >= 0) {
+			addRecord(parser, file, header, headerLength, notesStart, size);
+		}
+		TicketProgress.report(progress, size, size);
+	}
+
+	/**
+	 * Hands a header line to the parser with the notes that follow it
+	 *
+	 * @param parser       parser the record is handed to
+	 * @param file         file the notes are loaded from
+	 * @param header       buffer holding the header line
+	 * @param headerLength number of characters of the header line
+	 * @param notesStart   offset of the first note line
+	 * @param notesEnd     offset after the last note line
+	 */
+	private static void addRecord(TicketRecordParser parser, TicketNotesFile file, char[] header,
+			int headerLength, long notesStart, long notesEnd) {
+		TicketNotes notes = notesStart == notesEnd ? new TicketNotes()
+				: new TicketNotes(file.range(notesStart, notesEnd));
+		parser.parseRecord(header, 0, headerLength, notes);
+	}
+
+	/**
+	 * Copies a line of a mapped window into the line buffer, decoding it as UTF-8
+	 * unless it is plain ASCII
+	 *
+	 * @param decoder decoder to use
+	 * @param window  mapped window
+	 * @param start   offset of the line in the window
+	 * @param end     offset after the line in the window
+	 * @param line    buffer for the characters, at least as long as the line in
+	 *                bytes
+	 * @return number of characters in the line
+	 */
+	private static int copyLine(CharsetDecoder decoder, MappedByteBuffer window, int start, int end, char[] line) {
+		for (int i = start; i < end; i++) {
+			byte b = window.get(i);
+			if (b < 0) {
+				return decode(decoder, window, start, end, line);
+			}
+			line[i - start] = (char) b;
+		}
+		return end - start;
+	}
+
+	/**
+	 * Reads tickets from a .txt file on several threads. The file is split into
+	 * chunks at record boundaries, which are lines starting with '*', and each
+	 * chunk is parsed from a memory mapping on the common fork-join pool. The
+	 * chunks are merged in file order, so the result is the same as reading the
+	 * file in one pass. If there are any errors in processing the file an
+	 * IllegalArgumentException is thrown.
+	 *
+	 * @param fileName Name of the file being read
+	 * @return ArrayList of Tickets read from the file
+	 */
+	public static ArrayList<Ticket> readTicketFileParallel(String fileName) {
+		return readTicketFileParallel(fileName, null);
+	}
+
+	/**
+	 * Reads tickets from a .txt file on several threads like
+	 * readTicketFileParallel(String), reporting the bytes scanned so far by all
+	 * of the chunks together. The reports come from the threads of the pool, one
+	 * at a time. If there are any errors in processing the file an
+	 * IllegalArgumentException is thrown, and a CancellationException if the
+	 * progress was canceled.
+	 *
+	 * @param fileName Name of the file being read
+	 * @param progress Progress to report to, or null
+	 * @return ArrayList of Tickets read from the file
+	 */
+	public static ArrayList<Ticket> readTicketFileParallel(String fileName, TicketProgress progress) {
+		return readTicketFileParallel(fileName, ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_CORE, progress);
+	}
+
+	/**
+	 * Reads tickets from a .txt file split into about the given number of chunks,
+	 * parsing the chunks in parallel. Each chunk is kept within one mapping
+	 * window.
+	 *
+	 * @param fileName Name of the file being read
+	 * @param chunks   number of chunks to split the file into
+	 * @return ArrayList of Tickets read from the file
+	 */
+	static ArrayList<Ticket> readTicketFileParallel(String fileName, int chunks) {
+		return readTicketFileParallel(fileName, chunks, null);
+	}
+
+	/**
+	 * Reads tickets from a .txt file split into about the given number of chunks,
+	 * parsing the chunks in parallel and reporting the bytes scanned so far
+	 *
+	 * @param fileName Name of the file being read
+	 * @param chunks   number of chunks to split the file into
+	 * @param progress Progress to report to, or null
+	 * @return ArrayList of Tickets read from the file
+	 */
+	static ArrayList<Ticket> readTicketFileParallel(String fileName, int chunks, TicketProgress progress) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			long size = channel.size();
+			ChunkProgress scanned = progress == null ? null : new ChunkProgress(progress, size);
+			long count = Math.max(chunks, size / WINDOW_SIZE + 1);
+			List<ForkJoinTask<ArrayList<Ticket>>> tasks = new ArrayList<ForkJoinTask<ArrayList<Ticket>>>();
+			long start = 0;
+			for (long k = 1; k <= count && start < size; k++) {
+				long end = k == count ? size : recordStart(channel, Math.max(start + 1, size * k / count));
+				if (end > start) {
+					tasks.add(ForkJoinPool.commonPool().submit(new ChunkTask(channel, start, end, scanned)));
+					start = end;
+				}
+			}
+			int total = 0;
+			List<ArrayList<Ticket>> parts = new ArrayList<ArrayList<Ticket>>(tasks.size());
+			for (ForkJoinTask<ArrayList<Ticket>> task : tasks) {
+				ArrayList<Ticket> part = task.join();
+				total += part.size();
+				parts.add(part);
+			}
+			ArrayList<Ticket> tickets = new ArrayList<Ticket>(total);
+			for (ArrayList<Ticket> part : parts) {
+				tickets.addAll(part);
+			}
+			TicketProgress.report(progress, size, size);
+			return tickets;
+		} catch (CancellationException e) {
+			// join rethrows a copy without the message when a chunk saw the cancel
+			throw new CancellationException("Canceled.");
+		} catch (IOException | RuntimeException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Returns the offset of the first record that starts at or after the given
+	 * offset, or the size of the file if there is none. A record starts with a
+	 * '*' at the beginning of a line.
+	 *
+	 * @param channel channel of the file
+	 * @param from    offset to search from, greater than 0
+	 * @return offset of the next record
+	 * @throws IOException if the file cannot be read
+	 */
+	private static long recordStart(FileChannel channel, long from) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+		long position = from - 1;
+		byte previous = 0;
+		boolean first = true;
+		while (true) {
+			buf.clear();
+			int read = channel.read(buf, position);
+			if (read <= 0) {
+				return channel.size();
+			}
+			for (int i = 0; i < read; i++) {
+				byte b = buf.get(i);
+				if (!first && previous == '\n' && b == '*') {
+					return position + i;
+				}
+				previous = b;
+				first = false;
+			}
+			position += read;
+		}
+	}
+
+	/**
+	 * Parses the lines of a range of a file through memory mapped windows. The
+	 * range must start at the beginning of a line. Lines of plain ASCII are
+	 * copied into the line buffer while they are scanned; other lines are
+	 * decoded as UTF-8.
+	 *
+	 * @param channel  channel of the file
+	 * @param start    offset of the first byte of the range
+	 * @param end      offset after the last byte of the range
+	 * @param parser   parser the lines are handed to
+	 * @param progress progress to add the bytes scanned to, or null
+	 * @throws IOException if the file cannot be mapped
+	 */
+	static void readMapped(FileChannel channel, long start, long end, TicketRecordParser parser,
+			ChunkProgress progress) throws IOException {
+		CharsetDecoder decoder = newDecoder();
+		char[] line = new char[BUFFER_SIZE];
+		long position = start;
+		long counted = start;
+		while (position < end) {
+			int size = (int) Math.min(WINDOW_SIZE, end - position);
+			boolean last = position + size == end;
+			MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+			int lineStart = 0;
+			int length = 0;
+			boolean ascii = true;
+			for (int i = 0; i < size; i++) {
+				if ((i & PROGRESS_MASK) == 0 && progress != null && position + i > counted) {
+					progress.add(position + i - counted);
+					counted = position + i;
+				}
+				byte b = window.get(i);
+				if (b == '\n') {
+					if (!ascii) {
+						line = ensureCapacity(line, i - lineStart);
+						length = decode(decoder, window, lineStart, i, line);
+					}
+					parser.parseLine(line, 0, length);
+					lineStart = i + 1;
+					length = 0;
+					ascii = true;
+				} else if (b < 0) {
+					ascii = false;
+				} else if (ascii) {
+					if (length == line.length) {
+						line = Arrays.copyOf(line, line.length * 2);
+					}
+					line[length++] = (char) b;
+				}
+			}
+			if (last) {
+				if (lineStart < size) {
+					if (!ascii) {
+						line = ensureCapacity(line, size - lineStart);
+						length = decode(decoder, window, lineStart, size, line);
+					}
+					parser.parseLine(line, 0, length);
+				}
+				position = end;
+			} else if (lineStart == 0) {
+				throw new IllegalArgumentException("Line is longer than the mapping window.");
+			} else {
+				// The next window starts at the line that did not fit in this one
+				position += lineStart;
+			}
+		}
+		parser.finish();
+		if (progress != null) {
+			progress.add(end - counted);
+		}
+	}
+
+	/**
+	 * Returns a line buffer that can hold at least the given number of characters
+	 *
+	 * @param line     current line buffer
+	 * @param capacity number of characters needed
+	 * @return line buffer with enough room
+	 */
+	private static char[] ensureCapacity(char[] line, int capacity) {
+		if (capacity <= line.length) {
+			return line;
+		}
+		return new char[Math.max(capacity, line.length * 2)];
+	}
+
+	/**
+	 * Returns a UTF-8 decoder that replaces malformed bytes with U+FFFD, as the
+	 * InputStreamReader of readTicketFile does, so a file reads the same through
+	 * every path whatever its size
+	 *
+	 * @return new decoder
+	 */
+	private static CharsetDecoder newDecoder() {
+		return StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	/**
+	 * Decodes a UTF-8 line of a mapped window into the line buffer, replacing
+	 * malformed bytes
+	 *
+	 * @param decoder decoder to use
+	 * @param window  mapped window
+	 * @param start   offset of the line in the window
+	 * @param end     offset after the line in the window
+	 * @param line    buffer for the decoded characters, at least as long as the
+	 *                line in bytes
+	 * @return number of characters decoded
+	 */
+	private static int decode(CharsetDecoder decoder, MappedByteBuffer window, int start, int end, char[] line) {
+		ByteBuffer in = window.duplicate();
+		in.limit(end);
+		in.position(start);
+		CharBuffer out = CharBuffer.wrap(line);
+		decoder.reset();
+		decoder.decode(in, out, true);
+		decoder.flush(out);
+		return out.position();
+	}
+
+	/**
+	 * Task that parses one chunk of a ticket file
+	 */
+	private static class ChunkTask implements Callable<ArrayList<Ticket>> {
+
+		/** Channel of the file */
+		private FileChannel channel;
+		/** Offset of the first record of the chunk */
+		private long start;
+		/** Offset after the last record of the chunk */
+		private long end;
+		/** Progress to add the bytes scanned to, or null */
+		private ChunkProgress progress;
+
+		/**
+		 * Constructor for ChunkTask
+		 *
+		 * @param channel  channel of the file
+		 * @param start    offset of the first record of the chunk
+		 * @param end      offset after the last record of the chunk
+		 * @param progress progress to add the bytes scanned to, or null
+		 */
+		ChunkTask(FileChannel channel, long start, long end, ChunkProgress progress) {
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+			this.progress = progress;
+		}
+
+		@Override
+		public ArrayList<Ticket> call() throws IOException {
+			ArrayList<Ticket> tickets = new ArrayList<Ticket>();
+			readMapped(channel, start, end, new TicketRecordParser(tickets), progress);
+			return tickets;
+		}
+	}
+
+	/**
+	 * Bytes scanned by all of the chunks of a file read in parallel, reported to
+	 * a TicketProgress one chunk at a time
+	 */
+	static class ChunkProgress {
+
+		/** Progress to report to */
+		private TicketProgress progress;
+		/** Size of the file in bytes */
+		private long total;
+		/** Bytes scanned so far */
+		private long done;
+
+		/**
+		 * Constructor for ChunkProgress
+		 *
+		 * @param progress progress to report to
+		 * @param total    size of the file in bytes
+		 */
+		ChunkProgress(TicketProgress progress, long total) {
+			this.progress = progress;
+			this.total = total;
+		}
+
+		/**
+		 * Adds bytes scanned by a chunk and reports the bytes scanned so far
+		 *
+		 * @param bytes bytes scanned since the chunk last added
+		 */
+		synchronized void add(long bytes) {
+			done += bytes;
+			TicketProgress.report(progress, done, total);
+		}
+	}
+
+	/**
+	 * Input stream that reports the number of bytes read to a TicketProgress
+	 */
+	private static class ProgressInputStream extends FilterInputStream {
+
+		/** Progress to report to */
+		private TicketProgress progress;
+		/** Size of the file in bytes */
+		private long total;
+		/** Bytes read so far */
+		private long done;
+
+		/**
+		 * Constructor for ProgressInputStream
+		 *
+		 * @param in       stream of the file
+		 * @param total    size of the file in bytes
+		 * @param progress progress to report to
+		 */
+		ProgressInputStream(InputStream in, long total, TicketProgress progress) {
+			super(in);
+			this.total = total;
+			this.progress = progress;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = super.read(b, off, len);
+			if (read > 0) {
+				done += read;
+			}
+			TicketProgress.report(progress, done, total);
+			return read;
 		}
 	}
 }
@@ -0,0 +1,339 @@
+package edu.ncsu.csc216.ticket_manager.model.io;
+
+import java.util.ArrayList;
+
+import edu.ncsu.csc216.ticket_manager.model.command.Command;
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+import edu.ncsu.csc216.ticket_manager.model.ticket.TicketNotes;
+
+/**
+ * Builds Tickets from the lines of a ticket file. A line starting with '*' is
+ * the header of a new ticket, with its fields separated by '#'. A line starting
+ * with '-' starts a new note for the current ticket, and any other line
+ * continues the previous note. Lines are passed in as ranges of a character
+ * buffer that the caller may reuse, so the parser only allocates the Strings
+ * that end up in a Ticket. Field values that can only be one of a few names,
+ * such as the state or category, are mapped to the shared constants instead of
+ * being copied. Callers and owners repeat across many tickets, so the parser
+ * keeps the names it has read and gives every ticket with the same name one
+ * shared copy. The names are dropped with the parser, so they last only as
+ * long as the tickets of the file. Records that are not valid are skipped.
+ *
+ * @author Benson Liu
+ *
+ */
+class TicketRecordParser {
+
+	/** Number of fields a header must have */
+	private static final int REQUIRED_FIELDS = 7;
+	/** Largest number of fields used from a header */
+	private static final int MAX_FIELDS = 9;
+	/** Number of slots of the empty name table, a power of two */
+	private static final int INITIAL_NAMES = 64;
+	/** Names a state field can have */
+	static final String[] STATE_NAMES = { Ticket.NEW_NAME, Ticket.WORKING_NAME, Ticket.FEEDBACK_NAME,
+		Ticket.RESOLVED_NAME, Ticket.CLOSED_NAME, Ticket.CANCELED_NAME };
+	/** Names a ticket type field can have, in the order of Ticket.TicketType */
+	static final String[] TYPE_NAMES = { Ticket.TT_REQUEST, Ticket.TT_INCIDENT };
+	/** Names a category field can have, in the order of Ticket.Category */
+	static final String[] CATEGORY_NAMES = { Ticket.C_INQUIRY, Ticket.C_SOFTWARE, Ticket.C_HARDWARE,
+		Ticket.C_NETWORK, Ticket.C_DATABASE };
+	/** Names a priority field can have, in the order of Ticket.Priority */
+	static final String[] PRIORITY_NAMES = { Ticket.P_URGENT, Ticket.P_HIGH, Ticket.P_MEDIUM, Ticket.P_LOW };
+	/** Names a code field can have */
+	static final String[] CODE_NAMES = { Command.F_CALLER, Command.F_CHANGE, Command.F_PROVIDER,
+		Command.RC_COMPLETED, Command.RC_NOT_COMPLETED, Command.RC_SOLVED, Command.RC_WORKAROUND,
+		Command.RC_NOT_SOLVED, Command.RC_CALLER_CLOSED, Command.CC_DUPLICATE, Command.CC_INAPPROPRIATE };
+
+	/** Tickets built so far */
+	private ArrayList<Ticket> tickets;
+	/** Start offsets of the fields of the current header, reused per line */
+	private int[] fieldStarts = new int[MAX_FIELDS];
+	/** End offsets of the fields of the current header, reused per line */
+	private int[] fieldEnds = new int[MAX_FIELDS];
+	/** Header fields of the current record, null if there is no valid record */
+	private String[] header;
+	/** Notes of the current record */
+	private ArrayList<String> notes;
+	/** Notes of the current record that are loaded on first use, or null */
+	private TicketNotes lazyNotes;
+	/** Text of the note being read, reused between notes */
+	private StringBuilder note = new StringBuilder();
+	/** Whether a note is being read */
+	private boolean inNote;
+	/** ID of the current record */
+	private int id;
+	/** Caller and owner names read so far, in an open-addressing table by hash */
+	private String[] names = new String[INITIAL_NAMES];
+	/** Number of names in the table */
+	private int nameCount;
+
+	/**
+	 * Constructor for TicketRecordParser. Tickets are added to the given list.
+	 *
+	 * @param tickets List the parsed Tickets are added to
+	 */
+	TicketRecordParser(ArrayList<Ticket> tickets) {
+		this.tickets = tickets;
+	}
+
+	/**
+	 * Parses one line of a ticket file, without its line terminator
+	 *
+	 * @param buf   buffer holding the line
+	 * @param start offset of the first character of the line
+	 * @param end   offset after the last character of the line
+	 */
+	void parseLine(char[] buf, int start, int end) {
+		if (end > start && buf[end - 1] == '\r') {
+			end--;
+		}
+		if (end > start && buf[start] == '*') {
+			finish();
+			parseHeader(buf, start + 1, end);
+		} else if (header == null) {
+			return;
+		} else if (end > start && buf[start] == '-') {
+			endNote();
+			note.append(buf, start + 1, end - start - 1);
+			inNote = true;
+		} else if (inNote) {
+			note.append('\n').append(buf, start, end - start);
+		}
+	}
+
+	/**
+	 * Adds the record being parsed, if it is valid. Must be called after the last
+	 * line.
+	 */
+	void finish() {
+		if (header == null) {
+			return;
+		}
+		endNote();
+		try {
+			tickets.add(new Ticket(id, header[1], header[2], header[3], header[4], header[5], header[6], header[7],
+					header[8], lazyNotes != null ? lazyNotes : new TicketNotes(notes)));
+		} catch (IllegalArgumentException e) {
+			// skip record
+		}
+		header = null;
+		notes = null;
+		lazyNotes = null;
+	}
+
+	/**
+	 * Parses a header line and adds its record with notes that are loaded on
+	 * first use, instead of notes from the following lines
+	 *
+	 * @param buf   buffer holding the header line
+	 * @param start offset of the leading '*'
+	 * @param end   offset after the last character of the line
+	 * @param lazy  notes of the record
+	 */
+	void parseRecord(char[] buf, int start, int end, TicketNotes lazy) {
+		parseLine(buf, start, end);
+		lazyNotes = lazy;
+		finish();
+	}
+
+	/**
+	 * Splits the note lines of a record into notes, by the same rules parseLine
+	 * uses
+	 *
+	 * @param text note lines of one record
+	 * @return notes
+	 */
+	static ArrayList<String> parseNotes(String text) {
+		ArrayList<String> result = new ArrayList<String>();
+		StringBuilder current = null;
+		int start = 0;
+		while (start < text.length()) {
+			int end = text.indexOf('\n', start);
+			int next = end < 0 ? text.length() : end + 1;
+			if (end < 0) {
+				end = text.length();
+			}
+			if (end > start && text.charAt(end - 1) == '\r') {
+				end--;
+			}
+			if (end > start && text.charAt(start) == '-') {
+				if (current != null) {
+					result.add(current.toString());
+				}
+				current = new StringBuilder().append(text, start + 1, end);
+			} else if (current != null) {
+				current.append('\n').append(text, start, end);
+			}
+			start = next;
+		}
+		if (current != null) {
+			result.add(current.toString());
+		}
+		return result;
+	}
+
+	/**
+	 * Splits a header line into its fields. The record is skipped if it does not
+	 * have every required field or the ID is not a number.
+	 *
+	 * @param buf   buffer holding the line
+	 * @param start offset after the leading '*'
+	 * @param end   offset after the last character of the line
+	 */
+	private void parseHeader(char[] buf, int start, int end) {
+		int count = 0;
+		int fieldStart = start;
+		for (int i = start; i <= end && count < MAX_FIELDS; i++) {
+			if (i == end || buf[i] == '#') {
+				fieldStarts[count] = fieldStart;
+				fieldEnds[count] = i;
+				count++;
+				fieldStart = i + 1;
+			}
+		}
+		if (count < REQUIRED_FIELDS || !parseId(buf, fieldStarts[0], fieldEnds[0])) {
+			return;
+		}
+		String[] fields = new String[MAX_FIELDS];
+		fields[1] = constant(buf, fieldStarts[1], fieldEnds[1], STATE_NAMES);
+		fields[2] = constant(buf, fieldStarts[2], fieldEnds[2], TYPE_NAMES);
+		fields[3] = new String(buf, fieldStarts[3], fieldEnds[3] - fieldStarts[3]);
+		fields[4] = name(buf, fieldStarts[4], fieldEnds[4]);
+		fields[5] = constant(buf, fieldStarts[5], fieldEnds[5], CATEGORY_NAMES);
+		fields[6] = constant(buf, fieldStarts[6], fieldEnds[6], PRIORITY_NAMES);
+		if (count > 7) {
+			fields[7] = name(buf, fieldStarts[7], fieldEnds[7]);
+		}
+		if (count > 8 && fieldEnds[8] > fieldStarts[8]) {
+			fields[8] = constant(buf, fieldStarts[8], fieldEnds[8], CODE_NAMES);
+		}
+		header = fields;
+		notes = new ArrayList<String>();
+	}
+
+	/**
+	 * Parses the ID field of a header into the id field
+	 *
+	 * @param buf   buffer holding the line
+	 * @param start offset of the first digit
+	 * @param end   offset after the last digit
+	 * @return true if the field is a valid ID
+	 */
+	private boolean parseId(char[] buf, int start, int end) {
+		if (start == end || end - start > 9) {
+			return false;
+		}
+		int value = 0;
+		for (int i = start; i < end; i++) {
+			char c = buf[i];
+			if (c < '0' || c > '9') {
+				return false;
+			}
+			value = value * 10 + (c - '0');
+		}
+		id = value;
+		return true;
+	}
+
+	/**
+	 * Adds the note being read to the notes of the current record
+	 */
+	private void endNote() {
+		if (inNote) {
+			notes.add(note.toString());
+			note.setLength(0);
+			inNote = false;
+		}
+	}
+
+	/**
+	 * Returns the constant matching a field, or a copy of the field if none match
+	 *
+	 * @param buf       buffer holding the line
+	 * @param start     offset of the field
+	 * @param end       offset after the field
+	 * @param constants names the field is expected to match
+	 * @return matching constant or a new String
+	 */
+	private static String constant(char[] buf, int start, int end, String[] constants) {
+		int length = end - start;
+		for (int i = 0; i < constants.length; i++) {
+			String name = constants[i];
+			if (name.length() == length && matches(buf, start, name)) {
+				return name;
+			}
+		}
+		return new String(buf, start, length);
+	}
+
+	/**
+	 * Returns the copy of a caller or owner name shared by the tickets of this
+	 * parser, adding the name if it was not read before
+	 *
+	 * @param buf   buffer holding the line
+	 * @param start offset of the field
+	 * @param end   offset after the field
+	 * @return shared String of the field
+	 */
+	private String name(char[] buf, int start, int end) {
+		int length = end - start;
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + buf[i];
+		}
+		int mask = names.length - 1;
+		int slot = spread(hash) & mask;
+		for (String name = names[slot]; name != null; name = names[slot]) {
+			if (name.length() == length && matches(buf, start, name)) {
+				return name;
+			}
+			slot = (slot + 1) & mask;
+		}
+		String name = new String(buf, start, length);
+		names[slot] = name;
+		if (++nameCount * 2 > names.length) {
+			String[] old = names;
+			names = new String[old.length * 2];
+			mask = names.length - 1;
+			for (String n : old) {
+				if (n != null) {
+					int s = spread(n.hashCode()) & mask;
+					while (names[s] != null) {
+						s = (s + 1) & mask;
+					}
+					names[s] = n;
+				}
+			}
+		}
+		return name;
+	}
+
+	/**
+	 * Spreads the high bits of a String hash code over the low bits used to pick
+	 * a slot
+	 *
+	 * @param hash hash code of a name
+	 * @return spread hash
+	 */
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Returns whether a range of the buffer holds the given name
+	 *
+	 * @param buf   buffer to check
+	 * @param start offset of the range
+	 * @param name  name to compare with, same length as the range
+	 * @return true if the characters match
+	 */
+	private static boolean matches(char[] buf, int start, String name) {
+		for (int i = 0; i < name.length(); i++) {
+			if (buf[start + i] != name.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
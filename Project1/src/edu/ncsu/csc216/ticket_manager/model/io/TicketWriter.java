@@ -1,9 +1,23 @@
 package edu.ncsu.csc216.ticket_manager.model.io;
 
-import java.io.File;
 import java.io.IOException;
-import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
 
@@ -15,30 +29,243 @@ import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
  */
 public class TicketWriter {
 
+	/** Number of characters collected before they are encoded and written */
+	private static final int BLOCK_SIZE = 256 * 1024;
+
 	/**
-	 * Writes tickets onto a .txt file using the Ticket.toString() method. If there
-	 * are any errors during the processing, an IllegalArgumentException is thrown.
+	 * Writes tickets onto a .txt file in the format of Ticket.toString(). Files
+	 * named with TicketBinaryReader.EXTENSION are written as binary snapshots. If
+	 * there are any errors during the processing, an IllegalArgumentException is
+	 * thrown.
 	 * 
 	 * @param fileName Name of file tickets are being printed on
 	 * @param tickets  The tickets being printed onto the file
-	 * @throws IOException thrown if file cannot be written onto
 	 */
 	public static void writeTicketFile(String fileName, List<Ticket> tickets) {
-		PrintStream fileWriter = null;
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeTickets(channel, fileName, tickets, null);
+		} catch (IOException | InvalidPathException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+	}
+
+	/**
+	 * Writes tickets onto a .txt file without ever leaving a partly written file
+	 * in its place. The tickets are written to a temporary file in the same
+	 * directory, which is forced to disk and then renamed over the target in one
+	 * step; the directory is then forced so the rename itself is durable. The
+	 * temporary file is given the permissions, owner and group of the file it
+	 * replaces, so a save does not change who can read the file. If the save
+	 * fails, the temporary file is removed and the original file is left as it
+	 * was, and an IllegalArgumentException is thrown. Files named with
+	 * TicketBinaryReader.EXTENSION are written as binary snapshots.
+	 * 
+	 * @param fileName Name of file tickets are being printed on
+	 * @param tickets  The tickets being printed onto the file
+	 */
+	public static void writeTicketFileAtomic(String fileName, List<Ticket> tickets) {
+		writeTicketFileAtomic(fileName, tickets, null);
+	}
+
+	/**
+	 * Writes tickets onto a file like writeTicketFileAtomic(String, List),
+	 * reporting the number of tickets written. If the progress is canceled, a
+	 * CancellationException is thrown and the original file is left as it was.
+	 * 
+	 * @param fileName Name of file tickets are being printed on
+	 * @param tickets  The tickets being printed onto the file
+	 * @param progress Progress to report to, or null
+	 */
+	public static void writeTicketFileAtomic(String fileName, List<Ticket> tickets, TicketProgress progress) {
+		Path target;
+		Path temp;
+		try {
+			target = Paths.get(fileName).toAbsolutePath();
+			temp = target.resolveSibling(target.getFileName() + "."
+					+ Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+		} catch (InvalidPathException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		boolean created = false;
 		try {
-			fileWriter = new PrintStream(new File(fileName));
+			// Created like any new file, not with the owner-only mode of a temp file
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+					StandardOpenOption.CREATE_NEW)) {
+				created = true;
+				writeTickets(channel, fileName, tickets, progress);
+				channel.force(true);
+			}
+			TicketProgress.report(progress, tickets.size(), tickets.size());
+			copyPermissions(target, temp);
+			moveAtomic(temp, target);
+			forceDirectory(target.getParent());
 		} catch (IOException e) {
 			throw new IllegalArgumentException("Unable to save file.");
+		} finally {
+			try {
+				if (created) {
+					Files.deleteIfExists(temp);
+				}
+			} catch (IOException e) {
+				// the temporary file was already moved or cannot be removed
+			}
+		}
+	}
+
+	/**
+	 * Renames a file over another in one step, falling back to a plain replace on
+	 * file systems that cannot move atomically
+	 * 
+	 * @param source File to move
+	 * @param target File to replace
+	 * @throws IOException if the file cannot be moved
+	 */
+	static void moveAtomic(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Gives a file the POSIX permissions, owner and group of another file, if
+	 * that file exists and the file system has POSIX attributes. The owner and
+	 * group are left as they are if the user may not change them.
+	 * 
+	 * @param source File to copy the attributes from
+	 * @param target File to copy the attributes to
+	 * @throws IOException if the attributes cannot be read or the permissions
+	 *                     cannot be set
+	 */
+	static void copyPermissions(Path source, Path target) throws IOException {
+		PosixFileAttributeView from = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+		PosixFileAttributeView to = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+		if (from == null || to == null || !Files.exists(source)) {
+			return;
+		}
+		PosixFileAttributes attributes = from.readAttributes();
+		to.setPermissions(attributes.permissions());
+		try {
+			to.setGroup(attributes.group());
+			to.setOwner(attributes.owner());
+		} catch (IOException e) {
+			// only a privileged user can give a file to someone else
+		}
+	}
+
+	/**
+	 * Forces a directory to disk, so a file renamed into it stays renamed after
+	 * a crash. File systems that cannot open a directory, such as on Windows,
+	 * make the rename durable on their own.
+	 * 
+	 * @param directory Directory to force
+	 */
+	static void forceDirectory(Path directory) {
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			// the directory cannot be opened for reading on this file system
 		}
+	}
+
+	/**
+	 * Writes tickets to a channel in the format chosen by the file name
+	 * 
+	 * @param channel  Channel the tickets are written to
+	 * @param fileName Name of the file being written
+	 * @param tickets  The tickets being written
+	 * @param progress Progress to report to, or null
+	 * @throws IOException if the channel cannot be written
+	 */
+	private static void writeTickets(FileChannel channel, String fileName, List<Ticket> tickets,
+			TicketProgress progress) throws IOException {
+		if (TicketBinaryReader.isBinaryFile(fileName)) {
+			TicketBinaryWriter.writeTickets(channel, tickets, progress);
+		} else {
+			writeTickets(channel, tickets, progress);
+		}
+	}
+
+	/**
+	 * Writes tickets to a channel. Every ticket is appended to one reusable
+	 * StringBuilder, which is encoded to UTF-8 and written whenever it holds a
+	 * full block, so the channel sees a few large writes.
+	 * 
+	 * @param channel Channel the tickets are written to
+	 * @param tickets The tickets being written
+	 * @throws IOException if the channel cannot be written
+	 */
+	static void writeTickets(FileChannel channel, List<Ticket> tickets) throws IOException {
+		writeTickets(channel, tickets, null);
+	}
+
+	/**
+	 * Writes tickets to a channel, reporting the number of tickets written each
+	 * time a block is written
+	 * 
+	 * @param channel  Channel the tickets are written to
+	 * @param tickets  The tickets being written
+	 * @param progress Progress to report to, or null
+	 * @throws IOException if the channel cannot be written
+	 */
+	static void writeTickets(FileChannel channel, List<Ticket> tickets, TicketProgress progress)
+			throws IOException {
+		StringBuilder sb = new StringBuilder(BLOCK_SIZE + BLOCK_SIZE / 4);
+		CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+		ByteBuffer out = ByteBuffer.allocate(BLOCK_SIZE * 2);
 		for (int i = 0; i < tickets.size(); i++) {
-			if (i == tickets.size() - 1) {
-				fileWriter.print(tickets.get(i).toString());
-			} else {
-				fileWriter.print(tickets.get(i).toString());
+			tickets.get(i).appendTo(sb);
+			if (sb.length() >= BLOCK_SIZE) {
+				writeBlock(channel, sb, encoder, out);
+				TicketProgress.report(progress, i + 1, tickets.size());
 			}
+		}
+		writeBlock(channel, sb, encoder, out);
+	}
 
+	/**
+	 * Encodes the characters in the StringBuilder, writes them to the channel, and
+	 * empties the StringBuilder
+	 * 
+	 * @param channel Channel to write to
+	 * @param sb      Characters to write
+	 * @param encoder UTF-8 encoder
+	 * @param out     Buffer for the encoded bytes
+	 * @throws IOException if the channel cannot be written
+	 */
+	private static void writeBlock(FileChannel channel, StringBuilder sb, CharsetEncoder encoder, ByteBuffer out)
+			throws IOException {
+		CharBuffer in = CharBuffer.wrap(sb);
+		encoder.reset();
+		CoderResult result;
+		do {
+			result = encoder.encode(in, out, true);
+			if (result.isError()) {
+				throw new IOException("Unable to encode ticket.");
+			}
+			drain(channel, out);
+		} while (result.isOverflow());
+		while (encoder.flush(out).isOverflow()) {
+			drain(channel, out);
 		}
+		drain(channel, out);
+		sb.setLength(0);
+	}
 
-		fileWriter.close();
+	/**
+	 * Writes the bytes in a buffer to the channel and clears the buffer
+	 * 
+	 * @param channel Channel to write to
+	 * @param out     Buffer holding the bytes to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	private static void drain(FileChannel channel, ByteBuffer out) throws IOException {
+		out.flip();
+		while (out.hasRemaining()) {
+			channel.write(out);
+		}
+		out.clear();
 	}
 }
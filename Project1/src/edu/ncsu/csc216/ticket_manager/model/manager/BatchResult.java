@@ -0,0 +1,101 @@
+package edu.ncsu.csc216.ticket_manager.model.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a batch of commands run through TicketManager.executeCommands()
+ * or TicketManager.executeWhere(). Lists the tickets the commands were applied
+ * to, the tickets whose state did not allow their command along with the
+ * UnsupportedOperationException that was thrown, and the requested ticket IDs
+ * that were not found. Tickets are listed in the order of the batch.
+ *
+ * @author Benson Liu
+ *
+ */
+public class BatchResult {
+
+	/** IDs of the tickets the commands were applied to */
+	private ArrayList<Integer> succeeded = new ArrayList<Integer>();
+	/** Rejected commands by ticket ID */
+	private LinkedHashMap<Integer, UnsupportedOperationException> rejected =
+			new LinkedHashMap<Integer, UnsupportedOperationException>();
+	/** IDs that no ticket has */
+	private ArrayList<Integer> notFound = new ArrayList<Integer>();
+
+	/**
+	 * Records a command that was applied
+	 *
+	 * @param id ID of ticket
+	 */
+	void addSucceeded(int id) {
+		succeeded.add(id);
+	}
+
+	/**
+	 * Records a command the state of the ticket did not allow
+	 *
+	 * @param id ID of ticket
+	 * @param e  exception thrown by the ticket
+	 */
+	void addRejected(int id, UnsupportedOperationException e) {
+		rejected.put(id, e);
+	}
+
+	/**
+	 * Records an ID that no ticket has
+	 *
+	 * @param id requested ID
+	 */
+	void addNotFound(int id) {
+		notFound.add(id);
+	}
+
+	/**
+	 * Returns the IDs of the tickets the commands were applied to
+	 *
+	 * @return IDs of updated tickets
+	 */
+	public List<Integer> getSucceeded() {
+		return Collections.unmodifiableList(succeeded);
+	}
+
+	/**
+	 * Returns the rejected commands, by ticket ID
+	 *
+	 * @return exceptions thrown by the tickets that rejected their command
+	 */
+	public Map<Integer, UnsupportedOperationException> getRejected() {
+		return Collections.unmodifiableMap(rejected);
+	}
+
+	/**
+	 * Returns the requested IDs that no ticket has
+	 *
+	 * @return IDs not found
+	 */
+	public List<Integer> getNotFound() {
+		return Collections.unmodifiableList(notFound);
+	}
+
+	/**
+	 * Returns the number of commands that were applied
+	 *
+	 * @return number of updated tickets
+	 */
+	public int getSuccessCount() {
+		return succeeded.size();
+	}
+
+	/**
+	 * Returns the number of commands that were rejected
+	 *
+	 * @return number of rejected commands
+	 */
+	public int getRejectedCount() {
+		return rejected.size();
+	}
+}
@@ -0,0 +1,525 @@
+package edu.ncsu.csc216.ticket_manager.model.manager;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+import edu.ncsu.csc216.ticket_manager.model.ticket.TicketTransitions;
+
+/**
+ * Columnar store for tickets that are no longer changed, such as Closed and
+ * Canceled tickets kept for reporting. Each field is kept in its own array
+ * indexed by slot: IDs as ints, state, type, category and priority as byte
+ * ordinals, and caller, owner and code as references into a dictionary of
+ * distinct strings. Subjects and notes are encoded as UTF-8 into one direct
+ * ByteBuffer outside the Java heap. An archived ticket costs a few bytes of
+ * heap instead of a Ticket with its strings and lists, and the garbage
+ * collector never has to trace it.
+ *
+ * Tickets are not kept as objects: get() builds a new Ticket from the columns
+ * each time it is called, so changing the returned Ticket does not change the
+ * archive. Removing a ticket only marks its slot, and the order by ID drops
+ * the marked slots the next time the archive is walked in order, so removing
+ * many tickets in a row does not copy the order each time. Removed slots are
+ * reclaimed once they outnumber the live ones.
+ *
+ * The archive is not thread safe; TicketManager only changes it while holding
+ * the write lock of its ticket list.
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketArchive {
+
+	/** Names of the ticket types, by TicketType ordinal */
+	private static final String[] TYPE_NAMES = { Ticket.TT_REQUEST, Ticket.TT_INCIDENT };
+	/** Names of the categories, by Category ordinal */
+	private static final String[] CATEGORY_NAMES = { Ticket.C_INQUIRY, Ticket.C_SOFTWARE, Ticket.C_HARDWARE,
+		Ticket.C_NETWORK, Ticket.C_DATABASE };
+	/** Names of the priorities, by Priority ordinal */
+	private static final String[] PRIORITY_NAMES = { Ticket.P_URGENT, Ticket.P_HIGH, Ticket.P_MEDIUM,
+		Ticket.P_LOW };
+	/** Initial number of slots */
+	private static final int INITIAL_CAPACITY = 16;
+	/** Initial size of the text buffer in bytes */
+	private static final int INITIAL_TEXT_CAPACITY = 1 << 12;
+	/** Largest size of the text buffer in bytes, the largest array the VM allows */
+	static final int MAX_TEXT_CAPACITY = Integer.MAX_VALUE - 8;
+	/** Dictionary reference of a null string */
+	private static final int NONE = -1;
+
+	/** Ticket IDs, by slot */
+	private int[] ids;
+	/** State indexes, by slot */
+	private byte[] states;
+	/** TicketType ordinals, by slot */
+	private byte[] types;
+	/** Category ordinals, by slot */
+	private byte[] categories;
+	/** Priority ordinals, by slot */
+	private byte[] priorities;
+	/** Dictionary references of the callers, by slot */
+	private int[] callers;
+	/** Dictionary references of the owners, by slot */
+	private int[] owners;
+	/** Dictionary references of the codes, by slot */
+	private int[] codes;
+	/** Offsets of the subject and notes in the text buffer, by slot */
+	private int[] textOffsets;
+	/** Number of slots used, including removed ones */
+	private int slots;
+	/** Slots whose ticket was removed */
+	private BitSet removed = new BitSet();
+	/** Number of removed slots */
+	private int removedCount;
+	/** Slots in order of ticket ID, including removed ones while stale is set */
+	private int[] byId = new int[0];
+	/** Whether byId still holds slots removed since it was last built */
+	private boolean stale;
+	/** Subjects and notes of every slot, encoded as UTF-8 */
+	private ByteBuffer text;
+	/** Distinct callers, owners and codes */
+	private ArrayList<String> dictionary = new ArrayList<String>();
+	/** References of the strings in the dictionary */
+	private HashMap<String, Integer> dictionaryIndex = new HashMap<String, Integer>();
+
+	/**
+	 * Constructor for TicketArchive. Creates an empty archive.
+	 */
+	public TicketArchive() {
+		allocate(INITIAL_CAPACITY);
+		text = ByteBuffer.allocateDirect(INITIAL_TEXT_CAPACITY);
+	}
+
+	/**
+	 * Adds a ticket to the archive. The ticket must not already be archived.
+	 * Throws an IllegalArgumentException, leaving the archive as it was, if the
+	 * text buffer cannot hold the subject and notes.
+	 *
+	 * @param ticket Ticket to archive
+	 */
+	public void add(Ticket ticket) {
+		addAll(Collections.singletonList(ticket));
+	}
+
+	/**
+	 * Adds tickets to the archive, sorting the ID order once for all of them.
+	 * The tickets must not already be archived. Throws an
+	 * IllegalArgumentException, leaving the archive as it was, if the text buffer
+	 * cannot hold their subjects and notes.
+	 *
+	 * @param tickets Tickets to archive
+	 */
+	public void addAll(List<Ticket> tickets) {
+		int firstSlot = slots;
+		int textEnd = text.position();
+		try {
+			for (int i = 0; i < tickets.size(); i++) {
+				append(tickets.get(i));
+			}
+		} catch (IllegalArgumentException e) {
+			slots = firstSlot;
+			text.position(textEnd);
+			throw e;
+		}
+		sortIndex();
+	}
+
+	/**
+	 * Returns whether a ticket is archived
+	 *
+	 * @param id ID of ticket
+	 * @return true if the ticket with the ID is archived
+	 */
+	public boolean contains(int id) {
+		return find(id) >= 0;
+	}
+
+	/**
+	 * Builds a Ticket from the archived fields of a ticket
+	 *
+	 * @param id ID of ticket
+	 * @return new Ticket with the archived fields, or null if the ticket is not
+	 *         archived
+	 */
+	public Ticket get(int id) {
+		int position = find(id);
+		if (position < 0) {
+			return null;
+		}
+		int slot = byId[position];
+		ByteBuffer in = text.duplicate();
+		in.position(textOffsets[slot]);
+		String subject = readString(in);
+		int noteCount = in.getInt();
+		ArrayList<String> notes = new ArrayList<String>(noteCount);
+		for (int i = 0; i < noteCount; i++) {
+			notes.add(readString(in));
+		}
+		return new Ticket(id, TicketTransitions.getStateName(states[slot]), TYPE_NAMES[types[slot]], subject,
+				lookup(callers[slot]), CATEGORY_NAMES[categories[slot]], PRIORITY_NAMES[priorities[slot]],
+				lookup(owners[slot]), lookup(codes[slot]), notes);
+	}
+
+	/**
+	 * Returns the ID, type, state, subject, category, and priority of an archived
+	 * ticket, read from the columns without building the Ticket
+	 *
+	 * @param id ID of ticket
+	 * @return display row, or null if the ticket is not archived
+	 */
+	public String[] getDisplayRow(int id) {
+		int position = find(id);
+		if (position < 0) {
+			return null;
+		}
+		int slot = byId[position];
+		ByteBuffer in = text.duplicate();
+		in.position(textOffsets[slot]);
+		return new String[] { Integer.toString(id), TYPE_NAMES[types[slot]],
+			TicketTransitions.getStateName(states[slot]), readString(in), CATEGORY_NAMES[categories[slot]],
+			PRIORITY_NAMES[priorities[slot]] };
+	}
+
+	/**
+	 * Removes a ticket from the archive
+	 *
+	 * @param id ID of ticket
+	 * @return true if the ticket was archived
+	 */
+	public boolean remove(int id) {
+		int position = find(id);
+		if (position < 0) {
+			return false;
+		}
+		removed.set(byId[position]);
+		removedCount++;
+		stale = true;
+		if (removedCount > size()) {
+			compact();
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the IDs of the archived tickets
+	 *
+	 * @return IDs in increasing order
+	 */
+	public int[] getIds() {
+		dropRemoved();
+		int[] result = new int[byId.length];
+		for (int i = 0; i < byId.length; i++) {
+			result[i] = ids[byId[i]];
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the lowest archived ticket ID above a given ID, so the archive can
+	 * be walked in order of ID without copying the IDs
+	 *
+	 * @param after ID to start after
+	 * @return next archived ID, or -1 if there is none
+	 */
+	public int nextId(int after) {
+		dropRemoved();
+		int low = 0;
+		int high = byId.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (ids[byId[mid]] <= after) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low < byId.length ? ids[byId[low]] : -1;
+	}
+
+	/**
+	 * Returns the number of archived tickets
+	 *
+	 * @return number of tickets
+	 */
+	public int size() {
+		return slots - removedCount;
+	}
+
+	/**
+	 * Returns the number of bytes the subjects and notes take outside the heap
+	 *
+	 * @return bytes used in the text buffer
+	 */
+	public int getTextSize() {
+		return text.position();
+	}
+
+	/**
+	 * Removes every ticket from the archive
+	 */
+	public void clear() {
+		allocate(INITIAL_CAPACITY);
+		slots = 0;
+		removed.clear();
+		removedCount = 0;
+		byId = new int[0];
+		stale = false;
+		text = ByteBuffer.allocateDirect(INITIAL_TEXT_CAPACITY);
+		dictionary.clear();
+		dictionaryIndex.clear();
+	}
+
+	/**
+	 * Adds the fields of a ticket to a new slot without updating the ID order
+	 *
+	 * @param ticket Ticket to archive
+	 */
+	private void append(Ticket ticket) {
+		if (slots == ids.length) {
+			grow(ids.length * 2);
+		}
+		int slot = slots++;
+		ids[slot] = ticket.getTicketId();
+		states[slot] = (byte) ticket.getStateIndex();
+		types[slot] = (byte) ticket.getTicketType().ordinal();
+		categories[slot] = (byte) ticket.getTicketCategory().ordinal();
+		priorities[slot] = (byte) ticket.getTicketPriority().ordinal();
+		callers[slot] = reference(ticket.getCaller());
+		owners[slot] = reference(ticket.getOwner());
+		codes[slot] = reference(ticket.getCode());
+		textOffsets[slot] = text.position();
+		writeString(ticket.getSubject());
+		int noteCount = ticket.getNoteCount();
+		ensureText(4);
+		text.putInt(noteCount);
+		for (int i = 0; i < noteCount; i++) {
+			writeString(ticket.getNote(i));
+		}
+	}
+
+	/**
+	 * Returns the position in byId of a ticket ID. Removed slots keep their
+	 * place in the order by ID, so the search works while byId is stale.
+	 *
+	 * @param id ID of ticket
+	 * @return position, or a negative number if the ticket is not archived
+	 */
+	private int find(int id) {
+		int low = 0;
+		int high = byId.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int midId = ids[byId[mid]];
+			if (midId < id) {
+				low = mid + 1;
+			} else if (midId > id) {
+				high = mid - 1;
+			} else {
+				return removed.get(byId[mid]) ? -1 : mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Drops the removed slots from the order by ID, in one pass for all of the
+	 * slots removed since it was last built
+	 */
+	private void dropRemoved() {
+		if (stale) {
+			sortIndex();
+		}
+	}
+
+	/**
+	 * Rebuilds the order of the live slots by ticket ID. Slots are usually added
+	 * in order of ID, in which case no sorting is needed.
+	 */
+	private void sortIndex() {
+		int[] order = new int[slots - removedCount];
+		boolean sorted = true;
+		int n = 0;
+		for (int slot = 0; slot < slots; slot++) {
+			if (!removed.get(slot)) {
+				if (n > 0 && ids[order[n - 1]] > ids[slot]) {
+					sorted = false;
+				}
+				order[n++] = slot;
+			}
+		}
+		if (!sorted) {
+			long[] keys = new long[n];
+			for (int i = 0; i < n; i++) {
+				keys[i] = (long) ids[order[i]] << 32 | order[i];
+			}
+			Arrays.sort(keys);
+			for (int i = 0; i < n; i++) {
+				order[i] = (int) keys[i];
+			}
+		}
+		byId = order;
+		stale = false;
+	}
+
+	/**
+	 * Moves the live slots to the front of the columns and the text buffer,
+	 * dropping the removed ones
+	 */
+	private void compact() {
+		ByteBuffer oldText = text;
+		text = ByteBuffer.allocateDirect(Math.max(INITIAL_TEXT_CAPACITY, oldText.position()));
+		int n = 0;
+		for (int slot = 0; slot < slots; slot++) {
+			if (removed.get(slot)) {
+				continue;
+			}
+			int end = slot + 1 < slots ? textOffsets[slot + 1] : oldText.position();
+			ByteBuffer range = oldText.duplicate();
+			range.limit(end).position(textOffsets[slot]);
+			ids[n] = ids[slot];
+			states[n] = states[slot];
+			types[n] = types[slot];
+			categories[n] = categories[slot];
+			priorities[n] = priorities[slot];
+			callers[n] = callers[slot];
+			owners[n] = owners[slot];
+			codes[n] = codes[slot];
+			textOffsets[n] = text.position();
+			text.put(range);
+			n++;
+		}
+		slots = n;
+		removed.clear();
+		removedCount = 0;
+		sortIndex();
+	}
+
+	/**
+	 * Returns the dictionary reference of a string, adding it if needed
+	 *
+	 * @param s string to look up
+	 * @return reference, or NONE for null
+	 */
+	private int reference(String s) {
+		if (s == null) {
+			return NONE;
+		}
+		Integer ref = dictionaryIndex.get(s);
+		if (ref == null) {
+			ref = dictionary.size();
+			dictionary.add(s);
+			dictionaryIndex.put(s, ref);
+		}
+		return ref;
+	}
+
+	/**
+	 * Returns the string of a dictionary reference
+	 *
+	 * @param ref reference
+	 * @return string, or null for NONE
+	 */
+	private String lookup(int ref) {
+		return ref == NONE ? null : dictionary.get(ref);
+	}
+
+	/**
+	 * Writes a string to the text buffer as its UTF-8 length and bytes
+	 *
+	 * @param s string to write
+	 */
+	private void writeString(String s) {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		ensureText(4 + bytes.length);
+		text.putInt(bytes.length);
+		text.put(bytes);
+	}
+
+	/**
+	 * Reads a string written by writeString()
+	 *
+	 * @param in buffer positioned at the string
+	 * @return string read
+	 */
+	private static String readString(ByteBuffer in) {
+		byte[] bytes = new byte[in.getInt()];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Makes room in the text buffer for a number of bytes, doubling it as needed
+	 *
+	 * @param bytes number of bytes about to be written
+	 */
+	private void ensureText(int bytes) {
+		if (text.remaining() >= bytes) {
+			return;
+		}
+		ByteBuffer grown = ByteBuffer.allocateDirect(textCapacity(text.capacity(), (long) text.position() + bytes));
+		text.flip();
+		grown.put(text);
+		text = grown;
+	}
+
+	/**
+	 * Returns the size the text buffer grows to: the current size doubled until
+	 * it holds the bytes needed, but no more than MAX_TEXT_CAPACITY. Throws an
+	 * IllegalArgumentException if the bytes needed are over MAX_TEXT_CAPACITY.
+	 *
+	 * @param capacity current size of the text buffer
+	 * @param needed   number of bytes the buffer has to hold
+	 * @return new size of the text buffer
+	 */
+	static int textCapacity(int capacity, long needed) {
+		if (needed > MAX_TEXT_CAPACITY) {
+			throw new IllegalArgumentException("Archive text cannot be larger than " + MAX_TEXT_CAPACITY + " bytes.");
+		}
+		long grown = capacity;
+		while (grown < needed) {
+			grown *= 2;
+		}
+		return (int) Math.min(grown, MAX_TEXT_CAPACITY);
+	}
+
+	/**
+	 * Creates empty columns with the given number of slots
+	 *
+	 * @param capacity number of slots
+	 */
+	private void allocate(int capacity) {
+		ids = new int[capacity];
+		states = new byte[capacity];
+		types = new byte[capacity];
+		categories = new byte[capacity];
+		priorities = new byte[capacity];
+		callers = new int[capacity];
+		owners = new int[capacity];
+		codes = new int[capacity];
+		textOffsets = new int[capacity];
+	}
+
+	/**
+	 * Copies the columns into arrays with the given number of slots
+	 *
+	 * @param capacity new number of slots
+	 */
+	private void grow(int capacity) {
+		ids = Arrays.copyOf(ids, capacity);
+		states = Arrays.copyOf(states, capacity);
+		types = Arrays.copyOf(types, capacity);
+		categories = Arrays.copyOf(categories, capacity);
+		priorities = Arrays.copyOf(priorities, capacity);
+		callers = Arrays.copyOf(callers, capacity);
+		owners = Arrays.copyOf(owners, capacity);
+		codes = Arrays.copyOf(codes, capacity);
+		textOffsets = Arrays.copyOf(textOffsets, capacity);
+	}
+}
@@ -0,0 +1,262 @@
+package edu.ncsu.csc216.ticket_manager.model.manager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.ncsu.csc216.ticket_manager.model.search.TicketPostingList;
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket.Category;
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket.Priority;
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket.TicketType;
+import edu.ncsu.csc216.ticket_manager.model.ticket.TicketTransitions;
+
+/**
+ * Secondary indexes over the Tickets in a TicketManager. Keeps a posting list
+ * of ticket IDs for every ticket type, priority, category, state, and owner.
+ * Posting lists are TicketIdSets keyed by ticket ID, so a filtered lookup
+ * returns the matching IDs in ascending order without visiting the other
+ * tickets. A TicketIdSet takes a bit for every ID up to its highest one, which
+ * suits the few lists of the enum columns and states. There may be thousands
+ * of owners with a few tickets each, so their lists are delta-encoded
+ * TicketPostingLists, which take a few bytes per ID instead.
+ *
+ * The posting lists of a column, taken in the order of its values, also hold
+ * the tickets sorted by (value, ID). Since a TicketIdSet can find its k-th ID
+ * in O(log n), a page of n tickets sorted by type, priority, category, state
+ * or ID is found without sorting, in O(log n + n) when the IDs of the page are
+ * close together and O(n log n) at worst, and stays sorted as tickets are
+ * added, removed and changed.
+ * Tickets must be removed before a change to their state or owner and added
+ * again afterwards so the index stays in sync. The methods are synchronized, so
+ * commands on different tickets can update the index from several threads.
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketAttributeIndex {
+
+	/** Posting lists by ticket type */
+	private EnumMap<TicketType, TicketIdSet> byType = new EnumMap<TicketType, TicketIdSet>(TicketType.class);
+	/** Posting lists by priority */
+	private EnumMap<Priority, TicketIdSet> byPriority = new EnumMap<Priority, TicketIdSet>(Priority.class);
+	/** Posting lists by category */
+	private EnumMap<Category, TicketIdSet> byCategory = new EnumMap<Category, TicketIdSet>(Category.class);
+	/** Posting lists by state name */
+	private HashMap<String, TicketIdSet> byState = new HashMap<String, TicketIdSet>();
+	/** Posting lists by owner, sparse since each owner has few tickets */
+	private HashMap<String, TicketPostingList> byOwner = new HashMap<String, TicketPostingList>();
+	/** IDs of every ticket */
+	private TicketIdSet all = new TicketIdSet();
+
+	/**
+	 * Adds a Ticket to every posting list it belongs to
+	 *
+	 * @param ticket Ticket to add
+	 */
+	public synchronized void add(Ticket ticket) {
+		int id = ticket.getTicketId();
+		all.add(id);
+		postings(byType, ticket.getTicketType()).add(id);
+		postings(byPriority, ticket.getTicketPriority()).add(id);
+		postings(byCategory, ticket.getTicketCategory()).add(id);
+		postings(byState, ticket.getState()).add(id);
+		String owner = ticket.getOwner();
+		if (owner != null && !"".equals(owner)) {
+			TicketPostingList ids = byOwner.get(owner);
+			if (ids == null) {
+				ids = new TicketPostingList();
+				byOwner.put(owner, ids);
+			}
+			ids.add(id);
+		}
+	}
+
+	/**
+	 * Removes a Ticket from every posting list it belongs to. The Ticket must
+	 * have the same state and owner it had when it was added.
+	 *
+	 * @param ticket Ticket to remove
+	 */
+	public synchronized void remove(Ticket ticket) {
+		int id = ticket.getTicketId();
+		all.remove(id);
+		clear(byType, ticket.getTicketType(), id);
+		clear(byPriority, ticket.getTicketPriority(), id);
+		clear(byCategory, ticket.getTicketCategory(), id);
+		clear(byState, ticket.getState(), id);
+		TicketPostingList ids = ticket.getOwner() == null ? null : byOwner.get(ticket.getOwner());
+		if (ids != null) {
+			ids.remove(id);
+			if (ids.size() == 0) {
+				byOwner.remove(ticket.getOwner());
+			}
+		}
+	}
+
+	/**
+	 * Removes every Ticket from the index
+	 */
+	public synchronized void clear() {
+		byType.clear();
+		byPriority.clear();
+		byCategory.clear();
+		byState.clear();
+		byOwner.clear();
+		all.clear();
+	}
+
+	/**
+	 * Returns the IDs of the tickets with the given type
+	 *
+	 * @param type Type of ticket
+	 * @return IDs in ascending order
+	 */
+	public synchronized int[] getIdsByType(TicketType type) {
+		return ids(byType.get(type));
+	}
+
+	/**
+	 * Returns the IDs of the tickets with the given priority
+	 *
+	 * @param priority Priority of ticket
+	 * @return IDs in ascending order
+	 */
+	public synchronized int[] getIdsByPriority(Priority priority) {
+		return ids(byPriority.get(priority));
+	}
+
+	/**
+	 * Returns the IDs of the tickets with the given category
+	 *
+	 * @param category Category of ticket
+	 * @return IDs in ascending order
+	 */
+	public synchronized int[] getIdsByCategory(Category category) {
+		return ids(byCategory.get(category));
+	}
+
+	/**
+	 * Returns the IDs of the tickets in the given state
+	 *
+	 * @param state Name of state
+	 * @return IDs in ascending order
+	 */
+	public synchronized int[] getIdsByState(String state) {
+		return ids(byState.get(state));
+	}
+
+	/**
+	 * Returns the IDs of the tickets with the given owner
+	 *
+	 * @param owner Owner of ticket
+	 * @return IDs in ascending order
+	 */
+	public synchronized int[] getIdsByOwner(String owner) {
+		TicketPostingList ids = byOwner.get(owner);
+		return ids == null ? new int[0] : ids.toArray();
+	}
+
+	/**
+	 * Returns a page of the ticket IDs sorted by a column and then by ID. The
+	 * posting lists before the page are skipped by their size, and the first ID
+	 * of the page is found by its position in its posting list. Throws an
+	 * IllegalArgumentException for SUBJECT, which is not indexed.
+	 *
+	 * @param sortKey column to sort by
+	 * @param offset  number of IDs to skip
+	 * @param limit   maximum number of IDs to return
+	 * @return IDs of the page in sorted order
+	 */
+	public synchronized int[] getIdsSortedBy(TicketSortKey sortKey, int offset, int limit) {
+		ArrayList<TicketIdSet> order = new ArrayList<TicketIdSet>();
+		switch (sortKey) {
+		case ID:
+			order.add(all);
+			break;
+		case TYPE:
+			order.addAll(byType.values());
+			break;
+		case PRIORITY:
+			order.addAll(byPriority.values());
+			break;
+		case CATEGORY:
+			order.addAll(byCategory.values());
+			break;
+		case STATE:
+			for (int i = 0; i < TicketTransitions.getStateCount(); i++) {
+				TicketIdSet ids = byState.get(TicketTransitions.getStateName(i));
+				if (ids != null) {
+					order.add(ids);
+				}
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("Tickets are not indexed by " + sortKey + ".");
+		}
+		int[] page = new int[Math.max(0, Math.min(limit, all.size() - offset))];
+		int n = 0;
+		int skip = offset;
+		for (int i = 0; i < order.size() && n < page.length; i++) {
+			TicketIdSet ids = order.get(i);
+			if (skip >= ids.size()) {
+				skip -= ids.size();
+				continue;
+			}
+			for (int id = ids.select(skip); id >= 0 && n < page.length; id = ids.next(id + 1)) {
+				page[n++] = id;
+			}
+			skip = 0;
+		}
+		return page;
+	}
+
+	/**
+	 * Returns the posting list for a key, creating it if needed
+	 *
+	 * @param <K> type of key
+	 * @param map posting lists
+	 * @param key key of posting list
+	 * @return posting list for key
+	 */
+	private static <K> TicketIdSet postings(Map<K, TicketIdSet> map, K key) {
+		TicketIdSet ids = map.get(key);
+		if (ids == null) {
+			ids = new TicketIdSet();
+			map.put(key, ids);
+		}
+		return ids;
+	}
+
+	/**
+	 * Clears an ID from the posting list of a key, dropping the list once empty
+	 *
+	 * @param <K> type of key
+	 * @param map posting lists
+	 * @param key key of posting list
+	 * @param id  ID of ticket
+	 */
+	private static <K> void clear(Map<K, TicketIdSet> map, K key, int id) {
+		if (key == null) {
+			return;
+		}
+		TicketIdSet ids = map.get(key);
+		if (ids != null) {
+			ids.remove(id);
+			if (ids.isEmpty()) {
+				map.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Returns the IDs in a posting list
+	 *
+	 * @param ids posting list, may be null
+	 * @return IDs in ascending order
+	 */
+	private static int[] ids(TicketIdSet ids) {
+		return ids == null ? new int[0] : ids.toArray();
+	}
+}
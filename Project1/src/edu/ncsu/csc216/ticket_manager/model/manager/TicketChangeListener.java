@@ -0,0 +1,40 @@
+package edu.ncsu.csc216.ticket_manager.model.manager;
+
+/**
+ * Listener for changes to the tickets of a TicketManager. Listeners are called
+ * on the thread that made the change, after the TicketManager has released its
+ * locks, so a listener may read the TicketManager but a GUI listener must move
+ * its work to the event dispatch thread itself.
+ *
+ * @author Benson Liu
+ *
+ */
+public interface TicketChangeListener {
+
+	/**
+	 * Called after a ticket was added to the end of the list
+	 *
+	 * @param id ID of the new ticket
+	 */
+	void ticketAdded(int id);
+
+	/**
+	 * Called after a command was applied to a ticket
+	 *
+	 * @param id ID of the updated ticket
+	 */
+	void ticketUpdated(int id);
+
+	/**
+	 * Called after a ticket was deleted
+	 *
+	 * @param id ID of the deleted ticket
+	 */
+	void ticketDeleted(int id);
+
+	/**
+	 * Called after the whole list was replaced, by loading a file or creating a
+	 * new list
+	 */
+	void ticketsReloaded();
+}
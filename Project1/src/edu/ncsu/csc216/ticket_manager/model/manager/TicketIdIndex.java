@@ -0,0 +1,172 @@
+package edu.ncsu.csc216.ticket_manager.model.manager;
+
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+
+/**
+ * Primary key index from ticket ID to Ticket. Uses an int-keyed open
+ * addressing table with linear probing, so lookups, inserts, and removals are
+ * constant time on average and no Integer boxing is needed. The index only
+ * maps IDs to Tickets; the display order of the tickets is kept by the owning
+ * list.
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketIdIndex {
+
+	/** Initial number of slots in the table, must be a power of two */
+	private static final int INITIAL_CAPACITY = 16;
+	/** Multiplier used to spread sequential IDs across the table */
+	private static final int HASH_MULTIPLIER = 0x9E3779B9;
+	/** Ticket IDs of the occupied slots */
+	private int[] keys;
+	/** Tickets of the occupied slots, null when a slot is empty */
+	private Ticket[] values;
+	/** Number of Tickets in the index */
+	private int size;
+	/** Size at which the table is doubled */
+	private int threshold;
+
+	/**
+	 * Constructor for TicketIdIndex. Creates an empty index.
+	 */
+	public TicketIdIndex() {
+		allocate(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Returns the Ticket with the given ID, or null if there is none
+	 *
+	 * @param id ID of ticket
+	 * @return Ticket with the given ID
+	 */
+	public Ticket get(int id) {
+		int mask = keys.length - 1;
+		for (int i = slot(id, mask); values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == id) {
+				return values[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds a Ticket to the index. If a Ticket with the same ID is already in the
+	 * index, the existing Ticket is kept so that lookups return the first ticket
+	 * added for an ID.
+	 *
+	 * @param ticket Ticket to add
+	 * @return true if the ticket was added
+	 */
+	public boolean put(Ticket ticket) {
+		int id = ticket.getTicketId();
+		int mask = keys.length - 1;
+		int i = slot(id, mask);
+		while (values[i] != null) {
+			if (keys[i] == id) {
+				return false;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = id;
+		values[i] = ticket;
+		size++;
+		if (size > threshold) {
+			resize(keys.length * 2);
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the Ticket with the given ID from the index
+	 *
+	 * @param id ID of ticket
+	 * @return Ticket that was removed, or null if there was none
+	 */
+	public Ticket remove(int id) {
+		int mask = keys.length - 1;
+		int i = slot(id, mask);
+		while (values[i] != null && keys[i] != id) {
+			i = (i + 1) & mask;
+		}
+		Ticket removed = values[i];
+		if (removed == null) {
+			return null;
+		}
+		// Shift later entries of the probe run back so no lookup stops early
+		int gap = i;
+		for (int j = (gap + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+			int home = slot(keys[j], mask);
+			if (((j - home) & mask) >= ((j - gap) & mask)) {
+				keys[gap] = keys[j];
+				values[gap] = values[j];
+				gap = j;
+			}
+		}
+		values[gap] = null;
+		size--;
+		return removed;
+	}
+
+	/**
+	 * Removes every Ticket from the index
+	 */
+	public void clear() {
+		allocate(INITIAL_CAPACITY);
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of Tickets in the index
+	 *
+	 * @return number of Tickets
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the home slot of an ID
+	 *
+	 * @param id   ID of ticket
+	 * @param mask table length minus one
+	 * @return home slot for the ID
+	 */
+	private static int slot(int id, int mask) {
+		int h = id * HASH_MULTIPLIER;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 * Creates empty tables with the given capacity
+	 *
+	 * @param capacity number of slots, a power of two
+	 */
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new Ticket[capacity];
+		threshold = capacity * 3 / 4;
+	}
+
+	/**
+	 * Moves every Ticket into tables with the given capacity
+	 *
+	 * @param capacity new number of slots, a power of two
+	 */
+	private void resize(int capacity) {
+		int[] oldKeys = keys;
+		Ticket[] oldValues = values;
+		allocate(capacity);
+		int mask = capacity - 1;
+		for (int j = 0; j < oldValues.length; j++) {
+			if (oldValues[j] != null) {
+				int i = slot(oldKeys[j], mask);
+				while (values[i] != null) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+			}
+		}
+	}
+}
@@ -0,0 +1,266 @@
+package edu.ncsu.csc216.ticket_manager.model.manager;
+
+import java.util.Arrays;
+
+/**
+ * Set of ticket IDs that can also return the k-th smallest ID and the number of
+ * IDs below a given one. IDs are kept as bits, like a BitSet, and a Fenwick tree
+ * counts the IDs in each block of 512 bits. Adding and removing an ID and
+ * finding the k-th ID take O(log n) time. The next ID is found by scanning the
+ * rest of its block and, if the block has no more IDs, by skipping the empty
+ * blocks with the tree in O(log n), so a page of k IDs at any position costs
+ * O(log n + k) when the IDs are close together and O(k log n) at worst. The
+ * tree adds one int for every eight words of bits.
+ *
+ * The set is not thread safe.
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketIdSet {
+
+	/** Number of words of bits counted by each node of the tree */
+	private static final int WORDS_PER_BLOCK = 8;
+	/** Shift from a word index to its block index */
+	private static final int BLOCK_SHIFT = 3;
+
+	/** Bits of the IDs in the set */
+	private long[] words = new long[WORDS_PER_BLOCK];
+	/** Fenwick tree of the number of IDs in each block, indexed from 1 */
+	private int[] tree = new int[2];
+	/** Number of IDs in the set */
+	private int size;
+
+	/**
+	 * Adds an ID to the set
+	 *
+	 * @param id ID of ticket
+	 * @return true if the ID was not in the set
+	 */
+	public boolean add(int id) {
+		checkId(id);
+		int w = id >>> 6;
+		if (w >= words.length) {
+			grow(w + 1);
+		}
+		long bit = 1L << id;
+		if ((words[w] & bit) != 0) {
+			return false;
+		}
+		words[w] |= bit;
+		size++;
+		update(w >>> BLOCK_SHIFT, 1);
+		return true;
+	}
+
+	/**
+	 * Removes an ID from the set
+	 *
+	 * @param id ID of ticket
+	 * @return true if the ID was in the set
+	 */
+	public boolean remove(int id) {
+		if (!contains(id)) {
+			return false;
+		}
+		int w = id >>> 6;
+		words[w] &= ~(1L << id);
+		size--;
+		update(w >>> BLOCK_SHIFT, -1);
+		return true;
+	}
+
+	/**
+	 * Returns whether an ID is in the set
+	 *
+	 * @param id ID of ticket
+	 * @return true if the ID is in the set
+	 */
+	public boolean contains(int id) {
+		int w = id >>> 6;
+		return id >= 0 && w < words.length && (words[w] & (1L << id)) != 0;
+	}
+
+	/**
+	 * Returns the number of IDs in the set
+	 *
+	 * @return number of IDs
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns whether the set is empty
+	 *
+	 * @return true if no ID is in the set
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the lowest ID in the set that is at least a given ID. Only the
+	 * block of the given ID is scanned; later blocks are skipped with the tree.
+	 *
+	 * @param from lowest ID to return
+	 * @return next ID, or -1 if there is none
+	 */
+	public int next(int from) {
+		checkId(from);
+		int w = from >>> 6;
+		if (w >= words.length) {
+			return -1;
+		}
+		long word = words[w] & (-1L << from);
+		int end = ((w >>> BLOCK_SHIFT) + 1) << BLOCK_SHIFT;
+		while (word == 0) {
+			if (++w == end) {
+				// The first ID after this block is the one at the count before it
+				int below = countBlocks(end >>> BLOCK_SHIFT);
+				return below == size ? -1 : select(below);
+			}
+			word = words[w];
+		}
+		return (w << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	/**
+	 * Returns the number of IDs in the set below a given ID, which is the
+	 * position the ID has or would have in ascending order
+	 *
+	 * @param id ID of ticket
+	 * @return number of smaller IDs
+	 */
+	public int rank(int id) {
+		if (id <= 0) {
+			return 0;
+		}
+		int w = id >>> 6;
+		if (w >= words.length) {
+			return size;
+		}
+		int block = w >>> BLOCK_SHIFT;
+		int count = countBlocks(block);
+		for (int i = block << BLOCK_SHIFT; i < w; i++) {
+			count += Long.bitCount(words[i]);
+		}
+		return count + Long.bitCount(words[w] & ((1L << id) - 1));
+	}
+
+	/**
+	 * Returns the ID at a position of the set in ascending order
+	 *
+	 * @param k position, 0 for the smallest ID
+	 * @return k-th smallest ID, or -1 if the set has k IDs or fewer
+	 */
+	public int select(int k) {
+		if (k < 0 || k >= size) {
+			return -1;
+		}
+		// Descend the tree to the block holding the ID
+		int blocks = tree.length - 1;
+		int block = 0;
+		int rest = k;
+		for (int step = Integer.highestOneBit(blocks); step > 0; step >>= 1) {
+			int node = block + step;
+			if (node <= blocks && tree[node] <= rest) {
+				block = node;
+				rest -= tree[node];
+			}
+		}
+		for (int w = block << BLOCK_SHIFT;; w++) {
+			long word = words[w];
+			int count = Long.bitCount(word);
+			if (rest < count) {
+				for (int i = 0; i < rest; i++) {
+					word &= word - 1;
+				}
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			}
+			rest -= count;
+		}
+	}
+
+	/**
+	 * Returns the IDs in the set
+	 *
+	 * @return IDs in ascending order
+	 */
+	public int[] toArray() {
+		int[] ids = new int[size];
+		int n = 0;
+		for (int id = next(0); id >= 0; id = next(id + 1)) {
+			ids[n++] = id;
+		}
+		return ids;
+	}
+
+	/**
+	 * Removes every ID from the set
+	 */
+	public void clear() {
+		words = new long[WORDS_PER_BLOCK];
+		tree = new int[2];
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of IDs in the blocks before a block
+	 *
+	 * @param block index of block
+	 * @return number of IDs in blocks 0 to block - 1
+	 */
+	private int countBlocks(int block) {
+		int count = 0;
+		for (int i = block; i > 0; i -= i & -i) {
+			count += tree[i];
+		}
+		return count;
+	}
+
+	/**
+	 * Adds to the count of a block
+	 *
+	 * @param block index of block
+	 * @param delta change of the count
+	 */
+	private void update(int block, int delta) {
+		for (int i = block + 1; i < tree.length; i += i & -i) {
+			tree[i] += delta;
+		}
+	}
+
+	/**
+	 * Grows the bits to hold at least a number of words, in whole blocks, and
+	 * rebuilds the tree in linear time
+	 *
+	 * @param minWords number of words needed
+	 */
+	private void grow(int minWords) {
+		int length = Math.max(words.length * 2, (minWords + WORDS_PER_BLOCK - 1) & -WORDS_PER_BLOCK);
+		words = Arrays.copyOf(words, length);
+		int blocks = length >>> BLOCK_SHIFT;
+		tree = new int[blocks + 1];
+		for (int w = 0; w < length; w++) {
+			tree[(w >>> BLOCK_SHIFT) + 1] += Long.bitCount(words[w]);
+		}
+		for (int i = 1; i <= blocks; i++) {
+			int parent = i + (i & -i);
+			if (parent <= blocks) {
+				tree[parent] += tree[i];
+			}
+		}
+	}
+
+	/**
+	 * Checks that an ID can be held in the set
+	 *
+	 * @param id ID of ticket
+	 */
+	private static void checkId(int id) {
+		if (id < 0) {
+			throw new IndexOutOfBoundsException("ID cannot be negative.");
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package edu.ncsu.csc216.ticket_manager.model.manager;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Locks that let several threads use a TicketManager at once. A read-write
+ * lock guards the list of tickets and its ID index: adding, deleting and
+ * loading tickets take it exclusively, while lookups and commands share it.
+ * Commands on a ticket also take one of a fixed number of striped locks picked
+ * by the ticket ID, so commands on different tickets usually run in parallel
+ * and commands on the same ticket run one at a time.
+ *
+ * While the locks are disabled every method returns at once, so a
+ * TicketManager used from one thread does not pay for locking.
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketLocks {
+
+	/** Number of striped ticket locks, must be a power of two */
+	private static final int STRIPES = 64;
+
+	/** Lock of the list of tickets */
+	private final ReentrantReadWriteLock structure = new ReentrantReadWriteLock();
+	/** Locks of the tickets, picked by ticket ID */
+	private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+	/** Whether locking is on */
+	private volatile boolean enabled;
+
+	/**
+	 * Constructor for TicketLocks. Locking starts disabled.
+	 */
+	public TicketLocks() {
+		for (int i = 0; i < STRIPES; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * Turns locking on or off. Must not be called while other threads use the
+	 * tickets.
+	 *
+	 * @param enabled true to turn locking on
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Returns whether locking is on
+	 *
+	 * @return true if locking is on
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Locks the list of tickets for reading, shared with other readers
+	 */
+	public void lockRead() {
+		if (enabled) {
+			structure.readLock().lock();
+		}
+	}
+
+	/**
+	 * Unlocks the list of tickets after lockRead()
+	 */
+	public void unlockRead() {
+		if (enabled) {
+			structure.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Locks the list of tickets for changes, excluding every other thread
+	 */
+	public void lockWrite() {
+		if (enabled) {
+			structure.writeLock().lock();
+		}
+	}
+
+	/**
+	 * Unlocks the list of tickets after lockWrite()
+	 */
+	public void unlockWrite() {
+		if (enabled) {
+			structure.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Locks the ticket with an ID
+	 *
+	 * @param id ID of ticket
+	 */
+	public void lockTicket(int id) {
+		if (enabled) {
+			stripe(id).lock();
+		}
+	}
+
+	/**
+	 * Unlocks the ticket with an ID after lockTicket()
+	 *
+	 * @param id ID of ticket
+	 */
+	public void unlockTicket(int id) {
+		if (enabled) {
+			stripe(id).unlock();
+		}
+	}
+
+	/**
+	 * Returns the striped lock of a ticket ID
+	 *
+	 * @param id ID of ticket
+	 * @return lock of the ticket
+	 */
+	private ReentrantLock stripe(int id) {
+		return stripes[(id * 0x9E3779B9) >>> 26 & (STRIPES - 1)];
+	}
+}
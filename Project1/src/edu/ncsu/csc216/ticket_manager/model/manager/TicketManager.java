@@ -1,14 +1,33 @@
 package edu.ncsu.csc216.ticket_manager.model.manager;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 import edu.ncsu.csc216.ticket_manager.model.command.Command;
+import edu.ncsu.csc216.ticket_manager.model.io.LazyTicketList;
+import edu.ncsu.csc216.ticket_manager.model.io.TicketJournal;
+import edu.ncsu.csc216.ticket_manager.model.io.TicketProgress;
 import edu.ncsu.csc216.ticket_manager.model.io.TicketReader;
 import edu.ncsu.csc216.ticket_manager.model.io.TicketWriter;
+import edu.ncsu.csc216.ticket_manager.model.search.TicketSearchIndex;
+import edu.ncsu.csc216.ticket_manager.model.search.TicketTrigramIndex;
 import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
 import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket.Category;
 import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket.Priority;
 import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket.TicketType;
+import edu.ncsu.csc216.ticket_manager.model.ticket.TicketTransitions;
 
 /**
  * Class for adding and removing tickets from TicketManager. Allows users to
@@ -20,8 +39,44 @@ import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket.TicketType;
  */
 public class TicketManager {
 
+	/** Outcome of a ticket in a batch that was skipped */
+	private static final byte SKIPPED = 0;
+	/** Outcome of a ticket in a batch whose command was applied */
+	private static final byte APPLIED = 1;
+	/** Outcome of a ticket in a batch whose command was rejected */
+	private static final byte REJECTED = 2;
 	/** An ArrayList of Tickets */
 	ArrayList<Ticket> tickets = new ArrayList<Ticket>();
+	/** Index of the Tickets by ID, kept in sync with tickets */
+	private TicketIdIndex ticketsById = new TicketIdIndex();
+	/** Indexes of the Tickets by type, priority, category, state and owner */
+	private TicketAttributeIndex attributeIndex = new TicketAttributeIndex();
+	/** Journal of the changes since the list was loaded or saved, null for a new list */
+	private TicketJournal journal;
+	/** Journal of the file being saved, recording the changes made meanwhile, null while no save runs */
+	private TicketJournal saving;
+	/** Lock held by a save that writes the whole file, so one runs at a time */
+	private final Object saveLock = new Object();
+	/** Whether each change is forced to the journal before the call returns */
+	private boolean writeAheadLog;
+	/** Whether forcing a change to the write-ahead log failed, so changes are refused */
+	private volatile boolean logFailed;
+	/** Locks used while the concurrent mode is on */
+	private TicketLocks locks = new TicketLocks();
+	/** Closed and Canceled tickets moved out of the list of Tickets */
+	private TicketArchive archive = new TicketArchive();
+	/** Whether Closed and Canceled tickets are archived when a file is loaded */
+	private boolean archiveTerminal;
+	/** Whether notes are read from a loaded file only when they are used */
+	private boolean lazyNotes;
+	/** Tickets loaded with their notes left in the file, closed when the list is replaced */
+	private LazyTicketList notesFile;
+	/** Full-text index of the tickets, null while searching is off */
+	private TicketSearchIndex searchIndex;
+	/** Index of the runs of characters in subjects and callers, null while it is off */
+	private TicketTrigramIndex substringIndex;
+	/** Listeners told about changes to the tickets */
+	private CopyOnWriteArrayList<TicketChangeListener> listeners = new CopyOnWriteArrayList<TicketChangeListener>();
 	/** Instance of Ticket Manager */
 	public static TicketManager ticketList = new TicketManager();
 
@@ -53,53 +108,506 @@ public class TicketManager {
 	}
 
 	/**
-	 * Saves the current ticket list to a file
+	 * Saves the current ticket list to a file. Saving back to the file the list
+	 * was loaded from or last saved to only appends the changes to its journal.
+	 * Otherwise the file is replaced in one step, so a failed save leaves the
+	 * previous contents in place.
 	 * 
 	 * @param fileName Name of saved file
 	 */
 	public void saveTicketsToFile(String fileName) {
-		TicketWriter.writeTicketFile(fileName, tickets);
+		saveTicketsToFile(fileName, null);
 	}
 
 	/**
-	 * Loads ticket list from a file
+	 * Saves the current ticket list to a file like saveTicketsToFile(String),
+	 * reporting the number of tickets written. The tickets are copied holding
+	 * the read lock of the list, and the file is written from the copy without
+	 * holding any lock, so other threads can keep reading and changing the list
+	 * meanwhile. Changes made after the copy was started are recorded in the
+	 * journal of the new file, which takes over from the current journal once
+	 * the file is written. If the progress is canceled, a CancellationException
+	 * is thrown and the file is left as it was.
+	 * 
+	 * @param fileName Name of saved file
+	 * @param progress Progress to report to, or null
+	 */
+	public void saveTicketsToFile(String fileName, TicketProgress progress) {
+		TicketJournal current = journal;
+		if (current != null && current.isJournalOf(fileName)) {
+			current.flush();
+			logFailed = false;
+			return;
+		}
+		synchronized (saveLock) {
+			TicketJournal next = new TicketJournal(fileName);
+			ArrayList<Ticket> copies;
+			locks.lockWrite();
+			try {
+				saving = next;
+				// Downgraded, so commands run during the copy but tickets are not added or deleted
+				locks.lockRead();
+			} finally {
+				locks.unlockWrite();
+			}
+			try {
+				copies = copyTickets();
+			} finally {
+				locks.unlockRead();
+			}
+			boolean written = false;
+			try {
+				TicketWriter.writeTicketFileAtomic(fileName, copies, progress);
+				written = true;
+			} finally {
+				locks.lockWrite();
+				try {
+					// A list loaded or created meanwhile is not the list that was written
+					if (saving == next) {
+						saving = null;
+						if (written) {
+							closeJournal();
+							journal = next;
+							next.restart();
+							logFailed = false;
+						}
+					}
+				} finally {
+					locks.unlockWrite();
+				}
+			}
+			commitChange();
+		}
+	}
+
+	/**
+	 * Sets whether every change made through addTicketToList, executeCommand and
+	 * deleteTicketById is forced to the journal of the ticket file before the
+	 * call returns. Changes made at the same time by several threads are forced
+	 * together, so they share one disk flush. Loading the file replays the
+	 * journal, so the list no longer has to be saved after each change. Changes
+	 * are only logged once the list has been loaded from or saved to a file.
+	 *
+	 * A change is made in memory, and seen by other threads, before it is forced
+	 * to the journal. If the journal cannot be written, the method that made the
+	 * change throws an IllegalArgumentException: the change stays in memory but
+	 * is not durable, and is kept to be appended by the next flush. From then on
+	 * every change is refused with an IllegalStateException, so nothing more
+	 * builds on changes that may be lost, until the tickets are saved, the list
+	 * is loaded or created again, or the write-ahead log is turned off.
+	 * 
+	 * @param enabled true to log each change before returning
+	 */
+	public void setWriteAheadLog(boolean enabled) {
+		writeAheadLog = enabled;
+		if (!enabled) {
+			logFailed = false;
+		}
+	}
+
+	/**
+	 * Returns whether every change is forced to the journal before returning
+	 * 
+	 * @return true if changes are logged before returning
+	 */
+	public boolean isWriteAheadLog() {
+		return writeAheadLog;
+	}
+
+	/**
+	 * Sets whether the TicketManager can be used from several threads at once. In
+	 * the concurrent mode, lookups, commands and saves share a lock on the ticket
+	 * list while adding, deleting and loading tickets take it exclusively.
+	 * Commands also lock their ticket through a lock striped by ticket ID, so
+	 * commands on different tickets run in parallel and commands on the same
+	 * ticket take effect one at a time, in the order they get the lock. Must be
+	 * set before the TicketManager is shared between threads.
+	 * 
+	 * @param concurrent true to turn the concurrent mode on
+	 */
+	public void setConcurrent(boolean concurrent) {
+		locks.setEnabled(concurrent);
+	}
+
+	/**
+	 * Returns whether the concurrent mode is on
+	 * 
+	 * @return true if several threads can use the TicketManager at once
+	 */
+	public boolean isConcurrent() {
+		return locks.isEnabled();
+	}
+
+	/**
+	 * Sets whether Closed and Canceled tickets are moved to the archive when a
+	 * ticket file is loaded. Archived tickets are kept in columns outside the
+	 * list of Tickets, most of their text outside the Java heap, and a Ticket is
+	 * built for them only when one is asked for. A REOPEN command on an archived
+	 * ticket moves it back to the list.
+	 * 
+	 * @param enabled true to archive terminal tickets on load
+	 */
+	public void setArchiveTerminal(boolean enabled) {
+		archiveTerminal = enabled;
+	}
+
+	/**
+	 * Returns whether Closed and Canceled tickets are archived on load
+	 * 
+	 * @return true if terminal tickets are archived on load
+	 */
+	public boolean isArchiveTerminal() {
+		return archiveTerminal;
+	}
+
+	/**
+	 * Moves every Closed and Canceled ticket in the list of Tickets to the
+	 * archive. Tickets returned earlier by getTicketById stop being the ones the
+	 * TicketManager updates, so commands must go through executeCommand.
+	 * 
+	 * @return number of tickets archived
+	 */
+	public int archiveTerminalTickets() {
+		locks.lockWrite();
+		try {
+			return moveTerminalToArchive();
+		} finally {
+			locks.unlockWrite();
+		}
+	}
+
+	/**
+	 * Returns the number of archived tickets
+	 * 
+	 * @return number of tickets in the archive
+	 */
+	public int getArchivedCount() {
+		locks.lockRead();
+		try {
+			return archive.size();
+		} finally {
+			locks.unlockRead();
+		}
+	}
+
+	/**
+	 * Sets whether loadTicketsFromFile reads only the header line of each ticket,
+	 * leaving the notes in the file until a ticket's notes are first used, for
+	 * example when it is shown or saved. Loading a large text file then costs
+	 * about as much time and memory as its header lines. The file is kept open
+	 * until the list is replaced by another load or a new list. Binary files are
+	 * always read in full.
+	 * 
+	 * @param enabled true to load notes on first use
+	 */
+	public void setLazyNotes(boolean enabled) {
+		lazyNotes = enabled;
+	}
+
+	/**
+	 * Returns whether notes are loaded on first use
+	 * 
+	 * @return true if notes are loaded on first use
+	 */
+	public boolean isLazyNotes() {
+		return lazyNotes;
+	}
+
+	/**
+	 * Turns the full-text index used by searchTickets() on or off. Turning it on
+	 * indexes every ticket, including their notes, so notes loaded on first use
+	 * are loaded then. The index is kept up to date as tickets are added,
+	 * changed and deleted, and rebuilt when a file is loaded.
+	 * 
+	 * @param enabled true to index the tickets
+	 */
+	public void setSearchIndexed(boolean enabled) {
+		locks.lockWrite();
+		try {
+			if (!enabled) {
+				searchIndex = null;
+			} else if (searchIndex == null) {
+				TicketSearchIndex index = new TicketSearchIndex();
+				ArrayList<Ticket> all = allTickets();
+				for (int i = 0; i < all.size(); i++) {
+					index.add(all.get(i));
+				}
+				searchIndex = index;
+			}
+		} finally {
+			locks.unlockWrite();
+		}
+	}
+
+	/**
+	 * Returns whether the full-text index is on
+	 * 
+	 * @return true if the tickets are indexed
+	 */
+	public boolean isSearchIndexed() {
+		return searchIndex != null;
+	}
+
+	/**
+	 * Turns the substring index used by getTicketIdsContaining() on or off.
+	 * Turning it on indexes the subject and caller of every ticket. The index is
+	 * kept up to date as tickets are added and deleted, and rebuilt when a file
+	 * is loaded.
+	 * 
+	 * @param enabled true to index the tickets
+	 */
+	public void setSubstringIndexed(boolean enabled) {
+		locks.lockWrite();
+		try {
+			if (!enabled) {
+				substringIndex = null;
+			} else if (substringIndex == null) {
+				TicketTrigramIndex index = new TicketTrigramIndex();
+				ArrayList<Ticket> all = allTickets();
+				for (int i = 0; i < all.size(); i++) {
+					index.add(all.get(i));
+				}
+				substringIndex = index;
+			}
+		} finally {
+			locks.unlockWrite();
+		}
+	}
+
+	/**
+	 * Returns whether the substring index is on
+	 * 
+	 * @return true if the subjects and callers are indexed
+	 */
+	public boolean isSubstringIndexed() {
+		return substringIndex != null;
+	}
+
+	/**
+	 * Loads ticket list from a file, along with the changes in its journal
 	 * 
 	 * @param fileName Name of file to load from
 	 */
 	public void loadTicketsFromFile(String fileName) {
-		tickets = TicketReader.readTicketFile(fileName);
+		loadTicketsFromFile(fileName, null);
+	}
 
+	/**
+	 * Loads ticket list from a file like loadTicketsFromFile(String), reporting
+	 * the progress of the read. The file is read without holding any lock, so
+	 * other threads can keep reading the current list; the loaded list replaces
+	 * it in one step at the end, so callers should not change the list while the
+	 * load runs. If the file cannot be read or the progress is canceled, the
+	 * current list is kept.
+	 * 
+	 * @param fileName Name of file to load from
+	 * @param progress Progress to report to, or null
+	 */
+	public void loadTicketsFromFile(String fileName, TicketProgress progress) {
+		boolean reload;
+		locks.lockWrite();
+		try {
+			// The journal being read must not be appended to or compacted meanwhile
+			reload = journal != null && journal.isJournalOf(fileName);
+			if (reload) {
+				closeJournal();
+			}
+		} finally {
+			locks.unlockWrite();
+		}
+		ArrayList<Ticket> loaded;
+		LazyTicketList lazy = null;
+		try {
+			ArrayList<Ticket> read;
+			if (lazyNotes) {
+				lazy = TicketReader.readTicketFileLazy(fileName, progress);
+				read = lazy;
+			} else {
+				read = TicketReader.readTicketFile(fileName, progress);
+			}
+			loaded = TicketJournal.replay(fileName, read);
+		} catch (RuntimeException e) {
+			if (lazy != null) {
+				lazy.close();
+			}
+			if (reload) {
+				locks.lockWrite();
+				try {
+					if (journal == null) {
+						journal = new TicketJournal(fileName);
+					}
+				} finally {
+					locks.unlockWrite();
+				}
+			}
+			throw e;
+		}
+		LazyTicketList replaced;
+		locks.lockWrite();
+		try {
+			closeJournal();
+			saving = null;
+			logFailed = false;
+			tickets = loaded;
+			replaced = notesFile;
+			notesFile = lazy;
+			journal = new TicketJournal(fileName);
+			archive.clear();
+			rebuildIndex();
+			if (archiveTerminal) {
+				moveTerminalToArchive();
+			}
+		} finally {
+			locks.unlockWrite();
+		}
+		closeNotesFile(replaced);
+		for (TicketChangeListener listener : listeners) {
+			listener.ticketsReloaded();
+		}
 	}
 
 	/**
 	 * Creates a new blank ticket list
 	 */
 	public void createNewTicketList() {
-		tickets = new ArrayList<Ticket>();
+		LazyTicketList replaced;
+		locks.lockWrite();
+		try {
+			closeJournal();
+			saving = null;
+			logFailed = false;
+			tickets = new ArrayList<Ticket>();
+			replaced = notesFile;
+			notesFile = null;
+			archive.clear();
+			rebuildIndex();
+		} finally {
+			locks.unlockWrite();
+		}
+		closeNotesFile(replaced);
+		for (TicketChangeListener listener : listeners) {
+			listener.ticketsReloaded();
+		}
+	}
+
+	/**
+	 * Adds a listener that is told about every ticket added, updated or deleted
+	 * and every time the list is replaced
+	 * 
+	 * @param listener Listener to add
+	 */
+	public void addTicketChangeListener(TicketChangeListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener added with addTicketChangeListener
+	 * 
+	 * @param listener Listener to remove
+	 */
+	public void removeTicketChangeListener(TicketChangeListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Returns the IDs of every ticket in the order of getTicketsForDisplay(), so a
+	 * view can hold one int per row and read the rows it shows with
+	 * getTicketDisplayRow()
+	 * 
+	 * @return IDs of the tickets
+	 */
+	public int[] getTicketIds() {
+		locks.lockRead();
+		try {
+			int[] archived = archive.getIds();
+			int[] ids = new int[tickets.size() + archived.length];
+			int r = 0;
+			int a = 0;
+			for (int i = 0; i < ids.length; i++) {
+				if (a < archived.length && (r == tickets.size() || archived[a] < tickets.get(r).getTicketId())) {
+					ids[i] = archived[a++];
+				} else {
+					ids[i] = tickets.get(r++).getTicketId();
+				}
+			}
+			return ids;
+		} finally {
+			locks.unlockRead();
+		}
+	}
+
+	/**
+	 * Returns the IDs of the tickets of a type in order of ticket ID, the order of
+	 * getTicketsForDisplayByType(). Throws an IllegalArgumentException if the
+	 * Ticket type is null.
+	 * 
+	 * @param type Type of ticket
+	 * @return IDs of the tickets of the type
+	 */
+	public int[] getTicketIdsByType(TicketType type) {
+		if (type == null) {
+			throw new IllegalArgumentException("Ticket type cannot be null.");
+		}
+		locks.lockRead();
+		try {
+			return attributeIndex.getIdsByType(type);
+		} finally {
+			locks.unlockRead();
+		}
+	}
+
+	/**
+	 * Returns the ID, type, state, subject, category, and priority of one ticket,
+	 * as in a row of getTicketsForDisplay()
+	 * 
+	 * @param id ID of ticket
+	 * @return display row, or null if there is no ticket with the ID
+	 */
+	public String[] getTicketDisplayRow(int id) {
+		locks.lockRead();
+		try {
+			Ticket ticket = ticketsById.get(id);
+			return ticket != null ? toDisplayRow(ticket) : archive.getDisplayRow(id);
+		} finally {
+			locks.unlockRead();
+		}
 	}
 
 	/**
 	 * Returns a 2D array of ticket list with ID, type, state, subject, category,
-	 * and priority.
+	 * and priority. Rows of archived tickets are read from the archive columns
+	 * and merged in by ticket ID.
 	 * 
 	 * @return 2D array of ticket list
 	 */
 	public String[][] getTicketsForDisplay() {
-		String[][] ticks = new String[tickets.size()][6];
-		for (int i = 0; i < tickets.size(); i++) {
-			ticks[i][0] = Integer.toString(tickets.get(i).getTicketId());
-			ticks[i][1] = tickets.get(i).getTicketTypeString();
-			ticks[i][2] = tickets.get(i).getState();
-			ticks[i][3] = tickets.get(i).getSubject();
-			ticks[i][4] = tickets.get(i).getCategory();
-			ticks[i][5] = tickets.get(i).getPriority();
+		locks.lockRead();
+		try {
+			String[][] rows = toDisplayRows(tickets);
+			if (archive.size() == 0) {
+				return rows;
+			}
+			int[] archived = archive.getIds();
+			String[][] merged = new String[rows.length + archived.length][];
+			int r = 0;
+			int a = 0;
+			for (int i = 0; i < merged.length; i++) {
+				if (a < archived.length && (r == rows.length || archived[a] < tickets.get(r).getTicketId())) {
+					merged[i] = archive.getDisplayRow(archived[a++]);
+				} else {
+					merged[i] = rows[r++];
+				}
+			}
+			return merged;
+		} finally {
+			locks.unlockRead();
 		}
-		return ticks;
 	}
 
 	/**
 	 * Returns a 2D array of ticket list by type. Throws an IllegalArgumentException
-	 * if the Ticket type is null.
+	 * if the Ticket type is null. The rows are looked up through the type index,
+	 * so only the matching tickets are visited, in order of ticket ID.
 	 * 
 	 * @param type Type of ticket
 	 * @return 2D array of ticket list by type
@@ -108,63 +616,500 @@ public class TicketManager {
 		if (type == null) {
 			throw new IllegalArgumentException("Ticket type cannot be null.");
 		}
-		ArrayList<Ticket> ticketsByType = new ArrayList<Ticket>();
-		for (int i = 0; i < tickets.size(); i++) {
-			if (tickets.get(i).getTicketType() == type) {
-				ticketsByType.add(tickets.get(i));
+		return toDisplayRows(getTicketsByType(type));
+	}
+
+	/**
+	 * Returns one page of the display rows of the tickets that match a filter,
+	 * sorted by a column. Without a filter, pages sorted by any column but the
+	 * subject are read from the sorted attribute indexes in O(log n + limit)
+	 * when their IDs are close together and O(limit log n) at worst,
+	 * including archived tickets. With a filter in order of ticket ID the rows
+	 * are read in order and reading stops once the page is full, so only the
+	 * rows of the page are kept. Otherwise every matching ticket is visited, but
+	 * only the first offset + limit rows in sort order are kept. While tickets
+	 * are archived, a Ticket is built for each of them that has to be matched or
+	 * sorted. Throws an IllegalArgumentException if the offset or limit is
+	 * negative.
+	 * 
+	 * @param filter  Tickets to display, or null for every ticket
+	 * @param sortKey Column to sort by, or null for ticket ID
+	 * @param offset  Number of matching rows to skip
+	 * @param limit   Maximum number of rows to return
+	 * @return 2D array with at most limit rows
+	 */
+	public String[][] getTicketsForDisplay(Predicate<Ticket> filter, TicketSortKey sortKey, int offset, int limit) {
+		if (offset < 0) {
+			throw new IllegalArgumentException("Offset cannot be negative.");
+		}
+		if (limit < 0) {
+			throw new IllegalArgumentException("Limit cannot be negative.");
+		}
+		TicketSortKey key = sortKey == null ? TicketSortKey.ID : sortKey;
+		locks.lockRead();
+		try {
+			if (filter == null && key != TicketSortKey.SUBJECT) {
+				return pageIndexed(key, offset, limit);
 			}
+			if (key == TicketSortKey.ID) {
+				return pageById(filter, offset, limit);
+			}
+			return pageSorted(filter, key, offset, limit);
+		} finally {
+			locks.unlockRead();
+		}
+	}
+
+	/**
+	 * Returns a cursor over the display rows of the tickets that match a filter,
+	 * in the order of getTicketsForDisplay(). The cursor holds only its position,
+	 * so any number of tickets can be read in constant memory, for example with
+	 * StreamSupport.stream(). Each row is read holding the read lock, and the
+	 * list is bound when the first row is read. Tickets added after the position
+	 * of the cursor are read. The cursor throws a ConcurrentModificationException
+	 * if tickets before its position are deleted, archived or reopened, or the
+	 * list is reloaded.
+	 * 
+	 * @param filter Tickets to display, or null for every ticket
+	 * @return ordered cursor over the display rows
+	 */
+	public Spliterator<String[]> getTicketDisplayCursor(Predicate<Ticket> filter) {
+		return new DisplayCursor(filter);
+	}
+
+	/**
+	 * Returns the tickets of a type in order of ticket ID. Throws an
+	 * IllegalArgumentException if the Ticket type is null.
+	 * 
+	 * @param type Type of ticket
+	 * @return List of Tickets by type
+	 */
+	public ArrayList<Ticket> getTicketsByType(TicketType type) {
+		if (type == null) {
+			throw new IllegalArgumentException("Ticket type cannot be null.");
 		}
-		String[][] ticks = new String[tickets.size()][6];
-		for (int i = 0; i < ticketsByType.size(); i++) {
-			ticks[i][0] = Integer.toString(ticketsByType.get(i).getTicketId());
-			ticks[i][1] = ticketsByType.get(i).getTicketTypeString();
-			ticks[i][2] = ticketsByType.get(i).getState();
-			ticks[i][3] = ticketsByType.get(i).getSubject();
-			ticks[i][4] = ticketsByType.get(i).getCategory();
-			ticks[i][5] = ticketsByType.get(i).getPriority();
+		return lookup(() -> attributeIndex.getIdsByType(type));
+	}
+
+	/**
+	 * Returns the tickets of a priority in order of ticket ID. Throws an
+	 * IllegalArgumentException if the priority is null.
+	 * 
+	 * @param priority Priority of ticket
+	 * @return List of Tickets by priority
+	 */
+	public ArrayList<Ticket> getTicketsByPriority(Priority priority) {
+		if (priority == null) {
+			throw new IllegalArgumentException("Priority cannot be null.");
 		}
-		return ticks;
+		return lookup(() -> attributeIndex.getIdsByPriority(priority));
 	}
 
 	/**
-	 * Returns Ticket object by ID in a ticket list
+	 * Returns the tickets of a category in order of ticket ID. Throws an
+	 * IllegalArgumentException if the category is null.
+	 * 
+	 * @param category Category of ticket
+	 * @return List of Tickets by category
+	 */
+	public ArrayList<Ticket> getTicketsByCategory(Category category) {
+		if (category == null) {
+			throw new IllegalArgumentException("Category cannot be null.");
+		}
+		return lookup(() -> attributeIndex.getIdsByCategory(category));
+	}
+
+	/**
+	 * Returns the tickets in a state in order of ticket ID. Throws an
+	 * IllegalArgumentException if the state name is null.
+	 * 
+	 * @param stateName Name of state, such as Ticket.NEW_NAME
+	 * @return List of Tickets by state
+	 */
+	public ArrayList<Ticket> getTicketsByState(String stateName) {
+		if (stateName == null) {
+			throw new IllegalArgumentException("State cannot be null.");
+		}
+		return lookup(() -> attributeIndex.getIdsByState(stateName));
+	}
+
+	/**
+	 * Returns the tickets with an owner in order of ticket ID. Throws an
+	 * IllegalArgumentException if the owner is null.
+	 * 
+	 * @param owner Owner of ticket
+	 * @return List of Tickets by owner
+	 */
+	public ArrayList<Ticket> getTicketsByOwner(String owner) {
+		if (owner == null) {
+			throw new IllegalArgumentException("Owner cannot be null.");
+		}
+		return lookup(() -> attributeIndex.getIdsByOwner(owner));
+	}
+
+	/**
+	 * Returns the IDs of the tickets whose subject, caller, owner or notes match
+	 * a query. A query is made of words, which must all match, "phrases" in
+	 * double quotes, and OR between groups of which any may match. Throws an
+	 * IllegalArgumentException if the query is null, and an
+	 * IllegalStateException if the full-text index is off.
+	 * 
+	 * @param query Words, phrases and OR to match
+	 * @return IDs of the matching tickets in ascending order
+	 */
+	public int[] searchTicketIds(String query) {
+		if (query == null) {
+			throw new IllegalArgumentException("Query cannot be null.");
+		}
+		locks.lockRead();
+		try {
+			TicketSearchIndex index = searchIndex;
+			if (index == null) {
+				throw new IllegalStateException("Search index is off.");
+			}
+			return index.search(query, this::searchFields);
+		} finally {
+			locks.unlockRead();
+		}
+	}
+
+	/**
+	 * Returns the tickets that match a query, as searchTicketIds(), in order of
+	 * ticket ID
+	 * 
+	 * @param query Words, phrases and OR to match
+	 * @return List of matching Tickets
+	 */
+	public ArrayList<Ticket> searchTickets(String query) {
+		return lookup(() -> searchTicketIds(query));
+	}
+
+	/**
+	 * Returns the IDs of the tickets whose subject or caller contains a text,
+	 * ignoring case. Empty text matches every ticket. Throws an IllegalArgumentException if the text is null, and
+	 * an IllegalStateException if the substring index is off.
+	 * 
+	 * @param text Text to find
+	 * @return IDs of the matching tickets in ascending order
+	 */
+	public int[] getTicketIdsContaining(String text) {
+		if (text == null) {
+			throw new IllegalArgumentException("Text cannot be null.");
+		}
+		locks.lockRead();
+		try {
+			TicketTrigramIndex index = substringIndex;
+			if (index == null) {
+				throw new IllegalStateException("Substring index is off.");
+			}
+			if (text.isEmpty()) {
+				int[] ids = getTicketIds();
+				Arrays.sort(ids);
+				return ids;
+			}
+			return index.find(text, this::substringFields);
+		} finally {
+			locks.unlockRead();
+		}
+	}
+
+	/**
+	 * Returns Ticket object by ID in a ticket list. For an archived ticket a new
+	 * Ticket is built from the archive, so changes to it are not kept.
 	 * 
 	 * @param id ID of Ticket
 	 * @return Ticket object with specific ID
 	 */
 	public Ticket getTicketById(int id) {
-		for (int i = 0; i < tickets.size(); i++) {
-			if (tickets.get(i).getTicketId() == id) {
-				return tickets.get(i);
-			}
+		locks.lockRead();
+		try {
+			return find(id);
+		} finally {
+			locks.unlockRead();
 		}
-		return null;
 	}
 
 	/**
-	 * Executes command on a ticket with specific ID
+	 * Executes command on a ticket with specific ID. A command on an archived
+	 * ticket takes the list exclusively, and a ticket it reopens is moved back to
+	 * the list of Tickets.
 	 * 
 	 * @param id      ID of ticket command is used on
 	 * @param command Command to execute
 	 */
 	public void executeCommand(int id, Command command) {
-		for (int i = 0; i < tickets.size(); i++) {
-			if (tickets.get(i).getTicketId() == id) {
-				tickets.get(i).update(command);
+		checkLogged();
+		boolean archived = false;
+		boolean applied = false;
+		locks.lockRead();
+		try {
+			Ticket ticket = ticketsById.get(id);
+			if (ticket == null) {
+				archived = archive.contains(id);
+			} else {
+				applied = applyCommand(ticket, t -> command);
+			}
+		} finally {
+			locks.unlockRead();
+		}
+		if (archived) {
+			locks.lockWrite();
+			try {
+				Ticket ticket = find(id);
+				if (ticket != null) {
+					applied = applyCommand(ticket, t -> command);
+					promoteAll(Collections.singletonList(ticket));
+				}
+			} finally {
+				locks.unlockWrite();
+			}
+		}
+		commitChange();
+		if (applied) {
+			for (TicketChangeListener listener : listeners) {
+				listener.ticketUpdated(id);
+			}
+		}
+	}
+
+	/**
+	 * Executes a batch of commands, each on the ticket with its ID. The tickets
+	 * are looked up once through the ID index, and in the concurrent mode the
+	 * commands run in parallel. A command the state of its ticket does not allow
+	 * is recorded as rejected and does not stop the rest of the batch. Throws an
+	 * IllegalArgumentException if the map is null.
+	 * 
+	 * @param commands Commands by ID of the ticket they are used on
+	 * @return Tickets updated, commands rejected, and IDs not found
+	 */
+	public BatchResult executeCommands(Map<Integer, Command> commands) {
+		if (commands == null) {
+			throw new IllegalArgumentException("Commands cannot be null.");
+		}
+		checkLogged();
+		BatchResult result = new BatchResult();
+		boolean archived = false;
+		locks.lockRead();
+		try {
+			ArrayList<Ticket> targets = new ArrayList<Ticket>(commands.size());
+			for (Integer id : commands.keySet()) {
+				Ticket ticket = ticketsById.get(id);
+				if (ticket != null) {
+					targets.add(ticket);
+				} else if (archive.contains(id)) {
+					archived = true;
+					break;
+				}
+			}
+			if (!archived) {
+				addNotFound(commands, result);
+				applyBatch(targets, t -> commands.get(t.getTicketId()), result);
+			}
+		} finally {
+			locks.unlockRead();
+		}
+		if (archived) {
+			// Archived tickets may be reopened, so the batch runs again exclusively
+			locks.lockWrite();
+			try {
+				ArrayList<Ticket> targets = new ArrayList<Ticket>(commands.size());
+				for (Integer id : commands.keySet()) {
+					Ticket ticket = find(id);
+					if (ticket != null) {
+						targets.add(ticket);
+					}
+				}
+				addNotFound(commands, result);
+				applyBatch(targets, t -> commands.get(t.getTicketId()), result);
+				promoteAll(targets);
+			} finally {
+				locks.unlockWrite();
+			}
+		}
+		commitChange();
+		fireUpdated(result);
+		return result;
+	}
+
+	/**
+	 * Records the IDs of a batch that no ticket has
+	 * 
+	 * @param commands Commands by ID of the ticket they are used on
+	 * @param result   Outcomes of the batch
+	 */
+	private void addNotFound(Map<Integer, Command> commands, BatchResult result) {
+		for (Integer id : commands.keySet()) {
+			if (ticketsById.get(id) == null && !archive.contains(id)) {
+				result.addNotFound(id);
+			}
+		}
+	}
+
+	/**
+	 * Executes a command on every ticket that matches a filter, in one pass over
+	 * the ticket list. The filter and the command factory are called with the
+	 * ticket locked, so in the concurrent mode the ticket cannot change between
+	 * matching and the command. In the concurrent mode the tickets are handled in
+	 * parallel, so the filter and factory must be safe to call from several
+	 * threads. While tickets are archived, a Ticket is built for each of them to
+	 * be matched and the batch takes the list exclusively. Throws an
+	 * IllegalArgumentException if the filter or factory is null.
+	 * 
+	 * @param filter         Tickets to execute the command on
+	 * @param commandFactory Creates the command for a matching ticket
+	 * @return Tickets updated and commands rejected
+	 */
+	public BatchResult executeWhere(Predicate<Ticket> filter, Function<Ticket, Command> commandFactory) {
+		if (filter == null || commandFactory == null) {
+			throw new IllegalArgumentException("Filter and command factory cannot be null.");
+		}
+		checkLogged();
+		BatchResult result = new BatchResult();
+		Function<Ticket, Command> commands = t -> filter.test(t) ? commandFactory.apply(t) : null;
+		boolean archived;
+		locks.lockRead();
+		try {
+			archived = archive.size() > 0;
+			if (!archived) {
+				applyBatch(tickets, commands, result);
+			}
+		} finally {
+			locks.unlockRead();
+		}
+		if (archived) {
+			locks.lockWrite();
+			try {
+				ArrayList<Ticket> targets = allTickets();
+				applyBatch(targets, commands, result);
+				promoteAll(targets);
+			} finally {
+				locks.unlockWrite();
+			}
+		}
+		commitChange();
+		fireUpdated(result);
+		return result;
+	}
+
+	/**
+	 * Applies a command to each of a list of tickets and records the outcomes in
+	 * the order of the list. Runs in parallel in the concurrent mode. Must be
+	 * called holding the read lock of the ticket list.
+	 * 
+	 * @param targets  Tickets to update
+	 * @param commands Returns the command for a ticket, or null to skip it
+	 * @param result   Outcomes of the batch
+	 */
+	private void applyBatch(List<Ticket> targets, Function<Ticket, Command> commands, BatchResult result) {
+		int size = targets.size();
+		byte[] outcomes = new byte[size];
+		UnsupportedOperationException[] rejections = new UnsupportedOperationException[size];
+		IntStream indexes = IntStream.range(0, size);
+		if (locks.isEnabled()) {
+			indexes = indexes.parallel();
+		}
+		indexes.forEach(i -> {
+			try {
+				outcomes[i] = applyCommand(targets.get(i), commands) ? APPLIED : SKIPPED;
+			} catch (UnsupportedOperationException e) {
+				outcomes[i] = REJECTED;
+				rejections[i] = e;
+			}
+		});
+		for (int i = 0; i < size; i++) {
+			int id = targets.get(i).getTicketId();
+			if (outcomes[i] == APPLIED) {
+				result.addSucceeded(id);
+			} else if (outcomes[i] == REJECTED) {
+				result.addRejected(id, rejections[i]);
+			}
+		}
+	}
+
+	/**
+	 * Applies a command to a ticket with the ticket locked, keeping the
+	 * attribute index and the journal in step. Must be called holding the read
+	 * lock of the ticket list. Throws an UnsupportedOperationException if the
+	 * state of the ticket does not allow the command.
+	 * 
+	 * @param ticket   Ticket to update
+	 * @param commands Returns the command for the ticket, or null to skip it
+	 * @return true if a command was applied
+	 */
+	private boolean applyCommand(Ticket ticket, Function<Ticket, Command> commands) {
+		int id = ticket.getTicketId();
+		locks.lockTicket(id);
+		try {
+			Command command = commands.apply(ticket);
+			if (command == null) {
+				return false;
 			}
+			attributeIndex.remove(ticket);
+			try {
+				String owner = ticket.getOwner();
+				int noteCount = ticket.getNoteCount();
+				ticket.update(command);
+				if (searchIndex != null) {
+					searchIndex.update(ticket, owner, noteCount);
+				}
+				if (journal != null) {
+					journal.recordCommand(ticket, command);
+				}
+				if (saving != null) {
+					saving.recordCommand(ticket, command);
+				}
+			} finally {
+				attributeIndex.add(ticket);
+			}
+			return true;
+		} finally {
+			locks.unlockTicket(id);
 		}
 	}
 
 	/**
-	 * Deletes ticket with specific ID
+	 * Deletes ticket with specific ID. The ticket is found in the list by its ID,
+	 * but the tickets after it are shifted down to keep the display order, so a
+	 * delete still takes O(n) time.
 	 * 
 	 * @param id ID of ticket
 	 */
 	public void deleteTicketById(int id) {
-		for (int i = 0; i < tickets.size(); i++) {
-			if (tickets.get(i).getTicketId() == id) {
-				tickets.remove(i);
+		checkLogged();
+		locks.lockWrite();
+		try {
+			Ticket ticket = ticketsById.remove(id);
+			if (ticket != null) {
+				int i = indexOf(ticket);
+				if (i >= 0) {
+					tickets.remove(i);
+				}
+			} else {
+				ticket = archive.get(id);
+				if (ticket == null) {
+					return;
+				}
+				archive.remove(id);
 			}
+			attributeIndex.remove(ticket);
+			if (searchIndex != null) {
+				searchIndex.remove(ticket);
+			}
+			if (substringIndex != null) {
+				substringIndex.remove(ticket);
+			}
+			if (journal != null) {
+				journal.recordDelete(id);
+			}
+			if (saving != null) {
+				saving.recordDelete(id);
+			}
+		} finally {
+			locks.unlockWrite();
+		}
+		commitChange();
+		for (TicketChangeListener listener : listeners) {
+			listener.ticketDeleted(id);
 		}
 	}
 
@@ -180,17 +1125,733 @@ public class TicketManager {
 	 */
 	public void addTicketToList(TicketType ticketType, String subject, String caller, Category category,
 			Priority priority, String notes) {
+		checkLogged();
 		Ticket ticket = new Ticket(ticketType, subject, caller, category, priority, notes);
-		tickets.add(ticket);
+		locks.lockWrite();
+		try {
+			tickets.add(ticket);
+			ticketsById.put(ticket);
+			attributeIndex.add(ticket);
+			if (searchIndex != null) {
+				searchIndex.add(ticket);
+			}
+			if (substringIndex != null) {
+				substringIndex.add(ticket);
+			}
+			if (journal != null) {
+				journal.recordAdd(ticket);
+			}
+			if (saving != null) {
+				saving.recordAdd(ticket);
+			}
+		} finally {
+			locks.unlockWrite();
+		}
+		commitChange();
+		for (TicketChangeListener listener : listeners) {
+			listener.ticketAdded(ticket.getTicketId());
+		}
+	}
+
+	/**
+	 * Returns the position of a ticket in the list of Tickets. The list is in
+	 * order of ticket ID unless it was loaded from a file that is not, so the
+	 * ticket is looked for by binary search first and only scanned for if that
+	 * does not find it. Must be called holding a lock of the ticket list.
+	 * 
+	 * @param ticket Ticket to find
+	 * @return position of the ticket, or -1 if it is not in the list
+	 */
+	private int indexOf(Ticket ticket) {
+		int id = ticket.getTicketId();
+		int low = 0;
+		int high = tickets.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int midId = tickets.get(mid).getTicketId();
+			if (midId < id) {
+				low = mid + 1;
+			} else if (midId > id) {
+				high = mid - 1;
+			} else if (tickets.get(mid) == ticket) {
+				return mid;
+			} else {
+				break;
+			}
+		}
+		return tickets.indexOf(ticket);
 	}
 
 	/**
-	 * Returns tickets in the TicketManager array
+	 * Returns tickets in the TicketManager array. In the concurrent mode a copy
+	 * is returned, so it can be iterated while other threads change the list.
+	 * While tickets are archived, a copy is returned with a new Ticket built for
+	 * each archived ticket, merged in by ticket ID.
 	 * 
 	 * @return array of Tickets
 	 */
 	public ArrayList<Ticket> getTickets() {
-		return tickets;
+		if (!locks.isEnabled() && archive.size() == 0) {
+			return tickets;
+		}
+		locks.lockRead();
+		try {
+			ArrayList<Ticket> all = allTickets();
+			return all == tickets ? new ArrayList<Ticket>(tickets) : all;
+		} finally {
+			locks.unlockRead();
+		}
+	}
+
+	/**
+	 * Returns the list of Tickets with the archived tickets merged in by ticket
+	 * ID, or the list itself if no ticket is archived. Must be called holding a
+	 * lock of the ticket list.
+	 * 
+	 * @return every ticket
+	 */
+	private ArrayList<Ticket> allTickets() {
+		if (archive.size() == 0) {
+			return tickets;
+		}
+		int[] ids = archive.getIds();
+		ArrayList<Ticket> archived = new ArrayList<Ticket>(ids.length);
+		for (int i = 0; i < ids.length; i++) {
+			archived.add(archive.get(ids[i]));
+		}
+		return merge(tickets, archived);
+	}
+
+	/**
+	 * Returns a copy of every ticket, as allTickets() orders them, that later
+	 * changes do not affect. Each ticket is locked while it is copied, so a
+	 * command is either in the copy or not at all. Must be called holding the
+	 * read lock of the ticket list.
+	 * 
+	 * @return copies of the tickets
+	 */
+	private ArrayList<Ticket> copyTickets() {
+		List<Ticket> all = allTickets();
+		ArrayList<Ticket> copies = new ArrayList<Ticket>(all.size());
+		for (int i = 0; i < all.size(); i++) {
+			Ticket ticket = all.get(i);
+			int id = ticket.getTicketId();
+			locks.lockTicket(id);
+			try {
+				copies.add(ticket.copy());
+			} finally {
+				locks.unlockTicket(id);
+			}
+		}
+		return copies;
+	}
+
+	/**
+	 * Merges tickets sorted by ID into a list, placing each before the first
+	 * ticket of the list with a higher ID that has not been passed yet. The
+	 * order of the list is kept.
+	 * 
+	 * @param list  Tickets in list order
+	 * @param added Tickets sorted by ID
+	 * @return new list with both
+	 */
+	private static ArrayList<Ticket> merge(List<Ticket> list, List<Ticket> added) {
+		ArrayList<Ticket> merged = new ArrayList<Ticket>(list.size() + added.size());
+		int a = 0;
+		for (int i = 0; i < list.size(); i++) {
+			Ticket ticket = list.get(i);
+			while (a < added.size() && added.get(a).getTicketId() < ticket.getTicketId()) {
+				merged.add(added.get(a++));
+			}
+			merged.add(ticket);
+		}
+		while (a < added.size()) {
+			merged.add(added.get(a++));
+		}
+		return merged;
+	}
+
+	/**
+	 * Moves every Closed and Canceled ticket from the list of Tickets to the
+	 * archive. The attribute index keeps the archived tickets. Must be called
+	 * holding the write lock of the ticket list.
+	 * 
+	 * @return number of tickets archived
+	 */
+	private int moveTerminalToArchive() {
+		ArrayList<Ticket> kept = new ArrayList<Ticket>(tickets.size());
+		ArrayList<Ticket> moved = new ArrayList<Ticket>();
+		for (int i = 0; i < tickets.size(); i++) {
+			Ticket ticket = tickets.get(i);
+			if (isTerminal(ticket) && ticketsById.get(ticket.getTicketId()) == ticket) {
+				moved.add(ticket);
+			} else {
+				kept.add(ticket);
+			}
+		}
+		archive.addAll(moved);
+		for (int i = 0; i < moved.size(); i++) {
+			ticketsById.remove(moved.get(i).getTicketId());
+		}
+		tickets = kept;
+		return moved.size();
+	}
+
+	/**
+	 * Moves archived tickets that a command has taken out of the Closed and
+	 * Canceled states back to the list of Tickets. Tickets that are not archived
+	 * or are still terminal are left alone. Must be called holding the write lock
+	 * of the ticket list.
+	 * 
+	 * @param targets Tickets a batch was applied to
+	 */
+	private void promoteAll(List<Ticket> targets) {
+		ArrayList<Ticket> promoted = new ArrayList<Ticket>();
+		for (int i = 0; i < targets.size(); i++) {
+			Ticket ticket = targets.get(i);
+			if (!isTerminal(ticket) && archive.remove(ticket.getTicketId())) {
+				ticketsById.put(ticket);
+				promoted.add(ticket);
+			}
+		}
+		if (!promoted.isEmpty()) {
+			promoted.sort((a, b) -> Integer.compare(a.getTicketId(), b.getTicketId()));
+			tickets = merge(tickets, promoted);
+		}
+	}
+
+	/**
+	 * Returns whether a ticket is Closed or Canceled
+	 * 
+	 * @param ticket Ticket to check
+	 * @return true if no command but REOPEN can change the ticket
+	 */
+	private static boolean isTerminal(Ticket ticket) {
+		int state = ticket.getStateIndex();
+		return state == TicketTransitions.CLOSED || state == TicketTransitions.CANCELED;
+	}
+
+	/**
+	 * Returns the Ticket with an ID from the list or, built anew, from the
+	 * archive. Must be called holding a lock of the ticket list.
+	 * 
+	 * @param id ID of ticket
+	 * @return Ticket, or null if there is none
+	 */
+	private Ticket find(int id) {
+		Ticket ticket = ticketsById.get(id);
+		return ticket != null ? ticket : archive.get(id);
+	}
+
+	/**
+	 * Stops journaling changes, once running appends and compaction have finished
+	 * so they are not read half done
+	 */
+	private void closeJournal() {
+		if (journal != null) {
+			journal.close();
+			journal = null;
+		}
+	}
+
+	/**
+	 * Closes the file the notes of a replaced list were left in. A save that
+	 * started before the list was replaced may still be writing those notes, so
+	 * the file is closed once it is done.
+	 * 
+	 * @param replaced Tickets loaded with their notes left in the file, or null
+	 */
+	private void closeNotesFile(LazyTicketList replaced) {
+		if (replaced != null) {
+			synchronized (saveLock) {
+				replaced.close();
+			}
+		}
+	}
+
+	/**
+	 * Tells the listeners about the tickets a batch updated
+	 * 
+	 * @param result Outcomes of the batch
+	 */
+	private void fireUpdated(BatchResult result) {
+		if (listeners.isEmpty()) {
+			return;
+		}
+		for (Integer id : result.getSucceeded()) {
+			for (TicketChangeListener listener : listeners) {
+				listener.ticketUpdated(id);
+			}
+		}
+	}
+
+	/**
+	 * Forces the recorded changes to the journal if the write-ahead log is on.
+	 * If the journal cannot be written, later changes are refused until the
+	 * tickets are saved or replaced.
+	 */
+	private void commitChange() {
+		TicketJournal current = journal;
+		if (writeAheadLog && current != null) {
+			try {
+				current.flush();
+			} catch (IllegalArgumentException e) {
+				logFailed = true;
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Throws an IllegalStateException if a change could not be forced to the
+	 * write-ahead log since the tickets were last saved or replaced
+	 */
+	private void checkLogged() {
+		if (logFailed) {
+			throw new IllegalStateException("Write-ahead log failed.");
+		}
+	}
+
+	/**
+	 * Rebuilds the ID index from the current list of Tickets
+	 */
+	private void rebuildIndex() {
+		ticketsById.clear();
+		attributeIndex.clear();
+		if (searchIndex != null) {
+			searchIndex.clear();
+		}
+		if (substringIndex != null) {
+			substringIndex.clear();
+		}
+		for (int i = 0; i < tickets.size(); i++) {
+			if (ticketsById.put(tickets.get(i))) {
+				attributeIndex.add(tickets.get(i));
+				if (searchIndex != null) {
+					searchIndex.add(tickets.get(i));
+				}
+				if (substringIndex != null) {
+					substringIndex.add(tickets.get(i));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the searchable fields of a ticket, read with the ticket locked.
+	 * Must be called holding the read lock of the ticket list.
+	 * 
+	 * @param id ID of ticket
+	 * @return fields, or null if there is no ticket with the ID
+	 */
+	private String[] searchFields(int id) {
+		Ticket ticket = find(id);
+		if (ticket == null) {
+			return null;
+		}
+		locks.lockTicket(id);
+		try {
+			return TicketSearchIndex.fields(ticket);
+		} finally {
+			locks.unlockTicket(id);
+		}
+	}
+
+	/**
+	 * Returns the subject and caller of a ticket. They never change, so the
+	 * ticket is not locked. Must be called holding the read lock of the ticket
+	 * list.
+	 * 
+	 * @param id ID of ticket
+	 * @return fields, or null if there is no ticket with the ID
+	 */
+	private String[] substringFields(int id) {
+		Ticket ticket = find(id);
+		return ticket == null ? null : TicketTrigramIndex.fields(ticket);
+	}
+
+	/**
+	 * Returns the Tickets with the given IDs. The IDs are read holding the same
+	 * read lock as the Tickets, so a load cannot change the indexes in between.
+	 * 
+	 * @param source Returns the IDs of tickets
+	 * @return List of Tickets in the order of the IDs
+	 */
+	private ArrayList<Ticket> lookup(Supplier<int[]> source) {
+		locks.lockRead();
+		try {
+			int[] ids = source.get();
+			ArrayList<Ticket> ticks = new ArrayList<Ticket>(ids.length);
+			for (int i = 0; i < ids.length; i++) {
+				Ticket ticket = find(ids[i]);
+				if (ticket != null) {
+					ticks.add(ticket);
+				}
+			}
+			return ticks;
+		} finally {
+			locks.unlockRead();
+		}
+	}
+
+	/**
+	 * Returns a 2D array with the ID, type, state, subject, category, and priority
+	 * of each ticket in a list. Each ticket is locked while its row is read, so a
+	 * row never mixes values from before and after a command.
+	 * 
+	 * @param ticks Tickets to display
+	 * @return 2D array with one row per ticket
+	 */
+	private String[][] toDisplayRows(List<Ticket> ticks) {
+		String[][] rows = new String[ticks.size()][];
+		for (int i = 0; i < ticks.size(); i++) {
+			rows[i] = toDisplayRow(ticks.get(i));
+		}
+		return rows;
+	}
+
+	/**
+	 * Returns a page of the rows of every ticket sorted by an indexed column.
+	 * Must be called holding the read lock of the ticket list.
+	 * 
+	 * @param sortKey Column to sort by, not SUBJECT
+	 * @param offset  Number of rows to skip
+	 * @param limit   Maximum number of rows to return
+	 * @return rows of the page
+	 */
+	private String[][] pageIndexed(TicketSortKey sortKey, int offset, int limit) {
+		int[] ids = attributeIndex.getIdsSortedBy(sortKey, offset, limit);
+		String[][] rows = new String[ids.length][];
+		int n = 0;
+		for (int i = 0; i < ids.length; i++) {
+			Ticket ticket = ticketsById.get(ids[i]);
+			String[] row = ticket != null ? toDisplayRow(ticket) : archive.getDisplayRow(ids[i]);
+			if (row != null) {
+				rows[n++] = row;
+			}
+		}
+		return n == rows.length ? rows : Arrays.copyOf(rows, n);
+	}
+
+	/**
+	 * Returns a page of the rows that match a filter in order of ticket ID. Must
+	 * be called holding the read lock of the ticket list.
+	 * 
+	 * @param filter Tickets to display, or null for every ticket
+	 * @param offset Number of matching rows to skip
+	 * @param limit  Maximum number of rows to return
+	 * @return rows of the page
+	 */
+	private String[][] pageById(Predicate<Ticket> filter, int offset, int limit) {
+		DisplayCursor cursor = new DisplayCursor(filter);
+		for (int i = 0; i < offset; i++) {
+			if (!cursor.skip()) {
+				return new String[0][];
+			}
+		}
+		ArrayList<String[]> rows = new ArrayList<String[]>(Math.min(limit, tickets.size() + archive.size()));
+		String[] row;
+		while (rows.size() < limit && (row = cursor.next()) != null) {
+			rows.add(row);
+		}
+		return rows.toArray(new String[rows.size()][]);
+	}
+
+	/**
+	 * Returns a page of the rows that match a filter sorted by a column. Keeps
+	 * the first offset + limit rows in a heap whose head is the last of them, so
+	 * a row is only read if it sorts before the head. Must be called holding the
+	 * read lock of the ticket list.
+	 * 
+	 * @param filter  Tickets to display, or null for every ticket
+	 * @param sortKey Column to sort by
+	 * @param offset  Number of matching rows to skip
+	 * @param limit   Maximum number of rows to return
+	 * @return rows of the page
+	 */
+	private String[][] pageSorted(Predicate<Ticket> filter, TicketSortKey sortKey, int offset, int limit) {
+		if (limit == 0) {
+			return new String[0][];
+		}
+		long keep = (long) offset + limit;
+		PriorityQueue<SortedRow> first = new PriorityQueue<SortedRow>(Collections.reverseOrder());
+		DisplayCursor cursor = new DisplayCursor(filter);
+		Ticket ticket;
+		while ((ticket = cursor.nextTicket()) != null) {
+			offerSorted(first, keep, ticket, filter, sortKey);
+		}
+		SortedRow[] sorted = first.toArray(new SortedRow[first.size()]);
+		Arrays.sort(sorted);
+		int count = Math.max(0, Math.min(limit, sorted.length - offset));
+		String[][] rows = new String[count][];
+		for (int i = 0; i < count; i++) {
+			rows[i] = sorted[offset + i].row;
+		}
+		return rows;
+	}
+
+	/**
+	 * Adds a ticket that matches a filter to the heap of the first rows if it
+	 * sorts before the head, dropping the head once the heap is full. The row
+	 * and its sort values are read with the ticket locked so they agree.
+	 * 
+	 * @param first   heap of the first rows, last row at the head
+	 * @param keep    number of rows to keep
+	 * @param ticket  Ticket to display
+	 * @param filter  Tickets to display, or null for every ticket
+	 * @param sortKey Column to sort by
+	 */
+	private void offerSorted(PriorityQueue<SortedRow> first, long keep, Ticket ticket, Predicate<Ticket> filter,
+			TicketSortKey sortKey) {
+		int id = ticket.getTicketId();
+		locks.lockTicket(id);
+		try {
+			if (filter != null && !filter.test(ticket)) {
+				return;
+			}
+			SortedRow row = new SortedRow(id, sortKey.rank(ticket),
+					sortKey == TicketSortKey.SUBJECT ? ticket.getSubject() : null);
+			if (first.size() == keep && row.compareTo(first.peek()) >= 0) {
+				return;
+			}
+			row.row = toDisplayRow(ticket);
+			first.add(row);
+			if (first.size() > keep) {
+				first.poll();
+			}
+		} finally {
+			locks.unlockTicket(id);
+		}
+	}
+
+	/**
+	 * Returns the display row of a ticket if it matches a filter, read with the
+	 * ticket locked
+	 * 
+	 * @param ticket Ticket to display
+	 * @param filter Tickets to display, or null for every ticket
+	 * @return display row, or null if the ticket does not match
+	 */
+	private String[] toDisplayRow(Ticket ticket, Predicate<Ticket> filter) {
+		if (filter == null) {
+			return toDisplayRow(ticket);
+		}
+		int id = ticket.getTicketId();
+		locks.lockTicket(id);
+		try {
+			return filter.test(ticket) ? toDisplayRow(ticket) : null;
+		} finally {
+			locks.unlockTicket(id);
+		}
+	}
+
+	/**
+	 * Returns the ID, type, state, subject, category, and priority of a ticket,
+	 * read with the ticket locked
+	 * 
+	 * @param ticket Ticket to display
+	 * @return display row
+	 */
+	private String[] toDisplayRow(Ticket ticket) {
+		int id = ticket.getTicketId();
+		locks.lockTicket(id);
+		try {
+			return new String[] { Integer.toString(id), ticket.getTicketTypeString(), ticket.getState(),
+				ticket.getSubject(), ticket.getCategory(), ticket.getPriority() };
+		} finally {
+			locks.unlockTicket(id);
+		}
+	}
+
+	/**
+	 * Display row with the values it is sorted by, taken when the row was read.
+	 * The row itself is only read for rows that are kept.
+	 * 
+	 * @author Benson Liu
+	 *
+	 */
+	private static class SortedRow implements Comparable<SortedRow> {
+
+		/** Display row, read once the row is kept */
+		private String[] row;
+		/** ID of ticket */
+		private final int id;
+		/** Rank of the ticket for the sort key */
+		private final int rank;
+		/** Subject of the ticket when sorting by subject, otherwise null */
+		private final String subject;
+
+		/**
+		 * Constructor for SortedRow
+		 * 
+		 * @param id      ID of ticket
+		 * @param rank    rank of the ticket for the sort key
+		 * @param subject subject when sorting by subject, or null
+		 */
+		SortedRow(int id, int rank, String subject) {
+			this.id = id;
+			this.rank = rank;
+			this.subject = subject;
+		}
+
+		@Override
+		public int compareTo(SortedRow other) {
+			int c = Integer.compare(rank, other.rank);
+			if (c == 0 && subject != null) {
+				c = subject.compareTo(other.subject);
+			}
+			return c != 0 ? c : Integer.compare(id, other.id);
+		}
+	}
+
+	/**
+	 * Cursor over the tickets in the order of getTicketsForDisplay(). Keeps the
+	 * position in the list of Tickets and the last archived ID passed, and checks
+	 * that the ticket before its position has not moved before reading on.
+	 * 
+	 * @author Benson Liu
+	 *
+	 */
+	private class DisplayCursor implements Spliterator<String[]> {
+
+		/** Tickets to display, or null for every ticket */
+		private final Predicate<Ticket> filter;
+		/** List of Tickets being read, null until the first row is read */
+		private ArrayList<Ticket> list;
+		/** Position of the next ticket of the list */
+		private int position;
+		/** ID of the ticket before position */
+		private int lastId;
+		/** Last archived ID passed */
+		private int lastArchived = Integer.MIN_VALUE;
+
+		/**
+		 * Constructor for DisplayCursor
+		 * 
+		 * @param filter Tickets to display, or null for every ticket
+		 */
+		DisplayCursor(Predicate<Ticket> filter) {
+			this.filter = filter;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super String[]> action) {
+			String[] row;
+			locks.lockRead();
+			try {
+				row = next();
+			} finally {
+				locks.unlockRead();
+			}
+			if (row == null) {
+				return false;
+			}
+			action.accept(row);
+			return true;
+		}
+
+		@Override
+		public Spliterator<String[]> trySplit() {
+			return null;
+		}
+
+		@Override
+		public long estimateSize() {
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | NONNULL;
+		}
+
+		/**
+		 * Returns the display row of the next ticket that matches the filter.
+		 * Must be called holding the read lock of the ticket list.
+		 * 
+		 * @return display row, or null after the last ticket
+		 */
+		String[] next() {
+			while (true) {
+				int archivedId = filter == null ? nextArchivedId() : -1;
+				if (archivedId >= 0) {
+					// The archive reads the row from its columns
+					lastArchived = archivedId;
+					return archive.getDisplayRow(archivedId);
+				}
+				Ticket ticket = nextTicket();
+				if (ticket == null) {
+					return null;
+				}
+				String[] row = toDisplayRow(ticket, filter);
+				if (row != null) {
+					return row;
+				}
+			}
+		}
+
+		/**
+		 * Passes the next ticket that matches the filter. Without a filter no row
+		 * is read. Must be called holding the read lock of the ticket list.
+		 * 
+		 * @return false after the last ticket
+		 */
+		boolean skip() {
+			if (filter != null) {
+				return next() != null;
+			}
+			int archivedId = nextArchivedId();
+			if (archivedId >= 0) {
+				lastArchived = archivedId;
+				return true;
+			}
+			if (position == list.size()) {
+				return false;
+			}
+			lastId = list.get(position++).getTicketId();
+			return true;
+		}
+
+		/**
+		 * Returns the next ticket in display order, built anew if it is archived.
+		 * Must be called holding the read lock of the ticket list.
+		 * 
+		 * @return next Ticket, or null after the last ticket
+		 */
+		Ticket nextTicket() {
+			int archivedId = nextArchivedId();
+			if (archivedId >= 0) {
+				lastArchived = archivedId;
+				return archive.get(archivedId);
+			}
+			if (position == list.size()) {
+				return null;
+			}
+			Ticket ticket = list.get(position++);
+			lastId = ticket.getTicketId();
+			return ticket;
+		}
+
+		/**
+		 * Returns the next archived ID if it comes before the next ticket of the
+		 * list. Binds the list on first use and checks that it has not changed
+		 * before the position.
+		 * 
+		 * @return next archived ID, or -1 if the next ticket is in the list
+		 */
+		private int nextArchivedId() {
+			if (list == null) {
+				list = tickets;
+			} else if (list != tickets
+					|| position > 0 && (position > list.size() || list.get(position - 1).getTicketId() != lastId)) {
+				throw new ConcurrentModificationException();
+			}
+			int archivedId = archive.nextId(lastArchived);
+			if (archivedId >= 0 && (position == list.size() || archivedId < list.get(position).getTicketId())) {
+				return archivedId;
+			}
+			return -1;
+		}
 	}
 
 }
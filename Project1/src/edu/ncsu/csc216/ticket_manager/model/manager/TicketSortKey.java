@@ -0,0 +1,51 @@
+package edu.ncsu.csc216.ticket_manager.model.manager;
+
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+
+/**
+ * Columns of the ticket display that a page of rows can be sorted by. Types,
+ * categories and priorities sort in the order of their enums, states in the
+ * order of the state machine, and subjects alphabetically. Rows with the same
+ * value are sorted by ticket ID.
+ *
+ * @author Benson Liu
+ *
+ */
+public enum TicketSortKey {
+	/** Sort by ticket ID */
+	ID,
+	/** Sort by ticket type */
+	TYPE,
+	/** Sort by state */
+	STATE,
+	/** Sort by subject */
+	SUBJECT,
+	/** Sort by category */
+	CATEGORY,
+	/** Sort by priority */
+	PRIORITY;
+
+	/**
+	 * Returns the value a ticket is sorted by, or 0 when the ticket is sorted by
+	 * subject
+	 *
+	 * @param ticket Ticket to sort
+	 * @return rank of the ticket
+	 */
+	int rank(Ticket ticket) {
+		switch (this) {
+		case ID:
+			return ticket.getTicketId();
+		case TYPE:
+			return ticket.getTicketType().ordinal();
+		case STATE:
+			return ticket.getStateIndex();
+		case CATEGORY:
+			return ticket.getTicketCategory().ordinal();
+		case PRIORITY:
+			return ticket.getTicketPriority().ordinal();
+		default:
+			return 0;
+		}
+	}
+}
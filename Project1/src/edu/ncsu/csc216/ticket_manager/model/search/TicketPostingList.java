@@ -0,0 +1,347 @@
+package edu.ncsu.csc216.ticket_manager.model.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ticket IDs that contain one term, in ascending order. The IDs are stored as
+ * the differences between neighbours, each written in as few bytes as it needs
+ * (seven bits per byte), so a list of close IDs takes one or two bytes per ID.
+ * Every 128 IDs start a block whose first ID and offset are kept uncompressed,
+ * so an ID is found by a binary search over the blocks and a scan of one block.
+ *
+ * New tickets have the highest IDs, so their IDs are appended to the end of
+ * the encoded bytes. IDs added below the end, and IDs removed from the encoded
+ * bytes, are kept in two small sorted arrays and merged in when the list is
+ * read; once these hold more than a sixteenth of the list it is encoded anew.
+ *
+ * The list is not thread safe.
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketPostingList {
+
+	/** Number of IDs in each block */
+	private static final int BLOCK_SIZE = 128;
+	/** Smallest number of pending changes that triggers encoding the list anew */
+	private static final int MIN_PENDING = 16;
+	/** Pending changes of a list that has none, shared by every list */
+	private static final int[] NONE = new int[0];
+
+	/** IDs as variable-length differences */
+	private byte[] data = new byte[4];
+	/** Number of bytes of data used */
+	private int length;
+	/** Number of IDs in data, including removed ones */
+	private int count;
+	/** Last ID in data, -1 if data is empty */
+	private int lastId = -1;
+	/** ID before the first ID of each block, -1 for the first block */
+	private int[] blockBase = new int[1];
+	/** Offset in data of each block */
+	private int[] blockOffset = new int[1];
+	/** Number of blocks */
+	private int blocks;
+	/** IDs below lastId that are not in data, sorted */
+	private int[] added = NONE;
+	/** Number of IDs in added */
+	private int addedCount;
+	/** IDs in data that were removed, sorted */
+	private int[] removed = NONE;
+	/** Number of IDs in removed */
+	private int removedCount;
+
+	/**
+	 * Adds an ID to the list
+	 *
+	 * @param id ID of ticket, not negative
+	 * @return true if the ID was not in the list
+	 */
+	public boolean add(int id) {
+		if (id > lastId) {
+			append(id);
+			return true;
+		}
+		if (inData(id)) {
+			int i = Arrays.binarySearch(removed, 0, removedCount, id);
+			if (i < 0) {
+				return false;
+			}
+			removedCount = delete(removed, removedCount, i);
+			return true;
+		}
+		int i = Arrays.binarySearch(added, 0, addedCount, id);
+		if (i >= 0) {
+			return false;
+		}
+		added = insert(added, addedCount++, -i - 1, id);
+		compactIfNeeded();
+		return true;
+	}
+
+	/**
+	 * Removes an ID from the list
+	 *
+	 * @param id ID of ticket
+	 * @return true if the ID was in the list
+	 */
+	public boolean remove(int id) {
+		int i = Arrays.binarySearch(added, 0, addedCount, id);
+		if (i >= 0) {
+			addedCount = delete(added, addedCount, i);
+			return true;
+		}
+		if (!inData(id)) {
+			return false;
+		}
+		i = Arrays.binarySearch(removed, 0, removedCount, id);
+		if (i >= 0) {
+			return false;
+		}
+		removed = insert(removed, removedCount++, -i - 1, id);
+		compactIfNeeded();
+		return true;
+	}
+
+	/**
+	 * Returns whether an ID is in the list
+	 *
+	 * @param id ID of ticket
+	 * @return true if the ID is in the list
+	 */
+	public boolean contains(int id) {
+		if (Arrays.binarySearch(added, 0, addedCount, id) >= 0) {
+			return true;
+		}
+		return inData(id) && Arrays.binarySearch(removed, 0, removedCount, id) < 0;
+	}
+
+	/**
+	 * Returns the number of IDs in the list
+	 *
+	 * @return number of IDs
+	 */
+	public int size() {
+		return count - removedCount + addedCount;
+	}
+
+	/**
+	 * Returns the number of bytes the encoded IDs take
+	 *
+	 * @return bytes of encoded IDs
+	 */
+	public int getEncodedSize() {
+		return length;
+	}
+
+	/**
+	 * Returns the IDs in the list
+	 *
+	 * @return IDs in ascending order
+	 */
+	public int[] toArray() {
+		int[] ids = new int[size()];
+		int n = 0;
+		int a = 0;
+		int r = 0;
+		int id = -1;
+		int offset = 0;
+		for (int i = 0; i < count; i++) {
+			int delta = 0;
+			for (int shift = 0;; shift += 7) {
+				byte b = data[offset++];
+				delta |= (b & 0x7F) << shift;
+				if (b >= 0) {
+					break;
+				}
+			}
+			id += delta;
+			while (a < addedCount && added[a] < id) {
+				ids[n++] = added[a++];
+			}
+			if (r < removedCount && removed[r] == id) {
+				r++;
+			} else {
+				ids[n++] = id;
+			}
+		}
+		while (a < addedCount) {
+			ids[n++] = added[a++];
+		}
+		return ids;
+	}
+
+	/**
+	 * Appends an ID above lastId to data, starting a block every BLOCK_SIZE IDs
+	 *
+	 * @param id ID of ticket
+	 */
+	private void append(int id) {
+		if (count % BLOCK_SIZE == 0) {
+			if (blocks == blockBase.length) {
+				blockBase = Arrays.copyOf(blockBase, blocks * 2);
+				blockOffset = Arrays.copyOf(blockOffset, blocks * 2);
+			}
+			blockBase[blocks] = lastId;
+			blockOffset[blocks] = length;
+			blocks++;
+		}
+		if (length + 5 > data.length) {
+			data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+		}
+		int delta = id - lastId;
+		while ((delta & ~0x7F) != 0) {
+			data[length++] = (byte) (delta & 0x7F | 0x80);
+			delta >>>= 7;
+		}
+		data[length++] = (byte) delta;
+		lastId = id;
+		count++;
+	}
+
+	/**
+	 * Returns whether an ID is encoded in data, whether or not it was removed
+	 *
+	 * @param id ID of ticket
+	 * @return true if the ID is in data
+	 */
+	private boolean inData(int id) {
+		if (id > lastId || id < 0) {
+			return false;
+		}
+		// Last block whose IDs start above its base below id
+		int low = 0;
+		int high = blocks - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (blockBase[mid] < id) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		int offset = blockOffset[low];
+		int end = low + 1 < blocks ? blockOffset[low + 1] : length;
+		int value = blockBase[low];
+		while (offset < end) {
+			int delta = 0;
+			for (int shift = 0;; shift += 7) {
+				byte b = data[offset++];
+				delta |= (b & 0x7F) << shift;
+				if (b >= 0) {
+					break;
+				}
+			}
+			value += delta;
+			if (value >= id) {
+				return value == id;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Encodes the list anew once the pending additions and removals are more
+	 * than a sixteenth of it
+	 */
+	private void compactIfNeeded() {
+		if (addedCount + removedCount <= Math.max(MIN_PENDING, count >>> 4)) {
+			return;
+		}
+		int[] ids = toArray();
+		data = new byte[Math.max(8, length)];
+		length = 0;
+		count = 0;
+		lastId = -1;
+		blocks = 0;
+		addedCount = 0;
+		removedCount = 0;
+		for (int i = 0; i < ids.length; i++) {
+			append(ids[i]);
+		}
+	}
+
+	/**
+	 * Returns the IDs that are in all of some lists. Starts from the shortest
+	 * list and probes the others through their blocks while the candidates are
+	 * few, or merges when they are not.
+	 *
+	 * @param lists posting lists, at least one
+	 * @return IDs in ascending order
+	 */
+	static int[] intersect(List<TicketPostingList> lists) {
+		lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+		int[] ids = lists.get(0).toArray();
+		for (int l = 1; l < lists.size() && ids.length > 0; l++) {
+			TicketPostingList list = lists.get(l);
+			if ((long) ids.length * 32 < list.size()) {
+				int n = 0;
+				for (int i = 0; i < ids.length; i++) {
+					if (list.contains(ids[i])) {
+						ids[n++] = ids[i];
+					}
+				}
+				ids = Arrays.copyOf(ids, n);
+			} else {
+				ids = intersect(ids, list.toArray());
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Returns the IDs in both of two sorted arrays
+	 *
+	 * @param a sorted IDs
+	 * @param b sorted IDs
+	 * @return IDs in both, sorted
+	 */
+	private static int[] intersect(int[] a, int[] b) {
+		int[] result = new int[Math.min(a.length, b.length)];
+		int n = 0;
+		int i = 0;
+		int j = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				result[n++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, n);
+	}
+
+	/**
+	 * Inserts a value into a sorted array, growing it if needed
+	 *
+	 * @param array array to insert into
+	 * @param size  number of values used
+	 * @param index position of the new value
+	 * @param value value to insert
+	 * @return array holding the values
+	 */
+	private static int[] insert(int[] array, int size, int index, int value) {
+		int[] result = size == array.length ? Arrays.copyOf(array, Math.max(4, size * 2)) : array;
+		System.arraycopy(result, index, result, index + 1, size - index);
+		result[index] = value;
+		return result;
+	}
+
+	/**
+	 * Deletes a value from a sorted array
+	 *
+	 * @param array array to delete from
+	 * @param size  number of values used
+	 * @param index position of the value
+	 * @return new number of values used
+	 */
+	private static int delete(int[] array, int size, int index) {
+		System.arraycopy(array, index + 1, array, index, size - index - 1);
+		return size - 1;
+	}
+}
@@ -0,0 +1,347 @@
+package edu.ncsu.csc216.ticket_manager.model.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+
+/**
+ * Inverted index from the terms of ticket subjects, callers, owners and notes
+ * to the IDs of the tickets that contain them. Each term has a
+ * TicketPostingList, so a keyword is looked up without visiting the tickets.
+ *
+ * Queries are made of words, phrases in double quotes, and the operator OR.
+ * Words and phrases next to each other must all match; OR separates groups of
+ * which any may match, so the query printer jam OR "paper tray" finds tickets
+ * with both printer and jam, or with the phrase paper tray. The index keeps no
+ * positions: a phrase is looked up as all of its terms, and the tickets found
+ * are then checked for the terms next to each other in one field.
+ *
+ * Notes are only ever appended, so the index is kept up to date by update()
+ * after each command without indexing the ticket again. The methods that
+ * change or read the posting lists are synchronized, so commands on different
+ * tickets can update the index from several threads.
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketSearchIndex {
+
+	/** Operator between groups of which any may match */
+	private static final String OR = "OR";
+
+	/** Posting lists by term */
+	private HashMap<String, TicketPostingList> postings = new HashMap<String, TicketPostingList>();
+
+	/**
+	 * Adds every term of a ticket
+	 *
+	 * @param ticket Ticket to add
+	 */
+	public synchronized void add(Ticket ticket) {
+		for (String term : terms(fields(ticket))) {
+			postings(term).add(ticket.getTicketId());
+		}
+	}
+
+	/**
+	 * Removes every term of a ticket. The Ticket must have the fields it had
+	 * when it was last added or updated.
+	 *
+	 * @param ticket Ticket to remove
+	 */
+	public synchronized void remove(Ticket ticket) {
+		for (String term : terms(fields(ticket))) {
+			removeTerm(term, ticket.getTicketId());
+		}
+	}
+
+	/**
+	 * Brings a ticket up to date after a command. The notes appended since are
+	 * added, and if the owner changed, the terms of the old owner that are not
+	 * elsewhere in the ticket are removed and those of the new owner added.
+	 *
+	 * @param ticket    Ticket after the command
+	 * @param oldOwner  owner before the command
+	 * @param noteCount number of notes before the command
+	 */
+	public synchronized void update(Ticket ticket, String oldOwner, int noteCount) {
+		int id = ticket.getTicketId();
+		for (int i = noteCount; i < ticket.getNoteCount(); i++) {
+			TicketTokenizer.forEachToken(ticket.getNote(i), term -> postings(term).add(id));
+		}
+		String owner = ticket.getOwner();
+		if (owner == null ? oldOwner == null : owner.equals(oldOwner)) {
+			return;
+		}
+		HashSet<String> kept = terms(fields(ticket));
+		for (String term : TicketTokenizer.tokenize(oldOwner)) {
+			if (!kept.contains(term)) {
+				removeTerm(term, id);
+			}
+		}
+		TicketTokenizer.forEachToken(owner, term -> postings(term).add(id));
+	}
+
+	/**
+	 * Removes every ticket from the index
+	 */
+	public synchronized void clear() {
+		postings.clear();
+	}
+
+	/**
+	 * Returns the number of distinct terms in the index
+	 *
+	 * @return number of terms
+	 */
+	public synchronized int getTermCount() {
+		return postings.size();
+	}
+
+	/**
+	 * Returns the IDs of the tickets that contain a term
+	 *
+	 * @param term term, as returned by TicketTokenizer
+	 * @return IDs in ascending order
+	 */
+	public synchronized int[] getIds(String term) {
+		TicketPostingList list = postings.get(term);
+		return list == null ? new int[0] : list.toArray();
+	}
+
+	/**
+	 * Returns the IDs of the tickets that match a query. Phrases are checked
+	 * against the fields returned for each candidate ID, which may be null for a
+	 * ticket that no longer exists. Throws an IllegalArgumentException if the
+	 * query is null.
+	 *
+	 * @param query  words, "phrases" and OR
+	 * @param fields returns the fields of a ticket, as by fields(Ticket)
+	 * @return IDs in ascending order
+	 */
+	public int[] search(String query, IntFunction<String[]> fields) {
+		if (query == null) {
+			throw new IllegalArgumentException("Query cannot be null.");
+		}
+		int[] result = new int[0];
+		for (List<List<String>> group : parse(query)) {
+			ArrayList<String> all = new ArrayList<String>();
+			ArrayList<List<String>> phrases = new ArrayList<List<String>>();
+			for (List<String> terms : group) {
+				all.addAll(terms);
+				if (terms.size() > 1) {
+					phrases.add(terms);
+				}
+			}
+			if (all.isEmpty()) {
+				continue;
+			}
+			int[] ids = matchAll(all);
+			if (!phrases.isEmpty()) {
+				// Checked outside the lock, the fields are read with the ticket locked
+				ids = filterPhrases(ids, phrases, fields);
+			}
+			result = union(result, ids);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the searchable fields of a ticket: subject, caller, owner and each
+	 * note
+	 *
+	 * @param ticket Ticket to read
+	 * @return fields, some of which may be null
+	 */
+	public static String[] fields(Ticket ticket) {
+		String[] fields = new String[3 + ticket.getNoteCount()];
+		fields[0] = ticket.getSubject();
+		fields[1] = ticket.getCaller();
+		fields[2] = ticket.getOwner();
+		for (int i = 3; i < fields.length; i++) {
+			fields[i] = ticket.getNote(i - 3);
+		}
+		return fields;
+	}
+
+	/**
+	 * Returns the IDs that are in the posting lists of all terms
+	 *
+	 * @param terms terms to match
+	 * @return IDs in ascending order
+	 */
+	private synchronized int[] matchAll(List<String> terms) {
+		ArrayList<TicketPostingList> lists = new ArrayList<TicketPostingList>();
+		for (String term : new HashSet<String>(terms)) {
+			TicketPostingList list = postings.get(term);
+			if (list == null) {
+				return new int[0];
+			}
+			lists.add(list);
+		}
+		return TicketPostingList.intersect(lists);
+	}
+
+	/**
+	 * Returns the IDs whose fields contain every phrase
+	 *
+	 * @param ids     candidate IDs
+	 * @param phrases phrases to find
+	 * @param fields  returns the fields of a ticket
+	 * @return matching IDs in the order of ids
+	 */
+	private static int[] filterPhrases(int[] ids, List<List<String>> phrases, IntFunction<String[]> fields) {
+		int n = 0;
+		int[] result = new int[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			String[] texts = fields.apply(ids[i]);
+			if (texts == null) {
+				continue;
+			}
+			boolean all = true;
+			for (int p = 0; p < phrases.size() && all; p++) {
+				all = containsPhrase(texts, phrases.get(p));
+			}
+			if (all) {
+				result[n++] = ids[i];
+			}
+		}
+		return Arrays.copyOf(result, n);
+	}
+
+	/**
+	 * Returns whether the terms of a phrase are next to each other in a field
+	 *
+	 * @param texts  fields of a ticket
+	 * @param phrase terms of the phrase
+	 * @return true if one field contains the phrase
+	 */
+	private static boolean containsPhrase(String[] texts, List<String> phrase) {
+		for (String text : texts) {
+			List<String> terms = TicketTokenizer.tokenize(text);
+			if (Collections.indexOfSubList(terms, phrase) >= 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Splits a query into groups separated by OR, each a list of words and
+	 * phrases given as their terms
+	 *
+	 * @param query query text
+	 * @return groups of terms
+	 */
+	private static List<List<List<String>>> parse(String query) {
+		ArrayList<List<List<String>>> groups = new ArrayList<List<List<String>>>();
+		ArrayList<List<String>> group = new ArrayList<List<String>>();
+		groups.add(group);
+		int i = 0;
+		while (i < query.length()) {
+			char c = query.charAt(i);
+			if (Character.isWhitespace(c)) {
+				i++;
+			} else if (c == '"') {
+				int end = query.indexOf('"', i + 1);
+				if (end < 0) {
+					end = query.length();
+				}
+				group.add(TicketTokenizer.tokenize(query.substring(i + 1, end)));
+				i = end + 1;
+			} else {
+				int end = i;
+				while (end < query.length() && !Character.isWhitespace(query.charAt(end))
+						&& query.charAt(end) != '"') {
+					end++;
+				}
+				String word = query.substring(i, end);
+				if (OR.equals(word)) {
+					group = new ArrayList<List<String>>();
+					groups.add(group);
+				} else {
+					group.add(TicketTokenizer.tokenize(word));
+				}
+				i = end;
+			}
+		}
+		return groups;
+	}
+
+	/**
+	 * Returns the distinct terms of some fields
+	 *
+	 * @param fields texts to split
+	 * @return distinct terms
+	 */
+	private static HashSet<String> terms(String[] fields) {
+		HashSet<String> terms = new HashSet<String>();
+		for (String field : fields) {
+			TicketTokenizer.forEachToken(field, terms::add);
+		}
+		return terms;
+	}
+
+	/**
+	 * Returns the posting list of a term, creating it if needed
+	 *
+	 * @param term term
+	 * @return posting list of the term
+	 */
+	private TicketPostingList postings(String term) {
+		TicketPostingList list = postings.get(term);
+		if (list == null) {
+			list = new TicketPostingList();
+			postings.put(term, list);
+		}
+		return list;
+	}
+
+	/**
+	 * Removes an ID from the posting list of a term, dropping the list once
+	 * empty
+	 *
+	 * @param term term
+	 * @param id   ID of ticket
+	 */
+	private void removeTerm(String term, int id) {
+		TicketPostingList list = postings.get(term);
+		if (list != null && list.remove(id) && list.size() == 0) {
+			postings.remove(term);
+		}
+	}
+
+	/**
+	 * Returns the IDs in either of two sorted arrays
+	 *
+	 * @param a sorted IDs
+	 * @param b sorted IDs
+	 * @return IDs in either, sorted
+	 */
+	private static int[] union(int[] a, int[] b) {
+		if (a.length == 0) {
+			return b;
+		}
+		int[] result = new int[a.length + b.length];
+		int n = 0;
+		int i = 0;
+		int j = 0;
+		while (i < a.length || j < b.length) {
+			if (j == b.length || i < a.length && a[i] < b[j]) {
+				result[n++] = a[i++];
+			} else if (i == a.length || b[j] < a[i]) {
+				result[n++] = b[j++];
+			} else {
+				result[n++] = a[i++];
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, n);
+	}
+}
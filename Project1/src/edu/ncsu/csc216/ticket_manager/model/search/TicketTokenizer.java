@@ -0,0 +1,62 @@
+package edu.ncsu.csc216.ticket_manager.model.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Splits ticket text into search terms. A term is a run of letters and digits,
+ * lowercased; everything else separates terms. The same tokenizer is used for
+ * indexing and for queries, so "E-mail" in a subject is found by the query
+ * "e mail" or the phrase "e-mail".
+ *
+ * @author Benson Liu
+ *
+ */
+public final class TicketTokenizer {
+
+	/**
+	 * Constructor for TicketTokenizer. The tokenizer is only used through its
+	 * static methods.
+	 */
+	private TicketTokenizer() {
+	}
+
+	/**
+	 * Returns the terms of a text in order
+	 *
+	 * @param text text to split, may be null
+	 * @return terms, empty if the text has none
+	 */
+	public static List<String> tokenize(String text) {
+		ArrayList<String> terms = new ArrayList<String>();
+		forEachToken(text, terms::add);
+		return terms;
+	}
+
+	/**
+	 * Passes each term of a text to an action, in order, without building a
+	 * list
+	 *
+	 * @param text   text to split, may be null
+	 * @param action called with each term
+	 */
+	public static void forEachToken(String text, Consumer<String> action) {
+		if (text == null) {
+			return;
+		}
+		StringBuilder term = new StringBuilder();
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				term.append(Character.toLowerCase(c));
+			} else if (term.length() > 0) {
+				action.accept(term.toString());
+				term.setLength(0);
+			}
+		}
+		if (term.length() > 0) {
+			action.accept(term.toString());
+		}
+	}
+}
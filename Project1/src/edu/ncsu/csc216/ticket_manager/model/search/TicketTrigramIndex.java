@@ -0,0 +1,343 @@
+package edu.ncsu.csc216.ticket_manager.model.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+
+/**
+ * Index of every run of one, two and three characters in ticket subjects and
+ * callers, ignoring case, to the IDs of the tickets that contain it. Text of up
+ * to three characters is a single lookup. Longer text is looked up as all of
+ * its runs of three characters, and the tickets found are then checked for the
+ * whole text in their subject or caller, so finding a substring does not visit
+ * every ticket.
+ *
+ * Each run is packed with its length into a long, and the posting lists are
+ * kept in an open-addressing table by that key, so indexing a ticket does not
+ * box a key for each of its runs.
+ *
+ * The subject and caller of a ticket never change, so the index only has to
+ * follow tickets being added and deleted. The methods that change or read the
+ * posting lists are synchronized.
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketTrigramIndex {
+
+	/** Longest run of characters that is indexed */
+	private static final int GRAM = 3;
+	/** Number of slots of an empty table, a power of two */
+	private static final int INITIAL_SLOTS = 1024;
+
+	/** Key of each slot as returned by key(), 0 for an empty slot */
+	private long[] keys = new long[INITIAL_SLOTS];
+	/** Posting list of each slot */
+	private TicketPostingList[] lists = new TicketPostingList[INITIAL_SLOTS];
+	/** Number of slots used */
+	private int size;
+
+	/**
+	 * Adds the subject and caller of a ticket
+	 *
+	 * @param ticket Ticket to add
+	 */
+	public synchronized void add(Ticket ticket) {
+		int id = ticket.getTicketId();
+		for (long key : keys(fields(ticket))) {
+			int slot = slot(key);
+			if (keys[slot] == 0) {
+				keys[slot] = key;
+				lists[slot] = new TicketPostingList();
+				size++;
+			}
+			lists[slot].add(id);
+			if (size * 2 > keys.length) {
+				resize(keys.length * 2);
+			}
+		}
+	}
+
+	/**
+	 * Removes the subject and caller of a ticket
+	 *
+	 * @param ticket Ticket to remove
+	 */
+	public synchronized void remove(Ticket ticket) {
+		int id = ticket.getTicketId();
+		for (long key : keys(fields(ticket))) {
+			int slot = slot(key);
+			if (keys[slot] != 0 && lists[slot].remove(id) && lists[slot].size() == 0) {
+				delete(slot);
+			}
+		}
+	}
+
+	/**
+	 * Removes every ticket from the index
+	 */
+	public synchronized void clear() {
+		keys = new long[INITIAL_SLOTS];
+		lists = new TicketPostingList[INITIAL_SLOTS];
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of distinct runs of characters in the index
+	 *
+	 * @return number of runs
+	 */
+	public synchronized int getGramCount() {
+		return size;
+	}
+
+	/**
+	 * Returns the IDs of the tickets whose subject or caller contains a text,
+	 * ignoring case. Text longer than three characters is checked against the
+	 * fields returned for each candidate ID, which may be null for a ticket that
+	 * no longer exists. Throws an IllegalArgumentException if the text is null
+	 * or empty.
+	 *
+	 * @param text   text to find
+	 * @param fields returns the fields of a ticket, as by fields(Ticket)
+	 * @return IDs in ascending order
+	 */
+	public int[] find(String text, IntFunction<String[]> fields) {
+		if (text == null) {
+			throw new IllegalArgumentException("Text cannot be null.");
+		}
+		if (text.isEmpty()) {
+			throw new IllegalArgumentException("Text cannot be empty.");
+		}
+		String lower = toLowerCase(text);
+		if (lower.length() <= GRAM) {
+			return getIds(key(lower, 0, lower.length()));
+		}
+		int[] ids = matchAll(lower);
+		// Checked outside the lock, the fields are read with the ticket list locked
+		int n = 0;
+		for (int i = 0; i < ids.length; i++) {
+			String[] texts = fields.apply(ids[i]);
+			if (texts != null && contains(texts, lower)) {
+				ids[n++] = ids[i];
+			}
+		}
+		return Arrays.copyOf(ids, n);
+	}
+
+	/**
+	 * Returns the fields of a ticket that are indexed: subject and caller
+	 *
+	 * @param ticket Ticket to read
+	 * @return fields, some of which may be null
+	 */
+	public static String[] fields(Ticket ticket) {
+		return new String[] { ticket.getSubject(), ticket.getCaller() };
+	}
+
+	/**
+	 * Returns whether the subject or caller of a ticket contains a text,
+	 * ignoring case the same way as find(), so a ticket can be checked against a
+	 * text without looking it up in the index
+	 *
+	 * @param ticket Ticket to check
+	 * @param text   text to find
+	 * @return true if the subject or caller contains the text
+	 */
+	public static boolean contains(Ticket ticket, String text) {
+		return contains(fields(ticket), toLowerCase(text));
+	}
+
+	/**
+	 * Returns a text with each character in lower case, keeping its length, as
+	 * the index compares text
+	 *
+	 * @param text text to convert
+	 * @return text in lower case
+	 */
+	public static String toLowerCase(String text) {
+		char[] chars = text.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = Character.toLowerCase(chars[i]);
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Returns the IDs in the posting list of one key
+	 *
+	 * @param key key of a run of characters
+	 * @return IDs in ascending order
+	 */
+	private synchronized int[] getIds(long key) {
+		int slot = slot(key);
+		return keys[slot] == 0 ? new int[0] : lists[slot].toArray();
+	}
+
+	/**
+	 * Returns the IDs that are in the posting lists of every run of three
+	 * characters of a text
+	 *
+	 * @param lower text in lower case, longer than three characters
+	 * @return IDs in ascending order
+	 */
+	private synchronized int[] matchAll(String lower) {
+		ArrayList<TicketPostingList> found = new ArrayList<TicketPostingList>();
+		for (int i = 0; i + GRAM <= lower.length(); i++) {
+			int slot = slot(key(lower, i, GRAM));
+			if (keys[slot] == 0) {
+				return new int[0];
+			}
+			if (!found.contains(this.lists[slot])) {
+				found.add(this.lists[slot]);
+			}
+		}
+		return TicketPostingList.intersect(found);
+	}
+
+	/**
+	 * Returns the slot that holds a key, or the empty slot where it would go
+	 *
+	 * @param key key of a run of characters, not 0
+	 * @return index of the slot
+	 */
+	private int slot(long key) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (keys[slot] != 0 && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Empties a slot, moving later keys of the same probe sequence back so
+	 * that each stays reachable from its home slot
+	 *
+	 * @param slot index of the slot to empty
+	 */
+	private void delete(int slot) {
+		int mask = keys.length - 1;
+		int gap = slot;
+		for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+			int home = hash(keys[next]) & mask;
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				lists[gap] = lists[next];
+				gap = next;
+			}
+		}
+		keys[gap] = 0;
+		lists[gap] = null;
+		size--;
+	}
+
+	/**
+	 * Moves every key into a table with a new number of slots
+	 *
+	 * @param slots number of slots, a power of two
+	 */
+	private void resize(int slots) {
+		long[] oldKeys = keys;
+		TicketPostingList[] oldLists = lists;
+		keys = new long[slots];
+		lists = new TicketPostingList[slots];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				int slot = slot(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				lists[slot] = oldLists[i];
+			}
+		}
+	}
+
+	/**
+	 * Spreads the bits of a key over the slots
+	 *
+	 * @param key key of a run of characters
+	 * @return hash of the key
+	 */
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * Returns whether any field contains a text, ignoring case
+	 *
+	 * @param texts fields of a ticket
+	 * @param lower text in lower case
+	 * @return true if one field contains the text
+	 */
+	private static boolean contains(String[] texts, String lower) {
+		for (String text : texts) {
+			if (text == null) {
+				continue;
+			}
+			for (int start = 0; start + lower.length() <= text.length(); start++) {
+				int i = 0;
+				while (i < lower.length() && Character.toLowerCase(text.charAt(start + i)) == lower.charAt(i)) {
+					i++;
+				}
+				if (i == lower.length()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the distinct keys of every run of one to three characters in some
+	 * fields
+	 *
+	 * @param fields texts to index
+	 * @return distinct keys, sorted
+	 */
+	private static long[] keys(String[] fields) {
+		int size = 0;
+		for (String field : fields) {
+			size += field == null ? 0 : field.length() * GRAM;
+		}
+		long[] keys = new long[size];
+		int n = 0;
+		for (String field : fields) {
+			if (field == null) {
+				continue;
+			}
+			String lower = toLowerCase(field);
+			for (int i = 0; i < lower.length(); i++) {
+				for (int length = 1; length <= GRAM && i + length <= lower.length(); length++) {
+					keys[n++] = key(lower, i, length);
+				}
+			}
+		}
+		Arrays.sort(keys, 0, n);
+		int distinct = 0;
+		for (int i = 0; i < n; i++) {
+			if (distinct == 0 || keys[i] != keys[distinct - 1]) {
+				keys[distinct++] = keys[i];
+			}
+		}
+		return Arrays.copyOf(keys, distinct);
+	}
+
+	/**
+	 * Returns the key of a run of characters: its length followed by each
+	 * character in 16 bits
+	 *
+	 * @param text   text holding the run
+	 * @param start  index of the first character
+	 * @param length number of characters, at most three
+	 * @return key of the run
+	 */
+	private static long key(String text, int start, int length) {
+		long key = length;
+		for (int i = start; i < start + length; i++) {
+			key = key << 16 | text.charAt(i);
+		}
+		return key;
+	}
+}
@@ -3,13 +3,16 @@
  */
 package edu.ncsu.csc216.ticket_manager.model.ticket;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import edu.ncsu.csc216.ticket_manager.model.command.Command;
 import edu.ncsu.csc216.ticket_manager.model.command.Command.CancellationCode;
-import edu.ncsu.csc216.ticket_manager.model.command.Command.CommandValue;
 import edu.ncsu.csc216.ticket_manager.model.command.Command.FeedbackCode;
 import edu.ncsu.csc216.ticket_manager.model.command.Command.ResolutionCode;
+import edu.ncsu.csc216.ticket_manager.model.ticket.TicketTransitions.Transition;
 
 /**
  * Class that creates the Ticket object, which contains all the info for a
@@ -54,8 +57,25 @@ public class Ticket {
 	public static final String CLOSED_NAME = "Closed";
 	/** Ticket state of Canceled */
 	public static final String CANCELED_NAME = "Canceled";
-	/** Keeps track of id value for next Ticket created */
-	private static int counter = 1;
+	/** Display names of the ticket types, by ordinal */
+	private static final String[] TYPE_NAMES = { TT_REQUEST, TT_INCIDENT };
+	/** Display names of the categories, by ordinal */
+	private static final String[] CATEGORY_NAMES = { C_INQUIRY, C_SOFTWARE, C_HARDWARE, C_NETWORK, C_DATABASE };
+	/** Display names of the priorities, by ordinal */
+	private static final String[] PRIORITY_NAMES = { P_URGENT, P_HIGH, P_MEDIUM, P_LOW };
+	/** Display names of the feedback codes, by ordinal */
+	private static final String[] FEEDBACK_NAMES = { Command.F_CALLER, Command.F_CHANGE, Command.F_PROVIDER };
+	/** Display names of the resolution codes, by ordinal */
+	private static final String[] RESOLUTION_NAMES = { Command.RC_COMPLETED, Command.RC_NOT_COMPLETED,
+		Command.RC_SOLVED, Command.RC_WORKAROUND, Command.RC_NOT_SOLVED, Command.RC_CALLER_CLOSED };
+	/** Display names of the cancellation codes, by ordinal */
+	private static final String[] CANCELLATION_NAMES = { Command.CC_DUPLICATE, Command.CC_INAPPROPRIATE };
+	/**
+	 * Keeps track of id value for next Ticket created. Atomic, so tickets can be
+	 * created and read on many threads without locking or handing out an ID
+	 * twice.
+	 */
+	private static final AtomicInteger counter = new AtomicInteger(1);
 	/** ID for a ticket */
 	private int ticketId;
 	/** Subject for a ticket */
@@ -65,7 +85,7 @@ public class Ticket {
 	/** owner assigned to investigate ticket */
 	private String owner;
 	/** Notes left for updating tickets */
-	private ArrayList<String> notes;
+	private TicketNotes notes;
 	/** One of five categories for a ticket */
 	private Category category;
 	/** One of four priorities for a ticket */
@@ -78,26 +98,14 @@ public class Ticket {
 	private ResolutionCode resolutionCode;
 	/** The cancellation code for a ticket */
 	private CancellationCode cancellationCode;
-	/** State of a ticket */
-	private TicketState state;
-	/** Ticket in the new state */
-	private NewState newState = new NewState();
-	/** Ticket in the working state */
-	private WorkingState workingState = new WorkingState();
-	/** Ticket in the feedback state */
-	private FeedbackState feedbackState = new FeedbackState();
-	/** Ticket in the resolved state */
-	private ResolvedState resolvedState = new ResolvedState();
-	/** Ticket in the closed state */
-	private ClosedState closedState = new ClosedState();
-	/** Ticket in the canceled state */
-	private CanceledState canceledState = new CanceledState();
+	/** State of a ticket, shared by every ticket in the same state */
+	private State state;
 
 	/**
 	 * Increments counter for ticket IDs so each ticket has a unique ID
 	 */
 	public static void incrementCounter() {
-		counter++;
+		counter.incrementAndGet();
 	}
 
 	/**
@@ -109,17 +117,28 @@ public class Ticket {
 		if (i < 1) {
 			throw new IllegalArgumentException("Ticket id must be a value greater than 0.");
 		}
-		counter = i;
+		counter.set(i);
 
 	}
 
+	/**
+	 * Moves the counter past a ticket ID read from a file, so the next new ticket
+	 * gets a greater ID. The counter never moves backwards, even when tickets are
+	 * read on several threads.
+	 * 
+	 * @param id ID of a ticket read from a file
+	 */
+	private static void raiseCounter(int id) {
+		counter.accumulateAndGet(id + 1, Math::max);
+	}
+
 	/**
 	 * One of two constructors for Ticket. Creates a Ticket when reading from a
 	 * ticket file. Creates a Ticket object with ticket ID, state, type, subject,
 	 * caller, category, priority, owner, code, and notes. An
 	 * IllegalArgumentException is thrown in the setter methods if the parameters
-	 * are not valid. If the incoming ID is greater than the current value in
-	 * Ticket.counter, the Ticket.counter is updated with Ticket.setCounter(id + 1)
+	 * are not valid. If the incoming ID is not less than the current value in
+	 * Ticket.counter, the Ticket.counter is raised to id + 1
 	 * 
 	 * @param id         ID of ticket
 	 * @param state      State of ticket
@@ -134,6 +153,26 @@ public class Ticket {
 	 */
 	public Ticket(int id, String state, String ticketType, String subject, String caller, String category,
 			String priority, String owner, String code, ArrayList<String> notes) {
+		this(id, state, ticketType, subject, caller, category, priority, owner, code, new TicketNotes(notes));
+	}
+
+	/**
+	 * Creates a Ticket when reading from a ticket file, like the constructor that
+	 * takes a list of notes, but with notes that may be loaded on first use
+	 * 
+	 * @param id         ID of ticket
+	 * @param state      State of ticket
+	 * @param ticketType Type of ticket
+	 * @param subject    Subject of ticket
+	 * @param caller     Caller of ticket
+	 * @param category   Category of ticket
+	 * @param priority   Priority of ticket
+	 * @param owner      Owner of ticket
+	 * @param code       Code  ticket
+	 * @param notes      Notes for ticket
+	 */
+	public Ticket(int id, String state, String ticketType, String subject, String caller, String category,
+			String priority, String owner, String code, TicketNotes notes) {
 		setTicketId(id);
 		setState(state);
 		setTicketType(ticketType);
@@ -142,9 +181,7 @@ public class Ticket {
 		setCategory(category);
 		setPriority(priority);
 		setOwner(owner);
-		if (id > counter) {
-			setCounter(id + 1);
-		}
+		raiseCounter(id);
 		if (code == null) {
 			this.feedbackCode = null;
 			this.resolutionCode = null;
@@ -168,7 +205,7 @@ public class Ticket {
 	 * type, subject, caller, category, priority, and notes. If any of the
 	 * parameters are null or the strings are empty, an IllegalArgumentException is
 	 * thrown. The ticketId is set to the value stored in the Ticket.counter field,
-	 * then counter is incremented in the Ticket.incrementCounter() method. The
+	 * and the counter is incremented in the same atomic step. The
 	 * owner field is initialized to an empty string, the other fields are
 	 * initialized to their parameter values.
 	 * 
@@ -188,22 +225,49 @@ public class Ticket {
 		if ("".equals(subject) || "".equals(caller) || "".equals(note)) {
 			throw new IllegalArgumentException("Invalid empty parameter");
 		}
-		ticketId = counter;
-		setCounter(ticketId);
+		ticketId = counter.getAndIncrement();
 		this.ticketType = ticketType;
 		this.subject = subject;
 		this.caller = caller;
 		this.category = category;
 		this.priority = priority;
 		owner = "";
-		state = newState;
-		ArrayList<String> n = new ArrayList<String>();
-		n.add(note);
-		this.notes = n;
-		incrementCounter();
+		state = State.NEW;
+		this.notes = new TicketNotes();
+		this.notes.add(note);
 
 	}
 
+	/**
+	 * Creates a copy of a ticket, keeping its ID without moving the counter
+	 * 
+	 * @param ticket Ticket to copy
+	 */
+	private Ticket(Ticket ticket) {
+		ticketId = ticket.ticketId;
+		subject = ticket.subject;
+		caller = ticket.caller;
+		owner = ticket.owner;
+		notes = ticket.notes.copy();
+		category = ticket.category;
+		priority = ticket.priority;
+		ticketType = ticket.ticketType;
+		feedbackCode = ticket.feedbackCode;
+		resolutionCode = ticket.resolutionCode;
+		cancellationCode = ticket.cancellationCode;
+		state = ticket.state;
+	}
+
+	/**
+	 * Returns a copy of the ticket as it is now, which later updates to this
+	 * ticket do not change. The copy shares the text of the ticket and its notes.
+	 * 
+	 * @return copy of the ticket
+	 */
+	public Ticket copy() {
+		return new Ticket(this);
+	}
+
 	/**
 	 * Returns unique ID for ticket
 	 * 
@@ -246,23 +310,7 @@ public class Ticket {
 	 * @return category for ticket
 	 */
 	public String getCategory() {
-		if (category == Category.DATABASE) {
-			return C_DATABASE;
-		}
-		if (category == Category.HARDWARE) {
-			return C_HARDWARE;
-		}
-		if (category == Category.INQUIRY) {
-			return C_INQUIRY;
-		}
-		if (category == Category.NETWORK) {
-			return C_NETWORK;
-		}
-		if (category == Category.SOFTWARE) {
-			return C_SOFTWARE;
-		}
-		return null;
-
+		return CATEGORY_NAMES[category.ordinal()];
 	}
 
 	/**
@@ -271,19 +319,7 @@ public class Ticket {
 	 * @return priority for ticket
 	 */
 	public String getPriority() {
-		if (priority == Priority.HIGH) {
-			return P_HIGH;
-		}
-		if (priority == Priority.LOW) {
-			return P_LOW;
-		}
-		if (priority == Priority.MEDIUM) {
-			return P_MEDIUM;
-		}
-		if (priority == Priority.URGENT) {
-			return P_URGENT;
-		}
-		return null;
+		return PRIORITY_NAMES[priority.ordinal()];
 	}
 
 	/**
@@ -292,16 +328,7 @@ public class Ticket {
 	 * @return feedback code for ticket
 	 */
 	public String getFeedbackCode() {
-		if (feedbackCode == Command.FeedbackCode.AWAITING_CALLER) {
-			return Command.F_CALLER;
-		}
-		if (feedbackCode == Command.FeedbackCode.AWAITING_CHANGE) {
-			return Command.F_CHANGE;
-		}
-		if (feedbackCode == Command.FeedbackCode.AWAITING_PROVIDER) {
-			return Command.F_PROVIDER;
-		}
-		return null;
+		return feedbackCode == null ? null : FEEDBACK_NAMES[feedbackCode.ordinal()];
 	}
 
 	/**
@@ -310,25 +337,7 @@ public class Ticket {
 	 * @return resolution code for ticket
 	 */
 	public String getResolutionCode() {
-		if (resolutionCode == Command.ResolutionCode.CALLER_CLOSED) {
-			return Command.RC_CALLER_CLOSED;
-		}
-		if (resolutionCode == Command.ResolutionCode.COMPLETED) {
-			return Command.RC_COMPLETED;
-		}
-		if (resolutionCode == Command.ResolutionCode.NOT_COMPLETED) {
-			return Command.RC_NOT_COMPLETED;
-		}
-		if (resolutionCode == Command.ResolutionCode.NOT_SOLVED) {
-			return Command.RC_NOT_SOLVED;
-		}
-		if (resolutionCode == Command.ResolutionCode.SOLVED) {
-			return Command.RC_SOLVED;
-		}
-		if (resolutionCode == Command.ResolutionCode.WORKAROUND) {
-			return Command.RC_WORKAROUND;
-		}
-		return null;
+		return resolutionCode == null ? null : RESOLUTION_NAMES[resolutionCode.ordinal()];
 	}
 
 	/**
@@ -337,13 +346,34 @@ public class Ticket {
 	 * @return cancellation code for ticket
 	 */
 	public String getCancellationCode() {
-		if (cancellationCode == Command.CancellationCode.DUPLICATE) {
-			return Command.CC_DUPLICATE;
-		}
-		if (cancellationCode == Command.CancellationCode.INAPPROPRIATE) {
-			return Command.CC_INAPPROPRIATE;
-		}
-		return null;
+		return cancellationCode == null ? null : CANCELLATION_NAMES[cancellationCode.ordinal()];
+	}
+
+	/**
+	 * Returns feedback code for ticket
+	 *
+	 * @return feedback code, or null if the ticket has none
+	 */
+	public FeedbackCode getTicketFeedbackCode() {
+		return feedbackCode;
+	}
+
+	/**
+	 * Returns resolution code for ticket
+	 *
+	 * @return resolution code, or null if the ticket has none
+	 */
+	public ResolutionCode getTicketResolutionCode() {
+		return resolutionCode;
+	}
+
+	/**
+	 * Returns cancellation code for ticket
+	 *
+	 * @return cancellation code, or null if the ticket has none
+	 */
+	public CancellationCode getTicketCancellationCode() {
+		return cancellationCode;
 	}
 
 	/**
@@ -352,25 +382,16 @@ public class Ticket {
 	 * @return state for ticket
 	 */
 	public String getState() {
-		if (state == newState) {
-			return NEW_NAME;
-		}
-		if (state == workingState) {
-			return WORKING_NAME;
-		}
-		if (state == feedbackState) {
-			return FEEDBACK_NAME;
-		}
-		if (state == resolvedState) {
-			return RESOLVED_NAME;
-		}
-		if (state == closedState) {
-			return CLOSED_NAME;
-		}
-		if (state == canceledState) {
-			return CANCELED_NAME;
-		}
-		return "";
+		return state.getStateName();
+	}
+
+	/**
+	 * Returns the index of the state of the ticket in TicketTransitions
+	 *
+	 * @return index of state, such as TicketTransitions.NEW
+	 */
+	public int getStateIndex() {
+		return state.ordinal();
 	}
 
 	/**
@@ -382,32 +403,81 @@ public class Ticket {
 		return ticketType;
 	}
 
+	/**
+	 * Returns category for ticket
+	 *
+	 * @return category for ticket
+	 */
+	public Category getTicketCategory() {
+		return category;
+	}
+
+	/**
+	 * Returns priority for ticket
+	 *
+	 * @return priority for ticket
+	 */
+	public Priority getTicketPriority() {
+		return priority;
+	}
+
 	/**
 	 * Returns ticket type for ticket in form of a String
 	 * 
 	 * @return ticket type in String
 	 */
 	public String getTicketTypeString() {
-		if (ticketType == TicketType.INCIDENT) {
-			return "Incident";
-		}
-		if (ticketType == TicketType.REQUEST) {
-			return "Request";
-		}
-		return null;
+		return TYPE_NAMES[ticketType.ordinal()];
+	}
+
+	/**
+	 * Returns the number of notes on the ticket. Every successful update adds one
+	 * note.
+	 *
+	 * @return number of notes
+	 */
+	public int getNoteCount() {
+		return notes.size();
+	}
+
+	/**
+	 * Returns one note of the ticket
+	 *
+	 * @param index index of the note, 0 for the first note
+	 * @return text of the note
+	 */
+	public String getNote(int index) {
+		return notes.get(index);
 	}
 
 	/**
-	 * Returns notes in a way suitable for printing to a .txt file or the GUI
+	 * Returns notes in a way suitable for printing to a .txt file or the GUI. The
+	 * text is cached and extended as notes are added, so asking again is cheap.
 	 * 
 	 * @return Correct String format for notes
 	 */
 	public String getNotes() {
-		String n = "";
-		for (int i = 0; i < notes.size(); i++) {
-			n = n + "-" + notes.get(i) + "\n";
-		}
-		return n;
+		return notes.render();
+	}
+
+	/**
+	 * Appends the notes in the format returned by getNotes() to a StringBuilder
+	 * 
+	 * @param sb StringBuilder the notes are appended to
+	 */
+	public void appendNotes(StringBuilder sb) {
+		notes.appendTo(sb);
+	}
+
+	/**
+	 * Writes the notes in the format returned by getNotes() to a Writer, without
+	 * building them as one String
+	 * 
+	 * @param out Writer the notes are written to
+	 * @throws IOException if the Writer cannot be written
+	 */
+	public void writeNotes(Writer out) throws IOException {
+		notes.writeTo(out);
 	}
 
 	/**
@@ -604,17 +674,17 @@ public class Ticket {
 	 */
 	private void setState(String state) {
 		if (state.equals(NEW_NAME) || "".equals(state)) {
-			this.state = newState;
+			this.state = State.NEW;
 		} else if (state.equals(WORKING_NAME)) {
-			this.state = workingState;
+			this.state = State.WORKING;
 		} else if (state.equals(FEEDBACK_NAME)) {
-			this.state = feedbackState;
+			this.state = State.FEEDBACK;
 		} else if (state.equals(RESOLVED_NAME)) {
-			this.state = resolvedState;
+			this.state = State.RESOLVED;
 		} else if (state.equals(CLOSED_NAME)) {
-			this.state = closedState;
+			this.state = State.CLOSED;
 		} else if (state.equals(CANCELED_NAME)) {
-			this.state = canceledState;
+			this.state = State.CANCELED;
 		} else {
 			throw new IllegalArgumentException("Invalid state");
 		}
@@ -626,9 +696,23 @@ public class Ticket {
 	 */
 	@Override
 	public String toString() {
-		return "*" + getTicketId() + "#" + getState() + "#" + getTicketTypeString() + "#" + getSubject() + "#"
-				+ getCaller() + "#" + getCategory() + "#" + getPriority() + "#" + getOwner() + "#" + getCode() + "\n"
-				+ getNotes();
+		StringBuilder sb = new StringBuilder();
+		appendTo(sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Appends the ticket in the format returned by toString() to a StringBuilder,
+	 * so many tickets can be written through one buffer
+	 * 
+	 * @param sb StringBuilder the ticket is appended to
+	 */
+	public void appendTo(StringBuilder sb) {
+		sb.append('*').append(getTicketId()).append('#').append(getState()).append('#').append(getTicketTypeString())
+				.append('#').append(getSubject()).append('#').append(getCaller()).append('#').append(getCategory())
+				.append('#').append(getPriority()).append('#').append(getOwner()).append('#').append(getCode())
+				.append('\n');
+		appendNotes(sb);
 	}
 
 	/**
@@ -637,12 +721,12 @@ public class Ticket {
 	 * @return code in String format
 	 */
 	public String getCode() {
-		if (this.getCancellationCode() != null) {
-			return getCancellationCode();
-		} else if (this.getFeedbackCode() != null) {
-			return getFeedbackCode();
-		} else if (this.getResolutionCode() != null) {
-			return getResolutionCode();
+		if (cancellationCode != null) {
+			return CANCELLATION_NAMES[cancellationCode.ordinal()];
+		} else if (feedbackCode != null) {
+			return FEEDBACK_NAMES[feedbackCode.ordinal()];
+		} else if (resolutionCode != null) {
+			return RESOLUTION_NAMES[resolutionCode.ordinal()];
 		} else {
 			return "";
 		}
@@ -656,124 +740,50 @@ public class Ticket {
 	 * @param command Command to update state.
 	 */
 	public void update(Command command) {
-		String s = state.getStateName();
-		switch (s) {
-		case NEW_NAME:
-			if (command.getCommand() == CommandValue.PROCESS) {
-				state.updateState(command);
-				setOwner(command.getOwnerId());
-				notes.add(command.getNote());
-			} else if (command.getCommand() == CommandValue.CANCEL) {
-				state.updateState(command);
-				setCancellationCode(convertCancelationCodeToString(command.getCancellationCode()));
-				notes.add(command.getNote());
-			} else {
-				throw new UnsupportedOperationException();
-			}
-
-			break;
-
-		case WORKING_NAME:
-			if (command.getCommand() == CommandValue.CANCEL) {
-				state.updateState(command);
-				setCancellationCode(convertCancelationCodeToString(command.getCancellationCode()));
-				notes.add(command.getNote());
-			} else if (command.getCommand() == CommandValue.FEEDBACK) {
-				state.updateState(command);
-				String f = convertFeedbackCodeToString(command.getFeedbackCode());
-				setFeedbackCode(f);
-				notes.add(command.getNote());
-			} else if (command.getCommand() == CommandValue.RESOLVE) {
-				if (getTicketTypeString().equals(TT_INCIDENT)
-						&& (command.getResolutionCode() == Command.ResolutionCode.COMPLETED
-								|| command.getResolutionCode() == Command.ResolutionCode.NOT_COMPLETED)) {
-					throw new UnsupportedOperationException();
-				}
-				if (getTicketTypeString().equals(TT_REQUEST)
-						&& (command.getResolutionCode() == Command.ResolutionCode.NOT_SOLVED
-								|| command.getResolutionCode() == Command.ResolutionCode.SOLVED
-								|| command.getResolutionCode() == Command.ResolutionCode.WORKAROUND)) {
-					throw new UnsupportedOperationException();
-				}
-				state.updateState(command);
-				setResolutionCode(convertResolutionCodeToString(command.getResolutionCode()));
-				notes.add(command.getNote());
-			} else {
-				throw new UnsupportedOperationException();
-			}
-			break;
-
-		case FEEDBACK_NAME:
-			if (command.getCommand() == CommandValue.REOPEN) {
-				state.updateState(command);
-				notes.add(command.getNote());
-				this.resolutionCode = null;
-				this.feedbackCode = null;
-			} else if (command.getCommand() == CommandValue.CANCEL) {
-				state.updateState(command);
-				notes.add(command.getNote());
-				setCancellationCode(convertCancelationCodeToString(command.getCancellationCode()));
-				this.feedbackCode = null;
-			} else if (command.getCommand() == CommandValue.RESOLVE) {
-				if (getTicketTypeString().equals(TT_INCIDENT)
-						&& (command.getResolutionCode() == Command.ResolutionCode.COMPLETED
-								|| command.getResolutionCode() == Command.ResolutionCode.NOT_COMPLETED)) {
-					throw new UnsupportedOperationException();
-				}
-				if (getTicketTypeString().equals(TT_REQUEST)
-						&& (command.getResolutionCode() == Command.ResolutionCode.NOT_SOLVED
-								|| command.getResolutionCode() == Command.ResolutionCode.SOLVED
-								|| command.getResolutionCode() == Command.ResolutionCode.WORKAROUND)) {
-					throw new UnsupportedOperationException();
-				}
-				state.updateState(command);
-				notes.add(command.getNote());
-				setResolutionCode(convertResolutionCodeToString(command.getResolutionCode()));
-				this.feedbackCode = null;
-			} else {
-				throw new UnsupportedOperationException();
-			}
-			break;
-		case RESOLVED_NAME:
-			if (command.getCommand() == CommandValue.CONFIRM) {
-				state.updateState(command);
-				notes.add(command.getNote());
-			} else if (command.getCommand() == CommandValue.FEEDBACK) {
-				state.updateState(command);
-				notes.add(command.getNote());
-				this.resolutionCode = null;
-				this.cancellationCode = null;
-				setFeedbackCode(convertFeedbackCodeToString(command.getFeedbackCode()));
-			} else if (command.getCommand() == CommandValue.REOPEN) {
-				state.updateState(command);
-				notes.add(command.getNote());
-				this.resolutionCode = null;
-				this.feedbackCode = null;
-				this.cancellationCode = null;
-			} else {
-				throw new UnsupportedOperationException();
-			}
-			break;
-		case CLOSED_NAME:
-			if (command.getCommand() == CommandValue.REOPEN) {
-				state.updateState(command);
-				notes.add(command.getNote());
-				this.resolutionCode = null;
-				this.feedbackCode = null;
-				this.cancellationCode = null;
-			} else {
-				throw new UnsupportedOperationException();
-			}
-			break;
-		case CANCELED_NAME:
-			if (command.getCommand() != null) {
-				throw new UnsupportedOperationException();
-			}
-			break;
+		state.updateState(command);
+		transition(state.ordinal(), command);
+	}
 
-		default:
-			break;
+	/**
+	 * Applies a command through the transition table. Looks up the transition
+	 * for the current state, command value and ticket type, moves to its target
+	 * state, applies its side effects to the owner and codes, and adds the note
+	 * of the command. Throws an UnsupportedOperationException if the table has no
+	 * transition or the command carries a resolution code the ticket type does
+	 * not allow.
+	 * 
+	 * @param from    index of the current state
+	 * @param command Command to apply
+	 */
+	private void transition(int from, Command command) {
+		Transition transition = TicketTransitions.getTransition(from, command.getCommand(), ticketType);
+		if (transition == null || !transition.allows(command)) {
+			throw new UnsupportedOperationException();
+		}
+		int effects = transition.getEffects();
+		if ((effects & TicketTransitions.CLEAR_FEEDBACK_CODE) != 0) {
+			feedbackCode = null;
+		}
+		if ((effects & TicketTransitions.CLEAR_RESOLUTION_CODE) != 0) {
+			resolutionCode = null;
+		}
+		if ((effects & TicketTransitions.CLEAR_CANCELLATION_CODE) != 0) {
+			cancellationCode = null;
 		}
+		if ((effects & TicketTransitions.SET_OWNER) != 0) {
+			setOwner(command.getOwnerId());
+		}
+		if ((effects & TicketTransitions.SET_FEEDBACK_CODE) != 0) {
+			feedbackCode = command.getFeedbackCode();
+		}
+		if ((effects & TicketTransitions.SET_RESOLUTION_CODE) != 0) {
+			resolutionCode = command.getResolutionCode();
+		}
+		if ((effects & TicketTransitions.SET_CANCELLATION_CODE) != 0) {
+			cancellationCode = command.getCancellationCode();
+		}
+		state = State.at(transition.getTargetState());
+		notes.add(command.getNote());
 	}
 
 	/**
@@ -783,16 +793,7 @@ public class Ticket {
 	 * @return code in form of String
 	 */
 	public String convertFeedbackCodeToString(FeedbackCode code) {
-		if (code == Command.FeedbackCode.AWAITING_CALLER) {
-			return Command.F_CALLER;
-		}
-		if (code == Command.FeedbackCode.AWAITING_CHANGE) {
-			return Command.F_CHANGE;
-		}
-		if (code == Command.FeedbackCode.AWAITING_PROVIDER) {
-			return Command.F_PROVIDER;
-		}
-		return "";
+		return code == null ? "" : FEEDBACK_NAMES[code.ordinal()];
 	}
 
 	/**
@@ -802,13 +803,7 @@ public class Ticket {
 	 * @return code in form of String
 	 */
 	public String convertCancelationCodeToString(CancellationCode code) {
-		if (code == Command.CancellationCode.DUPLICATE) {
-			return Command.CC_DUPLICATE;
-		}
-		if (code == Command.CancellationCode.INAPPROPRIATE) {
-			return Command.CC_INAPPROPRIATE;
-		}
-		return "";
+		return code == null ? "" : CANCELLATION_NAMES[code.ordinal()];
 	}
 
 	/**
@@ -818,152 +813,66 @@ public class Ticket {
 	 * @return code in form of String
 	 */
 	public String convertResolutionCodeToString(ResolutionCode code) {
-		if (code == Command.ResolutionCode.CALLER_CLOSED) {
-			return Command.RC_CALLER_CLOSED;
-		}
-		if (code == Command.ResolutionCode.COMPLETED) {
-			return Command.RC_COMPLETED;
-		}
-		if (code == Command.ResolutionCode.NOT_COMPLETED) {
-			return Command.RC_NOT_COMPLETED;
-		}
-		if (code == Command.ResolutionCode.NOT_SOLVED) {
-			return Command.RC_NOT_SOLVED;
-		}
-		if (code == Command.ResolutionCode.SOLVED) {
-			return Command.RC_SOLVED;
-		}
-		if (code == Command.ResolutionCode.WORKAROUND) {
-			return Command.RC_WORKAROUND;
-		}
-		return "";
-	}
-
-	/**
-	 * Actions for ticket in New state
-	 */
-	private class NewState implements TicketState {
-
-		@Override
-		public void updateState(Command command) {
-			if (command.getCommand() == CommandValue.PROCESS && state == newState) {
-				state = workingState;
-			}
-			if (command.getCommand() == CommandValue.CANCEL && state == newState) {
-				state = canceledState;
-			}
-
-		}
-
-		@Override
-		public String getStateName() {
-			return NEW_NAME;
+		return code == null ? "" : RESOLUTION_NAMES[code.ordinal()];
+	}
+
+	/**
+	 * States of a ticket. The states hold no data of their own, so every ticket
+	 * in a state shares the same constant and a ticket only stores one reference
+	 * for its state. Constants are in the order of the state indexes of
+	 * TicketTransitions. A state only checks whether it accepts a command at all;
+	 * the ticket then applies the transition for its type.
+	 */
+	private enum State implements TicketState {
+		/** New state */
+		NEW(NEW_NAME),
+		/** Working state */
+		WORKING(WORKING_NAME),
+		/** Feedback state */
+		FEEDBACK(FEEDBACK_NAME),
+		/** Resolved state */
+		RESOLVED(RESOLVED_NAME),
+		/** Closed state */
+		CLOSED(CLOSED_NAME),
+		/** Canceled state */
+		CANCELED(CANCELED_NAME);
+
+		/** States by index */
+		private static final State[] STATES = values();
+
+		/** Name of the state */
+		private final String stateName;
+
+		/**
+		 * Constructor for State
+		 * 
+		 * @param stateName name of the state
+		 */
+		State(String stateName) {
+			this.stateName = stateName;
+		}
+
+		/**
+		 * Returns the state with an index of TicketTransitions
+		 * 
+		 * @param index index of state
+		 * @return state
+		 */
+		static State at(int index) {
+			return STATES[index];
 		}
 
-	}
-
-	/**
-	 * Actions for ticket in Working state
-	 */
-	private class WorkingState implements TicketState {
-
 		@Override
 		public void updateState(Command command) {
-			if (state.equals(workingState) && command.getCommand() == CommandValue.CANCEL) {
-				state = canceledState;
-			} else if (state.equals(workingState) && command.getCommand() == CommandValue.FEEDBACK) {
-				state = feedbackState;
-			} else if (state.equals(workingState) && command.getCommand() == CommandValue.RESOLVE) {
-				state = resolvedState;
-			}
-
-		}
-
-		@Override
-		public String getStateName() {
-			return WORKING_NAME;
-		}
-	}
-
-	/**
-	 * Actions for ticket in Feedback state
-	 */
-	private class FeedbackState implements TicketState {
-
-		@Override
-		public void updateState(Command command) {
-			if (state.equals(feedbackState) && command.getCommand() == CommandValue.REOPEN) {
-				state = workingState;
-			} else if (state.equals(feedbackState) && command.getCommand() == CommandValue.RESOLVE) {
-				state = resolvedState;
-			} else if (state.equals(feedbackState) && command.getCommand() == CommandValue.CANCEL) {
-				state = canceledState;
-			}
-		}
-
-		@Override
-		public String getStateName() {
-			return FEEDBACK_NAME;
-		}
-
-	}
-
-	/**
-	 * Actions for ticket in Resolved state
-	 */
-	private class ResolvedState implements TicketState {
-
-		@Override
-		public void updateState(Command command) {
-			if (command.getCommand() == CommandValue.CONFIRM) {
-				state = closedState;
-			} else if (command.getCommand() == CommandValue.FEEDBACK) {
-				state = feedbackState;
-			} else if (command.getCommand() == CommandValue.REOPEN) {
-				state = workingState;
-			}
-
-		}
-
-		@Override
-		public String getStateName() {
-			return RESOLVED_NAME;
-		}
-
-	}
-
-	/**
-	 * Actions for ticket in Closed state
-	 */
-	private class ClosedState implements TicketState {
-
-		@Override
-		public void updateState(Command command) {
-			if (command.getCommand() == CommandValue.REOPEN) {
-				state = workingState;
+			if (TicketTransitions.getTransition(ordinal(), command.getCommand(), TicketType.REQUEST) == null
+					&& TicketTransitions.getTransition(ordinal(), command.getCommand(), TicketType.INCIDENT) == null) {
+				throw new UnsupportedOperationException();
 			}
 		}
 
 		@Override
 		public String getStateName() {
-			return CLOSED_NAME;
-		}
-
-	}
-
-	/**
-	 * Actions for ticket in Canceled state
-	 */
-	private class CanceledState implements TicketState {
-
-		@Override
-		public void updateState(Command command) {
-			//Not possible
-		}
-
-		@Override
-		public String getStateName() {
-			return CANCELED_NAME;
+			return stateName;
 		}
 
 	}
@@ -0,0 +1,196 @@
+package edu.ncsu.csc216.ticket_manager.model.ticket;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Notes of a ticket. Notes are only ever appended, so they are kept as a list
+ * of segments that grows in amortized constant time. The rendered text, with
+ * each note on its own line starting with '-', is built the first time it is
+ * asked for and then kept up to date as notes are appended, so rendering a
+ * ticket with a long history again does not copy its old notes. Saving does
+ * not need the rendered text at all: the notes are appended or written
+ * straight from the segments.
+ *
+ * Notes can also be created with a loader, which is only called the first time
+ * the notes are used. A ticket file read lazily keeps just the position of
+ * each ticket's notes this way.
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketNotes {
+
+	/** Notes, in the order they were added, null until they are loaded */
+	private volatile ArrayList<String> notes;
+	/** Loads the notes on first use, null once they are loaded */
+	private Supplier<ArrayList<String>> loader;
+	/** Rendered text of the notes, null until it is first asked for */
+	private StringBuilder rendered;
+	/** Rendered text as a String, null if notes were appended since */
+	private String text;
+
+	/**
+	 * Constructor for TicketNotes. Creates an empty list of notes.
+	 */
+	public TicketNotes() {
+		this(new ArrayList<String>());
+	}
+
+	/**
+	 * Constructor for TicketNotes. Uses the given list to hold the notes.
+	 *
+	 * @param notes initial notes
+	 */
+	public TicketNotes(ArrayList<String> notes) {
+		this.notes = notes;
+	}
+
+	/**
+	 * Constructor for TicketNotes. The notes are loaded by the loader the first
+	 * time they are used.
+	 *
+	 * @param loader returns the notes
+	 */
+	public TicketNotes(Supplier<ArrayList<String>> loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * Returns whether the notes have been loaded
+	 *
+	 * @return true if the notes are in memory
+	 */
+	public boolean isLoaded() {
+		return notes != null;
+	}
+
+	/**
+	 * Returns a copy of the notes as they are now, which notes appended later do
+	 * not change. The copy shares the text of each note, and notes that have not
+	 * been loaded yet are loaded by the copy on its own first use.
+	 *
+	 * @return copy of the notes
+	 */
+	public TicketNotes copy() {
+		ArrayList<String> n = notes;
+		if (n == null) {
+			synchronized (this) {
+				n = notes;
+				if (n == null) {
+					return new TicketNotes(loader);
+				}
+			}
+		}
+		return new TicketNotes(new ArrayList<String>(n));
+	}
+
+	/**
+	 * Appends a note
+	 *
+	 * @param note text of the note
+	 */
+	public void add(String note) {
+		list().add(note);
+		if (rendered != null) {
+			appendNote(rendered, note);
+			text = null;
+		}
+	}
+
+	/**
+	 * Returns the number of notes
+	 *
+	 * @return number of notes
+	 */
+	public int size() {
+		return list().size();
+	}
+
+	/**
+	 * Returns one note
+	 *
+	 * @param index index of the note, 0 for the first note
+	 * @return text of the note
+	 */
+	public String get(int index) {
+		return list().get(index);
+	}
+
+	/**
+	 * Returns the rendered text of the notes, each on its own line starting with
+	 * '-'
+	 *
+	 * @return rendered notes
+	 */
+	public String render() {
+		if (rendered == null) {
+			rendered = new StringBuilder();
+			appendTo(rendered);
+		}
+		if (text == null) {
+			text = rendered.toString();
+		}
+		return text;
+	}
+
+	/**
+	 * Appends the rendered notes to a StringBuilder
+	 *
+	 * @param sb StringBuilder the notes are appended to
+	 */
+	public void appendTo(StringBuilder sb) {
+		ArrayList<String> n = list();
+		for (int i = 0; i < n.size(); i++) {
+			appendNote(sb, n.get(i));
+		}
+	}
+
+	/**
+	 * Writes the rendered notes to a Writer without building them as one String
+	 *
+	 * @param out Writer the notes are written to
+	 * @throws IOException if the Writer cannot be written
+	 */
+	public void writeTo(Writer out) throws IOException {
+		ArrayList<String> n = list();
+		for (int i = 0; i < n.size(); i++) {
+			out.write('-');
+			out.write(n.get(i));
+			out.write('\n');
+		}
+	}
+
+	/**
+	 * Returns the notes, loading them first if needed. Threads reading a ticket
+	 * at the same time load the notes only once.
+	 *
+	 * @return list of notes
+	 */
+	private ArrayList<String> list() {
+		ArrayList<String> n = notes;
+		if (n == null) {
+			synchronized (this) {
+				n = notes;
+				if (n == null) {
+					n = loader.get();
+					notes = n;
+					loader = null;
+				}
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Appends one rendered note to a StringBuilder
+	 *
+	 * @param sb   StringBuilder the note is appended to
+	 * @param note text of the note
+	 */
+	private static void appendNote(StringBuilder sb, String note) {
+		sb.append('-').append(note).append('\n');
+	}
+}
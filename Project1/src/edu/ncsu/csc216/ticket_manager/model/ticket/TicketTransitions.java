@@ -0,0 +1,330 @@
+package edu.ncsu.csc216.ticket_manager.model.ticket;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.ncsu.csc216.ticket_manager.model.command.Command;
+import edu.ncsu.csc216.ticket_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.ticket_manager.model.command.Command.ResolutionCode;
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket.TicketType;
+
+/**
+ * Transition table of the Ticket state machine. For every state, CommandValue
+ * and TicketType the table holds the Transition a command takes, or null if
+ * the state does not allow the command. A Transition gives the target state,
+ * the resolution codes the command may carry, and the side effects on the
+ * ticket's owner and codes. Lookups are a single array access, and the table
+ * can be read by other classes to check commands in bulk or to list the
+ * commands a ticket allows.
+ *
+ * States are numbered from NEW to CANCELED.
+ *
+ * @author Benson Liu
+ *
+ */
+public final class TicketTransitions {
+
+	/** Index of the New state */
+	public static final int NEW = 0;
+	/** Index of the Working state */
+	public static final int WORKING = 1;
+	/** Index of the Feedback state */
+	public static final int FEEDBACK = 2;
+	/** Index of the Resolved state */
+	public static final int RESOLVED = 3;
+	/** Index of the Closed state */
+	public static final int CLOSED = 4;
+	/** Index of the Canceled state */
+	public static final int CANCELED = 5;
+
+	/** The owner is set to the owner of the command */
+	public static final int SET_OWNER = 1;
+	/** The feedback code is set to the code of the command */
+	public static final int SET_FEEDBACK_CODE = 1 << 1;
+	/** The resolution code is set to the code of the command */
+	public static final int SET_RESOLUTION_CODE = 1 << 2;
+	/** The cancellation code is set to the code of the command */
+	public static final int SET_CANCELLATION_CODE = 1 << 3;
+	/** The feedback code is cleared */
+	public static final int CLEAR_FEEDBACK_CODE = 1 << 4;
+	/** The resolution code is cleared */
+	public static final int CLEAR_RESOLUTION_CODE = 1 << 5;
+	/** The cancellation code is cleared */
+	public static final int CLEAR_CANCELLATION_CODE = 1 << 6;
+
+	/** Names of the states, by index */
+	private static final String[] STATE_NAMES = { Ticket.NEW_NAME, Ticket.WORKING_NAME, Ticket.FEEDBACK_NAME,
+		Ticket.RESOLVED_NAME, Ticket.CLOSED_NAME, Ticket.CANCELED_NAME };
+	/** Number of command values */
+	private static final int COMMANDS = CommandValue.values().length;
+	/** Number of ticket types */
+	private static final int TYPES = TicketType.values().length;
+	/** Transitions by state, command value and ticket type */
+	private static final Transition[] TABLE = new Transition[STATE_NAMES.length * COMMANDS * TYPES];
+	/** Resolution codes a Request can be resolved with */
+	private static final Set<ResolutionCode> REQUEST_RESOLUTIONS = Collections.unmodifiableSet(
+			EnumSet.of(ResolutionCode.COMPLETED, ResolutionCode.NOT_COMPLETED, ResolutionCode.CALLER_CLOSED));
+	/** Resolution codes an Incident can be resolved with */
+	private static final Set<ResolutionCode> INCIDENT_RESOLUTIONS = Collections.unmodifiableSet(EnumSet
+			.of(ResolutionCode.SOLVED, ResolutionCode.WORKAROUND, ResolutionCode.NOT_SOLVED,
+					ResolutionCode.CALLER_CLOSED));
+
+	static {
+		rule(NEW, CommandValue.PROCESS, WORKING, SET_OWNER);
+		rule(NEW, CommandValue.CANCEL, CANCELED, SET_CANCELLATION_CODE);
+		rule(WORKING, CommandValue.FEEDBACK, FEEDBACK, SET_FEEDBACK_CODE);
+		rule(WORKING, CommandValue.RESOLVE, RESOLVED, SET_RESOLUTION_CODE);
+		rule(WORKING, CommandValue.CANCEL, CANCELED, SET_CANCELLATION_CODE);
+		rule(FEEDBACK, CommandValue.REOPEN, WORKING, CLEAR_FEEDBACK_CODE | CLEAR_RESOLUTION_CODE);
+		rule(FEEDBACK, CommandValue.RESOLVE, RESOLVED, CLEAR_FEEDBACK_CODE | SET_RESOLUTION_CODE);
+		rule(FEEDBACK, CommandValue.CANCEL, CANCELED, CLEAR_FEEDBACK_CODE | SET_CANCELLATION_CODE);
+		rule(RESOLVED, CommandValue.CONFIRM, CLOSED, 0);
+		rule(RESOLVED, CommandValue.FEEDBACK, FEEDBACK,
+				CLEAR_RESOLUTION_CODE | CLEAR_CANCELLATION_CODE | SET_FEEDBACK_CODE);
+		rule(RESOLVED, CommandValue.REOPEN, WORKING,
+				CLEAR_FEEDBACK_CODE | CLEAR_RESOLUTION_CODE | CLEAR_CANCELLATION_CODE);
+		rule(CLOSED, CommandValue.REOPEN, WORKING,
+				CLEAR_FEEDBACK_CODE | CLEAR_RESOLUTION_CODE | CLEAR_CANCELLATION_CODE);
+	}
+
+	/**
+	 * Constructor for TicketTransitions. The table is only used through its
+	 * static methods.
+	 */
+	private TicketTransitions() {
+	}
+
+	/**
+	 * Adds a transition for both ticket types. Commands that set the resolution
+	 * code may only carry the resolution codes of the ticket type.
+	 *
+	 * @param from    index of the state the command is used in
+	 * @param command command value
+	 * @param to      index of the target state
+	 * @param effects side effects on the ticket
+	 */
+	private static void rule(int from, CommandValue command, int to, int effects) {
+		for (TicketType type : TicketType.values()) {
+			Set<ResolutionCode> codes = null;
+			if ((effects & SET_RESOLUTION_CODE) != 0) {
+				codes = type == TicketType.REQUEST ? REQUEST_RESOLUTIONS : INCIDENT_RESOLUTIONS;
+			}
+			TABLE[index(from, command, type)] = new Transition(from, command, type, to, effects, codes);
+		}
+	}
+
+	/**
+	 * Returns the position of a transition in the table
+	 *
+	 * @param state   index of state
+	 * @param command command value
+	 * @param type    ticket type
+	 * @return position in TABLE
+	 */
+	private static int index(int state, CommandValue command, TicketType type) {
+		return (state * COMMANDS + command.ordinal()) * TYPES + type.ordinal();
+	}
+
+	/**
+	 * Returns the transition a command takes from a state, or null if the state
+	 * does not allow the command
+	 *
+	 * @param state   index of state
+	 * @param command command value
+	 * @param type    ticket type
+	 * @return Transition or null
+	 */
+	public static Transition getTransition(int state, CommandValue command, TicketType type) {
+		if (state < 0 || state >= STATE_NAMES.length) {
+			throw new IllegalArgumentException("Invalid state");
+		}
+		return TABLE[index(state, command, type)];
+	}
+
+	/**
+	 * Returns whether a ticket in a state allows a command, including the codes
+	 * it carries
+	 *
+	 * @param state   index of state
+	 * @param command command to check
+	 * @param type    ticket type
+	 * @return true if the command would be applied
+	 */
+	public static boolean isAllowed(int state, Command command, TicketType type) {
+		Transition transition = getTransition(state, command.getCommand(), type);
+		return transition != null && transition.allows(command);
+	}
+
+	/**
+	 * Returns the transitions a ticket type allows from a state, in the order of
+	 * CommandValue
+	 *
+	 * @param state index of state
+	 * @param type  ticket type
+	 * @return allowed transitions
+	 */
+	public static List<Transition> getTransitions(int state, TicketType type) {
+		ArrayList<Transition> transitions = new ArrayList<Transition>();
+		for (CommandValue command : CommandValue.values()) {
+			Transition transition = getTransition(state, command, type);
+			if (transition != null) {
+				transitions.add(transition);
+			}
+		}
+		return transitions;
+	}
+
+	/**
+	 * Returns the number of states
+	 *
+	 * @return number of states
+	 */
+	public static int getStateCount() {
+		return STATE_NAMES.length;
+	}
+
+	/**
+	 * Returns the name of a state
+	 *
+	 * @param state index of state
+	 * @return name of the state, such as Ticket.NEW_NAME
+	 */
+	public static String getStateName(int state) {
+		return STATE_NAMES[state];
+	}
+
+	/**
+	 * Returns the index of a state name
+	 *
+	 * @param name name of state
+	 * @return index of the state, or -1 if there is no state with the name
+	 */
+	public static int getStateIndex(String name) {
+		for (int i = 0; i < STATE_NAMES.length; i++) {
+			if (STATE_NAMES[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * One entry of the transition table
+	 *
+	 * @author Benson Liu
+	 *
+	 */
+	public static final class Transition {
+
+		/** Index of the state the command is used in */
+		private final int fromState;
+		/** Command value */
+		private final CommandValue command;
+		/** Ticket type */
+		private final TicketType ticketType;
+		/** Index of the target state */
+		private final int targetState;
+		/** Side effects on the ticket */
+		private final int effects;
+		/** Resolution codes the command may carry, null if they are not checked */
+		private final Set<ResolutionCode> resolutionCodes;
+
+		/**
+		 * Constructor for Transition
+		 *
+		 * @param fromState       index of the state the command is used in
+		 * @param command         command value
+		 * @param ticketType      ticket type
+		 * @param targetState     index of the target state
+		 * @param effects         side effects on the ticket
+		 * @param resolutionCodes resolution codes allowed, or null
+		 */
+		private Transition(int fromState, CommandValue command, TicketType ticketType, int targetState, int effects,
+				Set<ResolutionCode> resolutionCodes) {
+			this.fromState = fromState;
+			this.command = command;
+			this.ticketType = ticketType;
+			this.targetState = targetState;
+			this.effects = effects;
+			this.resolutionCodes = resolutionCodes;
+		}
+
+		/**
+		 * Returns whether a command may take this transition. Only the resolution
+		 * code is restricted by ticket type.
+		 *
+		 * @param c command to check
+		 * @return true if the command is allowed
+		 */
+		public boolean allows(Command c) {
+			return resolutionCodes == null || resolutionCodes.contains(c.getResolutionCode());
+		}
+
+		/**
+		 * Returns the index of the state the command is used in
+		 *
+		 * @return index of state
+		 */
+		public int getFromState() {
+			return fromState;
+		}
+
+		/**
+		 * Returns the command value
+		 *
+		 * @return command value
+		 */
+		public CommandValue getCommand() {
+			return command;
+		}
+
+		/**
+		 * Returns the ticket type
+		 *
+		 * @return ticket type
+		 */
+		public TicketType getTicketType() {
+			return ticketType;
+		}
+
+		/**
+		 * Returns the index of the target state
+		 *
+		 * @return index of target state
+		 */
+		public int getTargetState() {
+			return targetState;
+		}
+
+		/**
+		 * Returns the side effects as a combination of the SET_ and CLEAR_ flags
+		 *
+		 * @return side effects
+		 */
+		public int getEffects() {
+			return effects;
+		}
+
+		/**
+		 * Returns whether the transition has a side effect
+		 *
+		 * @param effect one of the SET_ or CLEAR_ flags
+		 * @return true if the transition has the side effect
+		 */
+		public boolean hasEffect(int effect) {
+			return (effects & effect) != 0;
+		}
+
+		/**
+		 * Returns the resolution codes the command may carry
+		 *
+		 * @return allowed resolution codes, or null if they are not checked
+		 */
+		public Set<ResolutionCode> getResolutionCodes() {
+			return resolutionCodes;
+		}
+	}
+}
@@ -10,6 +10,9 @@ import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -22,21 +25,30 @@ import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.border.Border;
 import javax.swing.border.EtchedBorder;
 import javax.swing.border.TitledBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.AbstractTableModel;
 
 import edu.ncsu.csc216.ticket_manager.model.command.Command;
 import edu.ncsu.csc216.ticket_manager.model.command.Command.CancellationCode;
 import edu.ncsu.csc216.ticket_manager.model.command.Command.FeedbackCode;
 import edu.ncsu.csc216.ticket_manager.model.command.Command.ResolutionCode;
+import edu.ncsu.csc216.ticket_manager.model.io.TicketProgress;
+import edu.ncsu.csc216.ticket_manager.model.manager.TicketChangeListener;
 import edu.ncsu.csc216.ticket_manager.model.manager.TicketManager;
+import edu.ncsu.csc216.ticket_manager.model.search.TicketTrigramIndex;
 import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
 import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket.Category;
 import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket.Priority;
@@ -114,6 +126,14 @@ public class TicketManagerGUI extends JFrame implements ActionListener {
 	private final AddTicketPanel pnlAddTicket = new AddTicketPanel();
 	/** Reference to  CardLayout for panel.  Stacks all of the panels. */
 	private CardLayout cardLayout;
+	/** Panel showing the progress of a load or save, hidden when idle. */
+	private JPanel pnlStatus;
+	/** Progress of the load or save. */
+	private JProgressBar progressBar;
+	/** Button for canceling the load or save. */
+	private JButton btnCancel;
+	/** Load or save running in the background, null when idle. */
+	private FileTask task;
 	
 	
 	/**
@@ -131,6 +151,11 @@ public class TicketManagerGUI extends JFrame implements ActionListener {
 		setDefaultCloseOperation(EXIT_ON_CLOSE);
 		setUpMenuBar();
 		
+		//Loads and saves run on a background thread while the table reads
+		TicketManager.getInstance().setConcurrent(true);
+		//The filter field looks up subjects and callers in the substring index
+		TicketManager.getInstance().setSubstringIndexed(true);
+		
 		//Create JPanel that will hold rest of GUI information.
 		//The JPanel utilizes a CardLayout, which stack several different
 		//JPanels.  User actions lead to switching which "Card" is visible.
@@ -151,6 +176,17 @@ public class TicketManagerGUI extends JFrame implements ActionListener {
 		Container c = getContentPane();
 		c.add(panel, BorderLayout.CENTER);
 		
+		//Status panel for loads and saves
+		progressBar = new JProgressBar(0, 100);
+		progressBar.setStringPainted(true);
+		btnCancel = new JButton("Cancel");
+		btnCancel.addActionListener(this);
+		pnlStatus = new JPanel(new BorderLayout());
+		pnlStatus.add(progressBar, BorderLayout.CENTER);
+		pnlStatus.add(btnCancel, BorderLayout.EAST);
+		pnlStatus.setVisible(false);
+		c.add(pnlStatus, BorderLayout.SOUTH);
+		
 		//Set the GUI visible
 		setVisible(true);
 	}
@@ -191,7 +227,15 @@ public class TicketManagerGUI extends JFrame implements ActionListener {
 	public void actionPerformed(ActionEvent e) {
 		//Use TicketManager's singleton to create/get the sole instance.
 		TicketManager model = TicketManager.getInstance();
-		if (e.getSource() == itemNewTicketFile) {
+		if (e.getSource() == btnCancel) {
+			//Cancel the running load or save
+			if (task != null) {
+				task.cancel(false);
+			}
+		} else if (task != null) {
+			//Only one load or save at a time
+			return;
+		} else if (e.getSource() == itemNewTicketFile) {
 			//Create a new ticket list
 			model.createNewTicketList();
 			itemSaveTicketFile.setEnabled(true);
@@ -202,39 +246,71 @@ public class TicketManagerGUI extends JFrame implements ActionListener {
 		} else if (e.getSource() == itemLoadTicketFile) {
 			//Load an existing ticket list
 			try {
-				model.loadTicketsFromFile(getFileName(true));
-				itemSaveTicketFile.setEnabled(true);
-				pnlTicketList.updateTable(null);
-				cardLayout.show(panel, TICKET_LIST_PANEL);
-				validate();
-				repaint();
-			} catch (IllegalArgumentException exp) {
-				JOptionPane.showMessageDialog(this, "Unable to load ticket file.");
+				startTask(new FileTask(getFileName(true), true, false));
 			} catch (IllegalStateException exp) {
 				//Don't do anything - user canceled (or error)
 			}
 		} else if (e.getSource() == itemSaveTicketFile) {
 			//Save current ticket list
 			try {
-				model.saveTicketsToFile(getFileName(false));
-			} catch (IllegalArgumentException exp) {
-				JOptionPane.showMessageDialog(this, "Unable to save ticket file.");
+				startTask(new FileTask(getFileName(false), false, false));
 			} catch (IllegalStateException exp) {
 				//Don't do anything - user canceled (or error)
 			}
 		} else if (e.getSource() == itemQuit) {
-			//Quit the program
+			//Quit the program once the ticket list is saved
 			try {
-				model.saveTicketsToFile(getFileName(false));
-				System.exit(0);  //Ignore SpotBugs warning here - this is the only place to quit the program!
-			} catch (IllegalArgumentException exp) {
-				JOptionPane.showMessageDialog(this, "Unable to save ticket file.");
+				startTask(new FileTask(getFileName(false), false, true));
 			} catch (IllegalStateException exp) {
 				//Don't do anything - user canceled (or error)
 			}
 		}
 	}
 	
+	/**
+	 * Starts a load or save in the background and shows its progress. The file
+	 * menu items are disabled until it is done. The loaded list replaces the
+	 * current one, so during a load the ticket list is shown with adding,
+	 * deleting and editing tickets disabled.
+	 * @param fileTask load or save to run
+	 */
+	private void startTask(FileTask fileTask) {
+		task = fileTask;
+		itemNewTicketFile.setEnabled(false);
+		itemLoadTicketFile.setEnabled(false);
+		itemSaveTicketFile.setEnabled(false);
+		if (fileTask.load) {
+			pnlTicketList.setEditingEnabled(false);
+			cardLayout.show(panel, TICKET_LIST_PANEL);
+		}
+		progressBar.setValue(0);
+		progressBar.setString(fileTask.load ? "Loading..." : "Saving...");
+		pnlStatus.setVisible(true);
+		validate();
+		fileTask.addPropertyChangeListener(evt -> {
+			if ("progress".equals(evt.getPropertyName())) {
+				progressBar.setValue((Integer) evt.getNewValue());
+			}
+		});
+		fileTask.execute();
+	}
+	
+	/**
+	 * Hides the progress of a finished load or save and enables the file menu
+	 * items and editing again.
+	 * @param saveEnabled whether the Save menu item is enabled
+	 */
+	private void finishTask(boolean saveEnabled) {
+		task = null;
+		pnlStatus.setVisible(false);
+		itemNewTicketFile.setEnabled(true);
+		itemLoadTicketFile.setEnabled(true);
+		itemSaveTicketFile.setEnabled(saveEnabled);
+		pnlTicketList.setEditingEnabled(true);
+		validate();
+		repaint();
+	}
+	
 	/**
 	 * Returns a file name generated through interactions with a  JFileChooser
 	 * object.
@@ -255,6 +331,98 @@ public class TicketManagerGUI extends JFrame implements ActionListener {
 		File gameFile = fc.getSelectedFile();
 		return gameFile.getAbsolutePath();
 	}
+	
+	/**
+	 * Loads or saves a ticket file on a background thread. The table keeps
+	 * showing the current ticket list until a load is done, and a canceled load
+	 * leaves it as it was.
+	 * 
+	 * @author Benson Liu
+	 */
+	private class FileTask extends SwingWorker<Void, Void> implements TicketProgress {
+		
+		/** Name of the file to load or save. */
+		private final String fileName;
+		/** True to load the file, false to save it. */
+		private final boolean load;
+		/** True to quit once the file is saved. */
+		private final boolean quit;
+		/** Whether Save was enabled before the task started. */
+		private final boolean saveEnabled;
+		
+		/**
+		 * Creates a task for loading or saving a file.
+		 * @param fileName name of the file
+		 * @param load true to load the file, false to save it
+		 * @param quit true to quit once the file is saved
+		 */
+		FileTask(String fileName, boolean load, boolean quit) {
+			this.fileName = fileName;
+			this.load = load;
+			this.quit = quit;
+			this.saveEnabled = itemSaveTicketFile.isEnabled();
+		}
+		
+		/**
+		 * Loads or saves the file.
+		 * @return nothing
+		 */
+		@Override
+		protected Void doInBackground() {
+			if (load) {
+				TicketManager.getInstance().loadTicketsFromFile(fileName, this);
+			} else {
+				TicketManager.getInstance().saveTicketsToFile(fileName, this);
+			}
+			return null;
+		}
+		
+		@Override
+		public void progress(long done, long total) {
+			if (total > 0) {
+				setProgress((int) Math.min(100, done * 100 / total));
+			}
+		}
+		
+		@Override
+		public boolean isCanceled() {
+			return isCancelled();
+		}
+		
+		/**
+		 * Shows the loaded ticket list, quits after a save, or reports the
+		 * error.
+		 */
+		@Override
+		protected void done() {
+			try {
+				get();
+			} catch (CancellationException e) {
+				//Don't do anything - user canceled
+				finishTask(saveEnabled);
+				return;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				finishTask(saveEnabled);
+				return;
+			} catch (ExecutionException e) {
+				finishTask(saveEnabled);
+				if (!(e.getCause() instanceof CancellationException)) {
+					JOptionPane.showMessageDialog(TicketManagerGUI.this,
+							load ? "Unable to load ticket file." : "Unable to save ticket file.");
+				}
+				return;
+			}
+			if (quit) {
+				System.exit(0);  //Ignore SpotBugs warning here - this is the only place to quit the program!
+			}
+			finishTask(true);
+			if (load) {
+				pnlTicketList.updateTable(null);
+				cardLayout.show(panel, TICKET_LIST_PANEL);
+			}
+		}
+	}
 
 	/**
 	 * Starts the GUI for the TicketManager application.
@@ -270,9 +438,11 @@ public class TicketManagerGUI extends JFrame implements ActionListener {
 	 * 
 	 * @author Dr. Sarah Heckman (sarah_heckman@ncsu.edu)
 	 */
-	private class TicketListPanel extends JPanel implements ActionListener {
+	private class TicketListPanel extends JPanel implements ActionListener, DocumentListener {
 		/** ID number used for object serialization. */
 		private static final long serialVersionUID = 1L;
+		/** Milliseconds without typing before the filter is applied */
+		private static final int FILTER_DELAY = 200;
 		/** Button for creating a new ticket */
 		private JButton btnAddTicket;
 		/** Button for deleting the selected ticket in the list */
@@ -285,6 +455,10 @@ public class TicketManagerGUI extends JFrame implements ActionListener {
 		private JButton btnFilterByTicketType;
 		/** Button that will show all tickets that are currently tracked */
 		private JButton btnShowAllTickets;
+		/** Text field for filtering by subject or caller */
+		private JTextField txtFilter;
+		/** Timer that applies the filter once typing pauses */
+		private Timer filterTimer;
 		/** JTable for displaying the list of tickets */
 		private JTable table;
 		/** TableModel for Tickets */
@@ -319,6 +493,20 @@ public class TicketManagerGUI extends JFrame implements ActionListener {
 			pnlActions.add(comboTicketType);
 			pnlActions.add(btnFilterByTicketType);
 			pnlActions.add(btnShowAllTickets);
+			
+			//Set up the filter field
+			txtFilter = new JTextField();
+			txtFilter.getDocument().addDocumentListener(this);
+			filterTimer = new Timer(FILTER_DELAY, e -> ticketTableModel.setFilterText(txtFilter.getText()));
+			filterTimer.setRepeats(false);
+			
+			JPanel pnlFilter = new JPanel(new BorderLayout());
+			pnlFilter.add(new JLabel("Filter by Subject or Caller: "), BorderLayout.WEST);
+			pnlFilter.add(txtFilter, BorderLayout.CENTER);
+			
+			JPanel pnlTop = new JPanel(new BorderLayout());
+			pnlTop.add(pnlActions, BorderLayout.NORTH);
+			pnlTop.add(pnlFilter, BorderLayout.SOUTH);
 						
 			//Set up table
 			ticketTableModel = new TicketTableModel();
@@ -329,10 +517,34 @@ public class TicketManagerGUI extends JFrame implements ActionListener {
 			
 			JScrollPane listScrollPane = new JScrollPane(table);
 			
-			add(pnlActions, BorderLayout.NORTH);
+			add(pnlTop, BorderLayout.NORTH);
 			add(listScrollPane, BorderLayout.CENTER);
 		}
 
+		/**
+		 * Restarts the filter timer when text is typed into the filter field.
+		 * @param e change to the filter text.
+		 */
+		public void insertUpdate(DocumentEvent e) {
+			filterTimer.restart();
+		}
+
+		/**
+		 * Restarts the filter timer when text is removed from the filter field.
+		 * @param e change to the filter text.
+		 */
+		public void removeUpdate(DocumentEvent e) {
+			filterTimer.restart();
+		}
+
+		/**
+		 * Restarts the filter timer when the filter text changes.
+		 * @param e change to the filter text.
+		 */
+		public void changedUpdate(DocumentEvent e) {
+			filterTimer.restart();
+		}
+
 		/**
 		 * Performs an action based on the given ActionEvent.
 		 * @param e user event that triggers an action.
@@ -410,32 +622,69 @@ public class TicketManagerGUI extends JFrame implements ActionListener {
 			TicketManagerGUI.this.validate();
 		}
 		
+		/**
+		 * Shows all tickets, or only the tickets of a type. The table is kept
+		 * up to date by change events from the TicketManager, so the rows are
+		 * only read again when the ticket type shown changes. The text in the
+		 * filter field still applies.
+		 * @param ticketType type of tickets to show, or null for all tickets.
+		 */
 		public void updateTable(TicketType ticketType) {
-			if (ticketType == null) {
-				ticketTableModel.updateTicketData();
-			} else {
-				ticketTableModel.updateTicketDataByTicketType(ticketType);
-			}
+			ticketTableModel.setTicketType(ticketType);
+		}
+		
+		/**
+		 * Enables or disables the buttons that add, delete and edit tickets.
+		 * @param enabled true to let the user change tickets
+		 */
+		public void setEditingEnabled(boolean enabled) {
+			btnAddTicket.setEnabled(enabled);
+			btnDeleteTicket.setEnabled(enabled);
+			btnEditTicket.setEnabled(enabled);
 		}
 		
 		/**
 		 * TicketTableModel is the object underlying the  JTable object that displays
-		 * the list of Tickets to the user.
+		 * the list of Tickets to the user. Only the ticket ID of each row is kept;
+		 * the rest of a row is read from the TicketManager when the table draws it,
+		 * and the last rows read are cached. The model listens to the TicketManager
+		 * and fires an event for just the rows that a change added, updated or
+		 * deleted, so the cost of a change does not grow with the number of
+		 * tickets. While filter text is set, the IDs of the matching tickets are
+		 * looked up in the substring index on a background thread, and results
+		 * that a newer filter has replaced are dropped.
 		 * @author Dr. Sarah Heckman (sarah_heckman@ncsu.edu)
 		 */
-		private class TicketTableModel extends AbstractTableModel {
+		private class TicketTableModel extends AbstractTableModel implements TicketChangeListener {
 			
 			/** ID number used for object serialization. */
 			private static final long serialVersionUID = 1L;
+			/** Number of rows cached, must be a power of two */
+			private static final int CACHE_SIZE = 1024;
 			/** Column names for the table */
 			private String [] columnNames = {"ID", "Type", "State", "Subject", "Category", "Priority"};
-			/** Data stored in the table */
-			private Object [][] data;
+			/** Ticket IDs of the rows, only the first rowCount are used */
+			private int [] ids = new int[0];
+			/** Number of rows in the table */
+			private int rowCount;
+			/** Type of tickets shown, or null for all tickets */
+			private TicketType ticketType;
+			/** Text the subject or caller of the tickets shown contains, in lower case */
+			private String filterText = "";
+			/** Number of the latest filter, so older results are dropped */
+			private int filterSequence;
+			/** Whether a filter is being computed */
+			private boolean filterPending;
+			/** Rows read from the TicketManager, by ticket ID modulo CACHE_SIZE */
+			private String [][] cache = new String[CACHE_SIZE][];
+			/** Ticket IDs of the cached rows */
+			private int [] cacheIds = new int[CACHE_SIZE];
 			
 			/**
 			 * Constructs the  TicketTableModel by requesting the latest information.
 			 */
 			public TicketTableModel() {
+				TicketManager.getInstance().addTicketChangeListener(this);
 				updateTicketData();
 			}
 
@@ -452,9 +701,7 @@ public class TicketManagerGUI extends JFrame implements ActionListener {
 			 * @return the number of rows in the table.
 			 */
 			public int getRowCount() {
-				if (data == null) 
-					return 0;
-				return data.length;
+				return rowCount;
 			}
 			
 			/**
@@ -470,9 +717,9 @@ public class TicketManagerGUI extends JFrame implements ActionListener {
 			 * @return the data at the given location.
 			 */
 			public Object getValueAt(int row, int col) {
-				if (data == null)
+				if (row >= rowCount)
 					return null;
-				return data[row][col];
+				return getRow(row)[col];
 			}
 			
 			/**
@@ -482,29 +729,274 @@ public class TicketManagerGUI extends JFrame implements ActionListener {
 			 * @param column location to modify the data.
 			 */
 			public void setValueAt(Object value, int row, int col) {
-				data[row][col] = value;
+				getRow(row)[col] = value.toString();
 				fireTableCellUpdated(row, col);
 			}
 			
 			/**
-			 * Updates the given model with Ticket information from the TicketManager.
+			 * Shows the tickets of a type, or all tickets for null. Nothing is read
+			 * if the type shown does not change.
+			 * @param type type of tickets to show, or null for all tickets.
+			 */
+			private void setTicketType(TicketType type) {
+				if (type != ticketType) {
+					ticketType = type;
+					refresh();
+				}
+			}
+			
+			/**
+			 * Shows only the tickets whose subject or caller contains a text,
+			 * ignoring case as the substring index does, or every ticket for
+			 * empty text. Nothing is read if the text does not change.
+			 * @param text text to filter by.
+			 */
+			private void setFilterText(String text) {
+				String lower = TicketTrigramIndex.toLowerCase(text.trim());
+				if (!lower.equals(filterText)) {
+					filterText = lower;
+					refresh();
+				}
+			}
+			
+			/**
+			 * Reads the rows again for the type and filter text shown. Without
+			 * filter text the rows are read at once, otherwise a FilterTask is
+			 * started.
+			 */
+			private void refresh() {
+				filterSequence++;
+				if (filterText.isEmpty()) {
+					filterPending = false;
+					updateTicketData();
+				} else {
+					filterPending = true;
+					new FilterTask(filterSequence, filterText, ticketType).execute();
+				}
+			}
+			
+			/**
+			 * Shows the rows of the given ticket IDs.
+			 * @param rows IDs of the tickets to show.
+			 */
+			private void setRows(int [] rows) {
+				ids = rows;
+				rowCount = ids.length;
+				Arrays.fill(cache, null);
+				fireTableDataChanged();
+			}
+			
+			/**
+			 * Reads the ticket IDs of the rows from the TicketManager.
 			 */
 			private void updateTicketData() {
 				TicketManager m = TicketManager.getInstance();
-				data = m.getTicketsForDisplay();
+				if (ticketType == null) {
+					ids = m.getTicketIds();
+				} else {
+					try {
+						ids = m.getTicketIdsByType(ticketType);
+					} catch (IllegalArgumentException e) {
+						JOptionPane.showMessageDialog(TicketManagerGUI.this, "Invalid ticket type");
+					}
+				}
+				setRows(ids);
 			}
 			
 			/**
-			 * Updates the given model with Ticket information for the 
-			 * given ticket type from the TicketManager.
-			 * @param ticketType category type to search for.
+			 * Returns a row, reading it from the TicketManager unless it is cached.
+			 * @param row index of the row.
+			 * @return the ID, type, state, subject, category and priority of the ticket.
 			 */
-			private void updateTicketDataByTicketType(TicketType ticketType) {
-				try {
+			private String [] getRow(int row) {
+				int id = ids[row];
+				int slot = id & (CACHE_SIZE - 1);
+				if (cache[slot] == null || cacheIds[slot] != id) {
+					String [] values = TicketManager.getInstance().getTicketDisplayRow(id);
+					if (values == null) {
+						values = new String[] {Integer.toString(id), "", "", "", "", ""};
+					}
+					cache[slot] = values;
+					cacheIds[slot] = id;
+				}
+				return cache[slot];
+			}
+			
+			/**
+			 * Returns the row of a ticket ID. Rows are usually in order of ID, so a
+			 * binary search is tried first.
+			 * @param id ID of the ticket.
+			 * @return index of the row, or -1 if the ticket is not shown.
+			 */
+			private int indexOf(int id) {
+				int i = Arrays.binarySearch(ids, 0, rowCount, id);
+				if (i >= 0) {
+					return i;
+				}
+				for (i = 0; i < rowCount; i++) {
+					if (ids[i] == id) {
+						return i;
+					}
+				}
+				return -1;
+			}
+			
+			/**
+			 * Removes a ticket from the row cache.
+			 * @param id ID of the ticket.
+			 */
+			private void uncache(int id) {
+				cache[id & (CACHE_SIZE - 1)] = null;
+			}
+			
+			/**
+			 * Runs a change on the event dispatch thread.
+			 * @param change change to the table.
+			 */
+			private void onEventThread(Runnable change) {
+				if (SwingUtilities.isEventDispatchThread()) {
+					change.run();
+				} else {
+					SwingUtilities.invokeLater(change);
+				}
+			}
+
+			/**
+			 * Adds a row for a new ticket if it has the type shown and contains
+			 * the filter text. A filter being computed is started again, as it
+			 * may have missed the ticket.
+			 * @param id ID of the new ticket.
+			 */
+			public void ticketAdded(int id) {
+				onEventThread(() -> {
+					if (filterPending) {
+						refresh();
+						return;
+					}
+					if (ticketType != null || !filterText.isEmpty()) {
+						Ticket t = TicketManager.getInstance().getTicketById(id);
+						if (t == null || ticketType != null && t.getTicketType() != ticketType
+								|| !TicketTrigramIndex.contains(t, filterText)) {
+							return;
+						}
+					}
+					if (rowCount == ids.length) {
+						ids = Arrays.copyOf(ids, Math.max(16, rowCount * 2));
+					}
+					ids[rowCount] = id;
+					rowCount++;
+					uncache(id);
+					fireTableRowsInserted(rowCount - 1, rowCount - 1);
+				});
+			}
+
+			/**
+			 * Redraws the row of an updated ticket.
+			 * @param id ID of the updated ticket.
+			 */
+			public void ticketUpdated(int id) {
+				onEventThread(() -> {
+					uncache(id);
+					int row = indexOf(id);
+					if (row >= 0) {
+						fireTableRowsUpdated(row, row);
+					}
+				});
+			}
+
+			/**
+			 * Removes the row of a deleted ticket. A filter being computed is
+			 * started again, as it may have found the ticket.
+			 * @param id ID of the deleted ticket.
+			 */
+			public void ticketDeleted(int id) {
+				onEventThread(() -> {
+					uncache(id);
+					if (filterPending) {
+						refresh();
+						return;
+					}
+					int row = indexOf(id);
+					if (row >= 0) {
+						System.arraycopy(ids, row + 1, ids, row, rowCount - row - 1);
+						rowCount--;
+						fireTableRowsDeleted(row, row);
+					}
+				});
+			}
+
+			/**
+			 * Reads every row again after the ticket list was replaced.
+			 */
+			public void ticketsReloaded() {
+				onEventThread(() -> refresh());
+			}
+			
+			/**
+			 * Looks up the IDs of the tickets that match a filter off the event
+			 * dispatch thread, and shows them unless a newer filter was started.
+			 * @author Benson Liu
+			 */
+			private class FilterTask extends SwingWorker<int [], Void> {
+				
+				/** Number of the filter */
+				private int sequence;
+				/** Text the subject or caller contains */
+				private String text;
+				/** Type of tickets, or null for all tickets */
+				private TicketType type;
+				
+				/**
+				 * Constructs the FilterTask.
+				 * @param sequence number of the filter.
+				 * @param text text the subject or caller contains.
+				 * @param type type of tickets, or null for all tickets.
+				 */
+				FilterTask(int sequence, String text, TicketType type) {
+					this.sequence = sequence;
+					this.text = text;
+					this.type = type;
+				}
+				
+				/**
+				 * Finds the matching ticket IDs, keeping those of the type.
+				 * @return IDs of the matching tickets in ascending order.
+				 */
+				@Override
+				protected int [] doInBackground() {
 					TicketManager m = TicketManager.getInstance();
-					data = m.getTicketsForDisplayByType(ticketType);
-				} catch (IllegalArgumentException e) {
-					JOptionPane.showMessageDialog(TicketManagerGUI.this, "Invalid ticket type");
+					int [] matches = m.getTicketIdsContaining(text);
+					if (type == null) {
+						return matches;
+					}
+					int [] typed = m.getTicketIdsByType(type);
+					int n = 0;
+					int j = 0;
+					for (int i = 0; i < matches.length; i++) {
+						while (j < typed.length && typed[j] < matches[i]) {
+							j++;
+						}
+						if (j < typed.length && typed[j] == matches[i]) {
+							matches[n++] = matches[i];
+						}
+					}
+					return Arrays.copyOf(matches, n);
+				}
+				
+				/**
+				 * Shows the matching tickets if this is still the latest filter.
+				 */
+				@Override
+				protected void done() {
+					if (sequence != filterSequence) {
+						return;
+					}
+					filterPending = false;
+					try {
+						setRows(get());
+					} catch (InterruptedException | ExecutionException e) {
+						JOptionPane.showMessageDialog(TicketManagerGUI.this, "Unable to filter tickets");
+					}
 				}
 			}
 		}
@@ -0,0 +1,132 @@
+package edu.ncsu.csc216.ticket_manager.model.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+
+/**
+ * Class for testing TicketBinaryReader
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketBinaryReaderTest {
+
+	/** Folder the tests write to, deleted after each test */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Test for method readTicketFile()
+	 */
+	@Test
+	public void testReadTicketFile() {
+		String file = new File(folder.getRoot(), "TicketBinaryReaderTest.tkb").getPath();
+		ArrayList<Ticket> text = TicketReader.readTicketFile("test-files/ticket2.txt");
+		TicketWriter.writeTicketFile(file, text);
+		ArrayList<Ticket> binary = TicketReader.readTicketFile(file);
+		assertEquals(text.size(), binary.size());
+		for (int i = 0; i < text.size(); i++) {
+			assertEquals(text.get(i).toString(), binary.get(i).toString());
+		}
+		assertEquals(text.size(), TicketBinaryReader.readTicketFile(file).size());
+	}
+
+	/**
+	 * Test for method readTicketFile() sharing the names of one file
+	 */
+	@Test
+	public void testReadTicketFileNames() {
+		String file = new File(folder.getRoot(), "TicketBinaryReaderTest.tkb").getPath();
+		TicketWriter.writeTicketFile(file, TicketReader.readTicketFile("test-files/ticket1.txt"));
+		ArrayList<Ticket> tickets = TicketBinaryReader.readTicketFile(file);
+		assertEquals("sesmith5", tickets.get(0).getCaller());
+		assertSame(tickets.get(0).getCaller(), tickets.get(1).getCaller());
+	}
+
+	/**
+	 * Test for method readTicketFile() with a file that is not a binary snapshot
+	 */
+	@Test
+	public void testReadTicketFileInvalid() {
+		try {
+			TicketBinaryReader.readTicketFile("test-files/ticket1.txt");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unable to load file.", e.getMessage());
+		}
+		try {
+			TicketReader.readTicketFile("test-files/no-such-file.tkb");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unable to load file.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for method readTicketFile() with a note count and a string length
+	 * larger than the file
+	 *
+	 * @throws IOException if the files cannot be written
+	 */
+	@Test
+	public void testReadTicketFileDamaged() throws IOException {
+		byte[] ticket = { 1, 0, 0, 0, 0, (byte) TicketBinaryWriter.NO_CODE, 1, 's', 1, 'c', 0 };
+		byte[] large = { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 };
+		File notes = folder.newFile("notes.tkb");
+		Files.write(notes.toPath(), concat(TicketBinaryWriter.MAGIC, new byte[] { TicketBinaryWriter.VERSION, 1 },
+				ticket, large));
+		File string = folder.newFile("string.tkb");
+		Files.write(string.toPath(), concat(TicketBinaryWriter.MAGIC, new byte[] { TicketBinaryWriter.VERSION, 1 },
+				Arrays.copyOf(ticket, 6), large));
+		for (File file : new File[] { notes, string }) {
+			try {
+				TicketBinaryReader.readTicketFile(file.getPath());
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertEquals("Unable to load file.", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Returns arrays of bytes joined in order
+	 *
+	 * @param parts arrays to join
+	 * @return joined bytes
+	 */
+	private static byte[] concat(byte[]... parts) {
+		byte[] bytes = new byte[0];
+		for (byte[] part : parts) {
+			int length = bytes.length;
+			bytes = Arrays.copyOf(bytes, length + part.length);
+			System.arraycopy(part, 0, bytes, length, part.length);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Test for method isBinaryFile()
+	 */
+	@Test
+	public void testIsBinaryFile() {
+		assertTrue(TicketBinaryReader.isBinaryFile("tickets.tkb"));
+		assertTrue(TicketBinaryReader.isBinaryFile("TICKETS.TKB"));
+		assertFalse(TicketBinaryReader.isBinaryFile("tickets.txt"));
+		assertFalse(TicketBinaryReader.isBinaryFile("tkb"));
+	}
+}
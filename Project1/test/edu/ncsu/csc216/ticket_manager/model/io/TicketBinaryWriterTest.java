@@ -0,0 +1,53 @@
+package edu.ncsu.csc216.ticket_manager.model.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+
+/**
+ * Class for testing TicketBinaryWriter
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketBinaryWriterTest {
+
+	/** Folder the tests write to, deleted after each test */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Test for method writeTickets() through TicketWriter, converting a text file
+	 * to a binary snapshot and back
+	 */
+	@Test
+	public void testWriteTickets() {
+		String binary = new File(folder.getRoot(), "TicketBinaryWriterTest.tkb").getPath();
+		String textFile = new File(folder.getRoot(), "TicketBinaryWriterTest.txt").getPath();
+		ArrayList<Ticket> tickets = TicketReader.readTicketFile("test-files/ticket1.txt");
+		StringBuilder longNote = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			longNote.append(i % 10);
+		}
+		ArrayList<String> notes = new ArrayList<String>();
+		notes.add(longNote.toString());
+		notes.add("caf\u00e9");
+		tickets.add(new Ticket(7, "New", "Request", "R\u00e9seau", "Benson", "Network", "Low", "", null, notes));
+		TicketWriter.writeTicketFileAtomic(binary, tickets);
+		TicketWriter.writeTicketFile(textFile, TicketReader.readTicketFile(binary));
+		ArrayList<Ticket> text = TicketReader.readTicketFile(textFile);
+		assertEquals(7, text.size());
+		for (int i = 0; i < tickets.size(); i++) {
+			assertEquals(tickets.get(i).toString(), text.get(i).toString());
+		}
+		assertTrue(new File(binary).length() < new File(textFile).length());
+	}
+}
@@ -0,0 +1,211 @@
+package edu.ncsu.csc216.ticket_manager.model.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.ncsu.csc216.ticket_manager.model.command.Command;
+import edu.ncsu.csc216.ticket_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+
+/**
+ * Class for testing TicketJournal
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketJournalTest {
+
+	/** Folder the tests write to, deleted after each test */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	/** File the tests write to */
+	private String file;
+
+	/**
+	 * Picks the ticket file in the temporary folder
+	 */
+	@Before
+	public void setUp() {
+		file = new File(folder.getRoot(), "TicketJournalTest.txt").getPath();
+	}
+
+	/**
+	 * Test for method replay()
+	 */
+	@Test
+	public void testReplay() {
+		ArrayList<Ticket> tickets = TicketReader.readTicketFile("test-files/ticket1.txt");
+		TicketWriter.writeTicketFile(file, tickets);
+		TicketJournal journal = new TicketJournal(file);
+		journal.discard();
+		assertTrue(journal.isJournalOf(file));
+		assertFalse(journal.isJournalOf("test-files/ticket1.txt"));
+
+		Ticket added = new Ticket(20, "New", "Request", "Printer", "Benson", "Hardware", "Low", "", null,
+				new ArrayList<String>());
+		journal.recordAdd(added);
+		Command process = new Command(CommandValue.PROCESS, "Ben", null, null, null, "working on it");
+		tickets.get(0).update(process);
+		journal.recordCommand(tickets.get(0), process);
+		journal.recordDelete(6);
+		assertTrue(journal.hasPendingChanges());
+		journal.flush();
+		assertFalse(journal.hasPendingChanges());
+
+		ArrayList<Ticket> loaded = TicketJournal.replay(file, TicketReader.readTicketFile(file));
+		assertEquals(6, loaded.size());
+		assertEquals(Ticket.WORKING_NAME, loaded.get(0).getState());
+		assertEquals("Ben", loaded.get(0).getOwner());
+		assertEquals(2, loaded.get(0).getNoteCount());
+		assertEquals(5, loaded.get(4).getTicketId());
+		assertEquals(20, loaded.get(5).getTicketId());
+		assertEquals("Printer", loaded.get(5).getSubject());
+	}
+
+	/**
+	 * Test for method replay() with a record cut short by a crash, followed by
+	 * another append
+	 *
+	 * @throws IOException if the journal file cannot be written
+	 */
+	@Test
+	public void testReplayTornRecord() throws IOException {
+		TicketWriter.writeTicketFile(file, TicketReader.readTicketFile("test-files/ticket1.txt"));
+		TicketJournal journal = new TicketJournal(file);
+		journal.discard();
+		journal.recordDelete(6);
+		journal.flush();
+		journal.close();
+		String journalFile = file + TicketJournal.JOURNAL_EXTENSION;
+		long whole = new File(journalFile).length();
+		Files.write(Paths.get(journalFile), new byte[] { 0, 0, 0, 40, 1, 2, 3 }, StandardOpenOption.APPEND);
+		assertEquals(5, TicketJournal.replay(file, TicketReader.readTicketFile(file)).size());
+
+		journal = new TicketJournal(file);
+		Command process = new Command(CommandValue.PROCESS, "Ben", null, null, null, "working on it");
+		Ticket first = TicketReader.readTicketFile(file).get(0);
+		first.update(process);
+		journal.recordCommand(first, process);
+		journal.recordDelete(5);
+		journal.flush();
+		journal.close();
+		assertTrue(new File(journalFile).length() > whole);
+		ArrayList<Ticket> loaded = TicketJournal.replay(file, TicketReader.readTicketFile(file));
+		assertEquals(4, loaded.size());
+		assertEquals(Ticket.WORKING_NAME, loaded.get(0).getState());
+	}
+
+	/**
+	 * Test for method replay() with a whole record that cannot be decoded
+	 *
+	 * @throws IOException if the journal file cannot be written
+	 */
+	@Test
+	public void testReplayInvalidRecord() throws IOException {
+		TicketWriter.writeTicketFile(file, TicketReader.readTicketFile("test-files/ticket1.txt"));
+		TicketJournal journal = new TicketJournal(file);
+		journal.discard();
+		journal.recordDelete(6);
+		journal.flush();
+		journal.close();
+		ByteArrayOutputStream record = new ByteArrayOutputStream();
+		DataOutputStream body = new DataOutputStream(record);
+		body.writeByte('C');
+		body.writeInt(1);
+		body.writeInt(2);
+		body.writeByte(CommandValue.values().length);
+		byte[] bytes = record.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		ByteArrayOutputStream frame = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(frame);
+		out.writeInt(bytes.length);
+		out.writeInt((int) crc.getValue());
+		out.write(bytes);
+		Files.write(Paths.get(file + TicketJournal.JOURNAL_EXTENSION), frame.toByteArray(), StandardOpenOption.APPEND);
+		try {
+			TicketJournal.replay(file, TicketReader.readTicketFile(file));
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unable to load file.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for method compact(), including replaying a journal that was already
+	 * folded into the ticket file
+	 */
+	@Test
+	public void testCompact() {
+		ArrayList<Ticket> tickets = TicketReader.readTicketFile("test-files/ticket1.txt");
+		TicketWriter.writeTicketFile(file, tickets);
+		TicketJournal journal = new TicketJournal(file);
+		journal.discard();
+		Command process = new Command(CommandValue.PROCESS, "Ben", null, null, null, "working on it");
+		tickets.get(0).update(process);
+		journal.recordCommand(tickets.get(0), process);
+		journal.recordDelete(2);
+		journal.flush();
+
+		journal.compact();
+		assertFalse(new File(file + TicketJournal.JOURNAL_EXTENSION).exists());
+		assertFalse(new File(file + TicketJournal.COMPACTING_EXTENSION).exists());
+		ArrayList<Ticket> compacted = TicketReader.readTicketFile(file);
+		assertEquals(5, compacted.size());
+		assertEquals(Ticket.WORKING_NAME, compacted.get(0).getState());
+
+		journal.recordCommand(tickets.get(0), process);
+		journal.flush();
+		ArrayList<Ticket> loaded = TicketJournal.replay(file, TicketReader.readTicketFile(file));
+		assertEquals(2, loaded.get(0).getNoteCount());
+		journal.discard();
+		assertFalse(new File(file + TicketJournal.JOURNAL_EXTENSION).exists());
+	}
+
+	/**
+	 * Test for method flush() called from several threads at once
+	 *
+	 * @throws InterruptedException if a thread is interrupted
+	 */
+	@Test
+	public void testFlushConcurrent() throws InterruptedException {
+		TicketWriter.writeTicketFile(file, new ArrayList<Ticket>());
+		TicketJournal journal = new TicketJournal(file);
+		journal.discard();
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			int first = 100 + t * 50;
+			threads[t] = new Thread(() -> {
+				for (int id = first; id < first + 50; id++) {
+					journal.recordAdd(new Ticket(id, "New", "Request", "Printer", "Benson", "Hardware", "Low", "", null,
+							new ArrayList<String>()));
+					journal.flush();
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertFalse(journal.hasPendingChanges());
+		assertEquals(200, TicketJournal.replay(file, new ArrayList<Ticket>()).size());
+		journal.close();
+	}
+}
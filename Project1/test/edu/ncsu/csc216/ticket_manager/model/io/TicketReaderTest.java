@@ -1,11 +1,21 @@
 package edu.ncsu.csc216.ticket_manager.model.io;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
 
@@ -17,6 +27,10 @@ import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
  */
 public class TicketReaderTest {
 
+	/** Folder for the files written by the tests */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	/**
 	 * Test for method readTicketFile()
 	 */
@@ -31,6 +45,250 @@ public class TicketReaderTest {
 			assertEquals(e.getMessage(), "Unable to load file.");
 		}
 	}
-	
+
+	/**
+	 * Test for method readTicketFile() with notes that span several lines
+	 */
+	@Test
+	public void testReadTicketFileNotes() {
+		ArrayList<Ticket> tickets = TicketReader.readTicketFile("test-files/ticket2.txt");
+		assertEquals(3, tickets.size());
+		assertEquals(3, tickets.get(0).getTicketId());
+		assertEquals("-a note\n-a note with\na new line\n-a third note\n", tickets.get(0).getNotes());
+		assertEquals("Not Completed", tickets.get(0).getCode());
+		assertEquals("-a note 3\n", tickets.get(2).getNotes());
+		assertEquals("", tickets.get(2).getOwner());
+	}
+
+	/**
+	 * Test for method readTicketFileMapped()
+	 */
+	@Test
+	public void testReadTicketFileMapped() {
+		ArrayList<Ticket> tickets = TicketReader.readTicketFileMapped("test-files/ticket2.txt");
+		assertEquals(3, tickets.size());
+		assertEquals("-a note\n-a note with\na new line\n-a third note\n", tickets.get(0).getNotes());
+		assertEquals(7, tickets.get(2).getTicketId());
+		assertEquals(6, TicketReader.readTicketFileMapped("test-files/ticket1.txt").size());
+		try {
+			TicketReader.readTicketFileMapped("test-files/does-not-exist.txt");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unable to load file.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for method readTicketFile() and readTicketFileMapped() sharing the
+	 * names of one file
+	 */
+	@Test
+	public void testReadTicketFileNames() {
+		ArrayList<Ticket> tickets = TicketReader.readTicketFile("test-files/ticket1.txt");
+		assertEquals("sesmith5", tickets.get(0).getCaller());
+		assertSame(tickets.get(0).getCaller(), tickets.get(1).getCaller());
+		tickets = TicketReader.readTicketFileMapped("test-files/ticket1.txt");
+		assertSame(tickets.get(0).getCaller(), tickets.get(1).getCaller());
+	}
+
+	/**
+	 * Test for method readTicketFileParallel()
+	 */
+	@Test
+	public void testReadTicketFileParallel() {
+		ArrayList<Ticket> expected = TicketReader.readTicketFile("test-files/ticket1.txt");
+		for (int chunks = 1; chunks <= 8; chunks++) {
+			ArrayList<Ticket> tickets = TicketReader.readTicketFileParallel("test-files/ticket1.txt", chunks);
+			assertEquals(expected.size(), tickets.size());
+			for (int i = 0; i < tickets.size(); i++) {
+				assertEquals(expected.get(i).toString(), tickets.get(i).toString());
+			}
+		}
+		assertEquals(3, TicketReader.readTicketFileParallel("test-files/ticket2.txt").size());
+		try {
+			TicketReader.readTicketFileParallel("test-files/does-not-exist.txt");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unable to load file.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for method readTicketFileMapped(), readTicketFileParallel() and
+	 * readTicketFileLazy() with bytes that are not UTF-8
+	 * 
+	 * @throws IOException if the file cannot be written
+	 */
+	@Test
+	public void testReadTicketFileMalformed() throws IOException {
+		File file = folder.newFile("malformed.txt");
+		byte[] bytes = "*3#Closed#Request#Subject \0 line#caller#Inquiry#Medium#owner#Not Completed\r\n-a \0 note\r\n"
+				.getBytes("UTF-8");
+		for (int i = 0; i < bytes.length; i++) {
+			if (bytes[i] == 0) {
+				bytes[i] = (byte) 0xFF;
+			}
+		}
+		Files.write(file.toPath(), bytes);
+		String fileName = file.getPath();
+		ArrayList<Ticket> expected = TicketReader.readTicketFile(fileName);
+		assertEquals("Subject \ufffd line", expected.get(0).getSubject());
+		assertEquals("-a \ufffd note\n", expected.get(0).getNotes());
+		assertEquals(expected.get(0).toString(), TicketReader.readTicketFileMapped(fileName).get(0).toString());
+		for (int chunks = 1; chunks <= 4; chunks++) {
+			assertEquals(expected.get(0).toString(),
+					TicketReader.readTicketFileParallel(fileName, chunks).get(0).toString());
+		}
+		assertEquals(expected.get(0).toString(), TicketReader.readTicketFileLazy(fileName).get(0).toString());
+	}
+
+	/**
+	 * Test for method readTicketFileLazy()
+	 */
+	@Test
+	public void testReadTicketFileLazy() {
+		for (int n = 1; n <= 20; n++) {
+			String fileName = "test-files/ticket" + n + ".txt";
+			ArrayList<Ticket> expected = TicketReader.readTicketFile(fileName);
+			ArrayList<Ticket> tickets = TicketReader.readTicketFileLazy(fileName);
+			assertEquals(fileName, expected.size(), tickets.size());
+			for (int i = 0; i < tickets.size(); i++) {
+				assertEquals(expected.get(i).getSubject(), tickets.get(i).getSubject());
+				assertEquals(expected.get(i).toString(), tickets.get(i).toString());
+			}
+		}
+		LazyTicketList tickets = TicketReader.readTicketFileLazy("test-files/ticket2.txt");
+		assertEquals("-a note 3\n", tickets.get(2).getNotes());
+		tickets.close();
+		assertEquals("-a note 3\n", tickets.get(2).getNotes());
+		try {
+			tickets.get(0).getNotes();
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unable to load file.", e.getMessage());
+		}
+		try {
+			TicketReader.readTicketFileLazy("test-files/does-not-exist.txt");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unable to load file.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for method readTicketFile() and readTicketFileLazy() with a progress
+	 */
+	@Test
+	public void testReadTicketFileProgress() {
+		String fileName = "test-files/ticket1.txt";
+		long length = new File(fileName).length();
+		long[] last = new long[2];
+		TicketProgress progress = new TicketProgress() {
+			@Override
+			public void progress(long done, long total) {
+				assertTrue(done >= last[0]);
+				last[0] = done;
+				last[1] = total;
+			}
+
+			@Override
+			public boolean isCanceled() {
+				return false;
+			}
+		};
+		assertEquals(6, TicketReader.readTicketFile(fileName, progress).size());
+		assertEquals(length, last[0]);
+		assertEquals(length, last[1]);
+		last[0] = 0;
+		assertEquals(6, TicketReader.readTicketFileLazy(fileName, progress).size());
+		assertEquals(length, last[0]);
+		TicketProgress canceled = new TicketProgress() {
+			@Override
+			public void progress(long done, long total) {
+				fail();
+			}
+
+			@Override
+			public boolean isCanceled() {
+				return true;
+			}
+		};
+		try {
+			TicketReader.readTicketFile(fileName, canceled);
+			fail();
+		} catch (CancellationException e) {
+			assertEquals("Canceled.", e.getMessage());
+		}
+		try {
+			TicketReader.readTicketFileLazy(fileName, canceled);
+			fail();
+		} catch (CancellationException e) {
+			assertEquals("Canceled.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for method readTicketFileParallel() with a progress
+	 */
+	@Test
+	public void testReadTicketFileParallelProgress() {
+		String fileName = "test-files/ticket1.txt";
+		long length = new File(fileName).length();
+		long[] last = new long[2];
+		TicketProgress progress = new TicketProgress() {
+			@Override
+			public void progress(long done, long total) {
+				assertTrue(done >= last[0]);
+				last[0] = done;
+				last[1] = total;
+			}
+
+			@Override
+			public boolean isCanceled() {
+				return false;
+			}
+		};
+		for (int chunks = 1; chunks <= 8; chunks++) {
+			last[0] = 0;
+			assertEquals(6, TicketReader.readTicketFileParallel(fileName, chunks, progress).size());
+			assertEquals(length, last[0]);
+			assertEquals(length, last[1]);
+		}
+		TicketProgress canceled = new TicketProgress() {
+			@Override
+			public void progress(long done, long total) {
+				fail();
+			}
+
+			@Override
+			public boolean isCanceled() {
+				return true;
+			}
+		};
+		try {
+			TicketReader.readTicketFileParallel(fileName, 4, canceled);
+			fail();
+		} catch (CancellationException e) {
+			assertEquals("Canceled.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for method readTickets() with records that are not valid
+	 * 
+	 * @throws IOException if the records cannot be read
+	 */
+	@Test
+	public void testReadTicketsInvalid() throws IOException {
+		String records = "*#Closed#Request#Subject#caller#Inquiry#Medium#owner#Completed\n-skipped\n"
+				+ "*12#Bad#Request#Subject#caller#Inquiry#Medium##\n-skipped\n"
+				+ "*123#Working#Incident#Subject#caller#Network#High#owner\r\n-kept\r\n"
+				+ "*124#New#Request#Subject#caller";
+		ArrayList<Ticket> tickets = TicketReader.readTickets(new StringReader(records));
+		assertEquals(1, tickets.size());
+		assertEquals(123, tickets.get(0).getTicketId());
+		assertEquals("owner", tickets.get(0).getOwner());
+		assertEquals("-kept\n", tickets.get(0).getNotes());
+	}
 
 }
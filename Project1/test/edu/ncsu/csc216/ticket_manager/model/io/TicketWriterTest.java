@@ -2,10 +2,21 @@ package edu.ncsu.csc216.ticket_manager.model.io;
 
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
 
+import org.junit.Assume;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
 
@@ -16,6 +27,10 @@ import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
  */
 public class TicketWriterTest {
 
+	/** Folder the tests write to, deleted after each test */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	/**
 	 * Test for method writeTicketFile()
 	 */
@@ -38,4 +53,110 @@ public class TicketWriterTest {
 		
 	}
 
+	/**
+	 * Test for method writeTicketFileAtomic()
+	 */
+	@Test
+	public void testWriteTicketFileAtomic() {
+		String file = new File(folder.getRoot(), "TicketWriterTest.txt").getPath();
+		ArrayList<Ticket> tickets = TicketReader.readTicketFile("test-files/ticket1.txt");
+		TicketWriter.writeTicketFileAtomic(file, tickets);
+		assertEquals(6, TicketReader.readTicketFile(file).size());
+		tickets.add(null);
+		try {
+			TicketWriter.writeTicketFileAtomic(file, tickets);
+			fail();
+		} catch (NullPointerException e) {
+			assertEquals(6, TicketReader.readTicketFile(file).size());
+		}
+		assertEquals(0, folder.getRoot().list((dir, name) -> name.endsWith(".tmp")).length);
+		try {
+			TicketWriter.writeTicketFileAtomic(new File(folder.getRoot(), "no-such-directory/TicketWriterTest.txt").getPath(), tickets);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unable to save file.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for method writeTicketFileAtomic() keeping the permissions of the
+	 * file it replaces
+	 *
+	 * @throws IOException if the permissions cannot be read or set
+	 */
+	@Test
+	public void testWriteTicketFileAtomicPermissions() throws IOException {
+		Path file = folder.getRoot().toPath().resolve("TicketWriterTest.txt");
+		ArrayList<Ticket> tickets = TicketReader.readTicketFile("test-files/ticket1.txt");
+		TicketWriter.writeTicketFileAtomic(file.toString(), tickets);
+		Assume.assumeNotNull(Files.getFileAttributeView(file, PosixFileAttributeView.class));
+		// A new file gets the same permissions as any other new file
+		assertEquals(Files.getPosixFilePermissions(folder.newFile("plain.txt").toPath()),
+				Files.getPosixFilePermissions(file));
+		Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-rw-r--"));
+		TicketWriter.writeTicketFileAtomic(file.toString(), tickets);
+		assertEquals(PosixFilePermissions.fromString("rw-rw-r--"), Files.getPosixFilePermissions(file));
+	}
+
+	/**
+	 * Test for method writeTicketFileAtomic() with a progress
+	 */
+	@Test
+	public void testWriteTicketFileAtomicProgress() {
+		String file = new File(folder.getRoot(), "TicketWriterTest.txt").getPath();
+		ArrayList<Ticket> tickets = TicketReader.readTicketFile("test-files/ticket1.txt");
+		long[] last = new long[2];
+		TicketWriter.writeTicketFileAtomic(file, tickets, new TicketProgress() {
+			@Override
+			public void progress(long done, long total) {
+				last[0] = done;
+				last[1] = total;
+			}
+
+			@Override
+			public boolean isCanceled() {
+				return false;
+			}
+		});
+		assertEquals(6, last[0]);
+		assertEquals(6, last[1]);
+		tickets.remove(0);
+		try {
+			TicketWriter.writeTicketFileAtomic(file, tickets, new TicketProgress() {
+				@Override
+				public void progress(long done, long total) {
+					fail();
+				}
+
+				@Override
+				public boolean isCanceled() {
+					return true;
+				}
+			});
+			fail();
+		} catch (CancellationException e) {
+			assertEquals(6, TicketReader.readTicketFile(file).size());
+		}
+		assertEquals(0, folder.getRoot().list((dir, name) -> name.endsWith(".tmp")).length);
+	}
+
+	/**
+	 * Test for method writeTicketFile() reading the file back
+	 */
+	@Test
+	public void testWriteTicketFileRoundTrip() {
+		String file = new File(folder.getRoot(), "TicketWriterTest.txt").getPath();
+		ArrayList<Ticket> tickets = TicketReader.readTicketFile("test-files/ticket2.txt");
+		for (int i = 0; i < 5000; i++) {
+			tickets.add(new Ticket(Ticket.TicketType.INCIDENT, "Subject \u00e9 " + i, "caller", Ticket.Category.NETWORK,
+					Ticket.Priority.LOW, "note " + i));
+		}
+		TicketWriter.writeTicketFile(file, tickets);
+		ArrayList<Ticket> read = TicketReader.readTicketFile(file);
+		assertEquals(tickets.size(), read.size());
+		for (int i = 0; i < tickets.size(); i++) {
+			assertEquals(tickets.get(i).toString(), read.get(i).toString());
+		}
+	}
+
 }
@@ -0,0 +1,144 @@
+package edu.ncsu.csc216.ticket_manager.model.manager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+
+/**
+ * Class for testing TicketArchive
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketArchiveTest {
+
+	/**
+	 * Returns a Closed ticket with two notes
+	 *
+	 * @param id ID of ticket
+	 * @return new Ticket
+	 */
+	private static Ticket closed(int id) {
+		ArrayList<String> notes = new ArrayList<String>();
+		notes.add("Caf\u00e9 printer " + id);
+		notes.add("done");
+		return new Ticket(id, "Closed", "Request", "Printer " + id, "sesmith5", "Hardware", "High", "jtking",
+				"Completed", notes);
+	}
+
+	/**
+	 * Test for method get()
+	 */
+	@Test
+	public void testGet() {
+		TicketArchive archive = new TicketArchive();
+		Ticket closed = closed(3);
+		Ticket canceled = new Ticket(1, "Canceled", "Incident", "Pizza", "wpack", "Inquiry", "Urgent", "",
+				"Inappropriate", new ArrayList<String>());
+		archive.add(closed);
+		archive.add(canceled);
+		assertEquals(2, archive.size());
+		assertArrayEquals(new int[] { 1, 3 }, archive.getIds());
+		assertEquals(closed.toString(), archive.get(3).toString());
+		assertEquals(canceled.toString(), archive.get(1).toString());
+		assertEquals(Ticket.CANCELED_NAME, archive.get(1).getState());
+		assertNull(archive.get(2));
+		assertFalse(archive.contains(2));
+		assertTrue(archive.getTextSize() > 0);
+	}
+
+	/**
+	 * Test for method getDisplayRow()
+	 */
+	@Test
+	public void testGetDisplayRow() {
+		TicketArchive archive = new TicketArchive();
+		archive.add(closed(7));
+		assertArrayEquals(new String[] { "7", "Request", "Closed", "Printer 7", "Hardware", "High" },
+				archive.getDisplayRow(7));
+		assertNull(archive.getDisplayRow(8));
+	}
+
+	/**
+	 * Test for method nextId()
+	 */
+	@Test
+	public void testNextId() {
+		TicketArchive archive = new TicketArchive();
+		assertEquals(-1, archive.nextId(0));
+		archive.add(closed(9));
+		archive.add(closed(4));
+		archive.add(closed(6));
+		assertEquals(4, archive.nextId(Integer.MIN_VALUE));
+		assertEquals(6, archive.nextId(4));
+		assertEquals(6, archive.nextId(5));
+		assertEquals(9, archive.nextId(6));
+		assertEquals(-1, archive.nextId(9));
+		archive.remove(6);
+		assertEquals(9, archive.nextId(4));
+	}
+
+	/**
+	 * Test for method remove()
+	 */
+	@Test
+	public void testRemove() {
+		TicketArchive archive = new TicketArchive();
+		ArrayList<Ticket> tickets = new ArrayList<Ticket>();
+		for (int id = 100; id > 0; id--) {
+			tickets.add(closed(id));
+		}
+		archive.addAll(tickets);
+		for (int id = 1; id <= 100; id++) {
+			if (id % 3 != 0) {
+				assertTrue(archive.remove(id));
+				assertFalse(archive.contains(id));
+				assertNull(archive.get(id));
+				assertTrue(archive.contains(Math.min(99, id + 3 - id % 3)));
+			}
+		}
+		assertFalse(archive.remove(1));
+		assertEquals(33, archive.size());
+		assertEquals(3, archive.getIds()[0]);
+		for (int id = 3; id <= 100; id += 3) {
+			assertEquals(closed(id).toString(), archive.get(id).toString());
+		}
+		archive.remove(3);
+		archive.add(closed(1));
+		assertEquals(33, archive.size());
+		assertEquals(1, archive.getIds()[0]);
+		assertEquals(6, archive.nextId(1));
+		assertEquals(closed(1).toString(), archive.get(1).toString());
+		archive.clear();
+		assertEquals(0, archive.size());
+		assertNull(archive.get(3));
+	}
+
+	/**
+	 * Test for method textCapacity()
+	 */
+	@Test
+	public void testTextCapacity() {
+		assertEquals(8192, TicketArchive.textCapacity(4096, 5000));
+		assertEquals(4096, TicketArchive.textCapacity(4096, 4096));
+		assertEquals(TicketArchive.MAX_TEXT_CAPACITY, TicketArchive.textCapacity(1 << 30, (1L << 30) + 1));
+		assertEquals(TicketArchive.MAX_TEXT_CAPACITY,
+				TicketArchive.textCapacity(TicketArchive.MAX_TEXT_CAPACITY, TicketArchive.MAX_TEXT_CAPACITY));
+		try {
+			TicketArchive.textCapacity(1 << 30, TicketArchive.MAX_TEXT_CAPACITY + 1L);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Archive text cannot be larger than " + TicketArchive.MAX_TEXT_CAPACITY + " bytes.",
+					e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package edu.ncsu.csc216.ticket_manager.model.manager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.ticket_manager.model.command.Command;
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+
+/**
+ * Class for testing TicketAttributeIndex
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketAttributeIndexTest {
+
+	ArrayList<String> notes = new ArrayList<String>();
+	Ticket ticket1 = new Ticket(1, "New", "Request", "Internet down", "Benson", "Network", "Urgent", "", null, notes);
+	Ticket ticket2 = new Ticket(2, "Working", "Incident", "Big problem", "Bender", "Database", "Low", "Bentonio", null,
+			notes);
+	Ticket ticket3 = new Ticket(3, "Working", "Request", "Printer", "Bender", "Hardware", "Low", "Bentonio", null,
+			notes);
+
+	/**
+	 * Test for method add()
+	 */
+	@Test
+	public void testAdd() {
+		TicketAttributeIndex index = new TicketAttributeIndex();
+		index.add(ticket1);
+		index.add(ticket2);
+		index.add(ticket3);
+		assertArrayEquals(new int[] { 1, 3 }, index.getIdsByType(Ticket.TicketType.REQUEST));
+		assertArrayEquals(new int[] { 2, 3 }, index.getIdsByPriority(Ticket.Priority.LOW));
+		assertArrayEquals(new int[] { 3 }, index.getIdsByCategory(Ticket.Category.HARDWARE));
+		assertArrayEquals(new int[] { 2, 3 }, index.getIdsByState(Ticket.WORKING_NAME));
+		assertArrayEquals(new int[] { 2, 3 }, index.getIdsByOwner("Bentonio"));
+		assertEquals(0, index.getIdsByOwner("").length);
+		assertEquals(0, index.getIdsByCategory(Ticket.Category.SOFTWARE).length);
+	}
+
+	/**
+	 * Test for method remove() around a state change
+	 */
+	@Test
+	public void testRemove() {
+		TicketAttributeIndex index = new TicketAttributeIndex();
+		index.add(ticket1);
+		index.add(ticket2);
+		index.remove(ticket1);
+		ticket1.update(new Command(Command.CommandValue.PROCESS, "Ben", null, null, null, "note"));
+		index.add(ticket1);
+		assertArrayEquals(new int[] { 1, 2 }, index.getIdsByState(Ticket.WORKING_NAME));
+		assertEquals(0, index.getIdsByState(Ticket.NEW_NAME).length);
+		assertArrayEquals(new int[] { 1 }, index.getIdsByOwner("Ben"));
+		index.remove(ticket2);
+		assertArrayEquals(new int[] { 1 }, index.getIdsByState(Ticket.WORKING_NAME));
+		index.clear();
+		assertEquals(0, index.getIdsByType(Ticket.TicketType.REQUEST).length);
+	}
+
+	/**
+	 * Test for method getIdsByOwner() with owners of a few tickets with high IDs
+	 */
+	@Test
+	public void testGetIdsByOwner() {
+		TicketAttributeIndex index = new TicketAttributeIndex();
+		ArrayList<Ticket> tickets = new ArrayList<Ticket>();
+		for (int i = 0; i < 1000; i++) {
+			Ticket ticket = new Ticket(1000000 + i, "Working", "Request", "Printer", "Bender", "Hardware", "Low",
+					"owner" + i % 100, null, notes);
+			tickets.add(ticket);
+			index.add(ticket);
+		}
+		assertArrayEquals(new int[] { 1000007, 1000107, 1000207, 1000307, 1000407, 1000507, 1000607, 1000707,
+				1000807, 1000907 }, index.getIdsByOwner("owner7"));
+		for (int i = 0; i < 1000; i += 100) {
+			index.remove(tickets.get(i + 7));
+		}
+		assertEquals(0, index.getIdsByOwner("owner7").length);
+		index.add(tickets.get(7));
+		assertArrayEquals(new int[] { 1000007 }, index.getIdsByOwner("owner7"));
+		assertEquals(10, index.getIdsByOwner("owner8").length);
+	}
+}
@@ -0,0 +1,86 @@
+package edu.ncsu.csc216.ticket_manager.model.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+
+/**
+ * Class for testing TicketIdIndex
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketIdIndexTest {
+
+	ArrayList<String> notes = new ArrayList<String>();
+
+	/**
+	 * Creates a ticket with the given ID
+	 *
+	 * @param id ID of ticket
+	 * @return Ticket with the given ID
+	 */
+	private Ticket ticket(int id) {
+		return new Ticket(id, "New", "Request", "Internet down", "Benson", "Network", "Urgent", "Ben", null, notes);
+	}
+
+	/**
+	 * Test for methods put() and get()
+	 */
+	@Test
+	public void testPutAndGet() {
+		TicketIdIndex index = new TicketIdIndex();
+		Ticket a = ticket(1);
+		Ticket b = ticket(2);
+		assertTrue(index.put(a));
+		assertTrue(index.put(b));
+		assertFalse(index.put(ticket(1)));
+		assertEquals(2, index.size());
+		assertSame(a, index.get(1));
+		assertSame(b, index.get(2));
+		assertNull(index.get(3));
+	}
+
+	/**
+	 * Test for method remove()
+	 */
+	@Test
+	public void testRemove() {
+		TicketIdIndex index = new TicketIdIndex();
+		for (int i = 0; i < 1000; i++) {
+			index.put(ticket(i * 16));
+		}
+		for (int i = 0; i < 1000; i += 2) {
+			assertEquals(i * 16, index.remove(i * 16).getTicketId());
+		}
+		assertNull(index.remove(0));
+		assertEquals(500, index.size());
+		for (int i = 0; i < 1000; i++) {
+			if (i % 2 == 0) {
+				assertNull(index.get(i * 16));
+			} else {
+				assertEquals(i * 16, index.get(i * 16).getTicketId());
+			}
+		}
+	}
+
+	/**
+	 * Test for method clear()
+	 */
+	@Test
+	public void testClear() {
+		TicketIdIndex index = new TicketIdIndex();
+		index.put(ticket(5));
+		index.clear();
+		assertEquals(0, index.size());
+		assertNull(index.get(5));
+	}
+}
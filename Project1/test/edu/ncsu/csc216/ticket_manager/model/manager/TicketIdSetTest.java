@@ -0,0 +1,106 @@
+package edu.ncsu.csc216.ticket_manager.model.manager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+/**
+ * Class for testing TicketIdSet
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketIdSetTest {
+
+	/**
+	 * Test for method add() and remove()
+	 */
+	@Test
+	public void testAddRemove() {
+		TicketIdSet set = new TicketIdSet();
+		assertTrue(set.isEmpty());
+		assertTrue(set.add(5));
+		assertFalse(set.add(5));
+		assertTrue(set.add(100000));
+		assertTrue(set.contains(5));
+		assertFalse(set.contains(6));
+		assertFalse(set.contains(-1));
+		assertEquals(2, set.size());
+		assertTrue(set.remove(5));
+		assertFalse(set.remove(5));
+		assertFalse(set.remove(200000));
+		assertArrayEquals(new int[] { 100000 }, set.toArray());
+		try {
+			set.add(-1);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			assertEquals("ID cannot be negative.", e.getMessage());
+		}
+		set.clear();
+		assertEquals(0, set.size());
+		assertEquals(-1, set.next(0));
+	}
+
+	/**
+	 * Test for method select(), rank() and next() against a TreeSet
+	 */
+	@Test
+	public void testSelectRank() {
+		TicketIdSet set = new TicketIdSet();
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		Random random = new Random(42);
+		for (int i = 0; i < 20000; i++) {
+			int id = random.nextInt(i < 10000 ? 5000 : 70000);
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(id), set.remove(id));
+			} else {
+				assertEquals(expected.add(id), set.add(id));
+			}
+		}
+		assertEquals(expected.size(), set.size());
+		ArrayList<Integer> sorted = new ArrayList<Integer>(expected);
+		for (int k = 0; k < sorted.size(); k++) {
+			int id = sorted.get(k);
+			assertEquals(id, set.select(k));
+			assertEquals(k, set.rank(id));
+			assertEquals(id, set.next(k == 0 ? 0 : sorted.get(k - 1) + 1));
+		}
+		assertEquals(-1, set.select(sorted.size()));
+		assertEquals(-1, set.select(-1));
+		assertEquals(0, set.rank(0));
+		assertEquals(set.size(), set.rank(Integer.MAX_VALUE));
+		assertEquals(expected.headSet(30000).size(), set.rank(30000));
+		assertEquals(-1, set.next(sorted.get(sorted.size() - 1) + 1));
+	}
+
+	/**
+	 * Test for method next() skipping empty blocks
+	 */
+	@Test
+	public void testNextSparse() {
+		TicketIdSet set = new TicketIdSet();
+		set.add(3);
+		set.add(510);
+		set.add(511);
+		set.add(512);
+		set.add(100000);
+		set.add(1000000);
+		assertEquals(3, set.next(0));
+		assertEquals(510, set.next(4));
+		assertEquals(512, set.next(512));
+		assertEquals(100000, set.next(513));
+		assertEquals(1000000, set.next(100001));
+		assertEquals(-1, set.next(1000001));
+		set.remove(1000000);
+		assertEquals(-1, set.next(100001));
+		assertEquals(5, set.toArray().length);
+	}
+}
@@ -0,0 +1,65 @@
+package edu.ncsu.csc216.ticket_manager.model.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/**
+ * Class for testing TicketLocks
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketLocksTest {
+
+	/**
+	 * Test for method lockTicket()
+	 *
+	 * @throws InterruptedException if a thread is interrupted
+	 */
+	@Test
+	public void testLockTicket() throws InterruptedException {
+		TicketLocks locks = new TicketLocks();
+		assertFalse(locks.isEnabled());
+		locks.setEnabled(true);
+		assertTrue(locks.isEnabled());
+		AtomicBoolean inside = new AtomicBoolean();
+		int[] overlaps = new int[1];
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 1000; i++) {
+					locks.lockRead();
+					locks.lockTicket(7);
+					if (inside.getAndSet(true)) {
+						overlaps[0]++;
+					}
+					inside.set(false);
+					locks.unlockTicket(7);
+					locks.unlockRead();
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, overlaps[0]);
+	}
+
+	/**
+	 * Test for method setEnabled() turning locking off
+	 */
+	@Test
+	public void testDisabled() {
+		TicketLocks locks = new TicketLocks();
+		locks.lockWrite();
+		locks.unlockRead();
+		locks.unlockTicket(3);
+		assertFalse(locks.isEnabled());
+	}
+}
@@ -1,13 +1,38 @@
 package edu.ncsu.csc216.ticket_manager.model.manager;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Spliterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
+import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import edu.ncsu.csc216.ticket_manager.model.command.Command;
+import edu.ncsu.csc216.ticket_manager.model.io.TicketJournal;
+import edu.ncsu.csc216.ticket_manager.model.io.TicketProgress;
+import edu.ncsu.csc216.ticket_manager.model.io.TicketReader;
 import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+import edu.ncsu.csc216.ticket_manager.model.ticket.TicketTransitions;
 
 /**
  * Class for testing TicketManager
@@ -25,11 +50,26 @@ public class TicketManagerTest {
 
 	TicketManager tm = TicketManager.getInstance();
 
+	/** Folder for the files written by the tests */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Starts each test from an empty ticket list, so no test depends on the
+	 * tickets another test left in the shared TicketManager
+	 */
+	@Before
+	public void setUp() {
+		tm.createNewTicketList();
+	}
+
 	/**
 	 * Test for method addTicketToList()
 	 */
 	@Test
 	public void testAddTicketToList() {
+		tm.loadTicketsFromFile("test-files/ticket1.txt");
+		tm.deleteTicketById(3);
 		tm.addTicketToList(Ticket.TicketType.INCIDENT, "subject", "caller", Ticket.Category.DATABASE,
 				Ticket.Priority.HIGH, "notes");
 		assertEquals(tm.getTickets().size(), 6);
@@ -47,6 +87,86 @@ public class TicketManagerTest {
 
 	}
 
+	/**
+	 * Test for method saveTicketsToFile() in the concurrent mode, with another
+	 * thread changing the list while the file is written
+	 * 
+	 * @throws InterruptedException if a thread is interrupted
+	 */
+	@Test
+	public void testSaveTicketsToFileConcurrent() throws InterruptedException {
+		String file = new File(folder.getRoot(), "TicketManagerTest.txt").getPath();
+		tm.loadTicketsFromFile("test-files/ticket1.txt");
+		tm.setConcurrent(true);
+		try {
+			Thread[] changer = new Thread[1];
+			TicketProgress progress = new TicketProgress() {
+				@Override
+				public void progress(long done, long total) {
+					if (changer[0] != null) {
+						return;
+					}
+					changer[0] = new Thread(() -> {
+						tm.addTicketToList(Ticket.TicketType.INCIDENT, "subject", "caller", Ticket.Category.DATABASE,
+								Ticket.Priority.HIGH, "notes");
+						tm.executeCommand(1, new Command(Command.CommandValue.PROCESS, "Benson", null, null, null,
+								"note"));
+					});
+					changer[0].start();
+					try {
+						changer[0].join(10000);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+
+				@Override
+				public boolean isCanceled() {
+					return false;
+				}
+			};
+			tm.saveTicketsToFile(file, progress);
+			assertFalse(changer[0].isAlive());
+			assertEquals(7, tm.getTickets().size());
+			assertEquals(6, TicketReader.readTicketFile(file).size());
+			assertEquals("New", TicketReader.readTicketFile(file).get(0).getState());
+			tm.saveTicketsToFile(file);
+			tm.createNewTicketList();
+			tm.loadTicketsFromFile(file);
+			assertEquals(7, tm.getTickets().size());
+			assertEquals("Working", tm.getTicketById(1).getState());
+		} finally {
+			tm.setConcurrent(false);
+		}
+	}
+
+	/**
+	 * Test for method setLazyNotes(), with the file closed once the list is
+	 * replaced
+	 */
+	@Test
+	public void testLazyNotes() {
+		ArrayList<Ticket> expected = TicketReader.readTicketFile("test-files/ticket1.txt");
+		tm.setLazyNotes(true);
+		try {
+			assertTrue(tm.isLazyNotes());
+			tm.loadTicketsFromFile("test-files/ticket1.txt");
+			Ticket used = tm.getTicketById(1);
+			Ticket unused = tm.getTicketById(2);
+			assertEquals(expected.get(0).getNotes(), used.getNotes());
+			tm.createNewTicketList();
+			assertEquals(expected.get(0).getNotes(), used.getNotes());
+			try {
+				unused.getNotes();
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertEquals("Unable to load file.", e.getMessage());
+			}
+		} finally {
+			tm.setLazyNotes(false);
+		}
+	}
+
 	/**
 	 * Test for method loadTicketsFromFile()
 	 */
@@ -56,6 +176,47 @@ public class TicketManagerTest {
 		assertEquals(tm.getTickets().size(), 6);
 	}
 
+	/**
+	 * Test for method loadTicketsFromFile() with a progress that is canceled
+	 */
+	@Test
+	public void testLoadTicketsFromFileCanceled() {
+		tm.loadTicketsFromFile("test-files/ticket1.txt");
+		AtomicInteger reports = new AtomicInteger();
+		tm.loadTicketsFromFile("test-files/ticket2.txt", new TicketProgress() {
+			@Override
+			public void progress(long done, long total) {
+				reports.incrementAndGet();
+			}
+
+			@Override
+			public boolean isCanceled() {
+				return false;
+			}
+		});
+		assertTrue(reports.get() > 0);
+		ArrayList<Ticket> loaded = tm.getTickets();
+		try {
+			tm.loadTicketsFromFile("test-files/ticket1.txt", new TicketProgress() {
+				@Override
+				public void progress(long done, long total) {
+					// Nothing to report
+				}
+
+				@Override
+				public boolean isCanceled() {
+					return true;
+				}
+			});
+			fail();
+		} catch (CancellationException e) {
+			assertEquals(loaded.size(), tm.getTickets().size());
+			for (int i = 0; i < loaded.size(); i++) {
+				assertEquals(loaded.get(i).toString(), tm.getTickets().get(i).toString());
+			}
+		}
+	}
+
 	/**
 	 * Test for method createNewTicketList()
 	 */
@@ -75,6 +236,245 @@ public class TicketManagerTest {
 		assertEquals(tm.getTickets().size(), 6);
 	}
 
+	/**
+	 * Test for method getTicketsForDisplay() with a filter, sort key, offset and
+	 * limit, with and without archived tickets
+	 */
+	@Test
+	public void testGetTicketsForDisplayPage() {
+		Predicate<Ticket> requests = t -> t.getTicketType() == Ticket.TicketType.REQUEST;
+		for (int pass = 0; pass < 2; pass++) {
+			tm.setArchiveTerminal(pass == 1);
+			try {
+				tm.loadTicketsFromFile("test-files/ticket1.txt");
+				assertEquals(pass * 2, tm.getArchivedCount());
+				assertEquals("2,3", ids(tm.getTicketsForDisplay(null, null, 1, 2)));
+				assertEquals("3,5,6", ids(tm.getTicketsForDisplay(requests, TicketSortKey.ID, 1, 10)));
+				assertEquals("1,6,5", ids(tm.getTicketsForDisplay(null, TicketSortKey.PRIORITY, 0, 3)));
+				assertEquals("6,2", ids(tm.getTicketsForDisplay(null, TicketSortKey.SUBJECT, 4, 10)));
+				assertEquals("3,5,6", ids(tm.getTicketsForDisplay(requests, TicketSortKey.STATE, 1, 3)));
+				assertEquals("", ids(tm.getTicketsForDisplay(null, TicketSortKey.TYPE, 0, 0)));
+				assertEquals("", ids(tm.getTicketsForDisplay(null, null, 10, 5)));
+				String[][] all = tm.getTicketsForDisplay();
+				String[][] page = tm.getTicketsForDisplay(null, null, 0, Integer.MAX_VALUE);
+				assertEquals(all.length, page.length);
+				for (int i = 0; i < all.length; i++) {
+					assertArrayEquals(all[i], page[i]);
+				}
+			} finally {
+				tm.setArchiveTerminal(false);
+			}
+		}
+		try {
+			tm.getTicketsForDisplay(null, null, -1, 5);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Offset cannot be negative.", e.getMessage());
+		}
+		try {
+			tm.getTicketsForDisplay(null, null, 0, -1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Limit cannot be negative.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for method getTicketsForDisplay() served from the sorted indexes,
+	 * compared with the same pages sorted by visiting every ticket
+	 */
+	@Test
+	public void testGetTicketsForDisplaySorted() {
+		tm.setArchiveTerminal(true);
+		try {
+			tm.loadTicketsFromFile("test-files/ticket1.txt");
+		} finally {
+			tm.setArchiveTerminal(false);
+		}
+		Ticket.Priority[] priorities = Ticket.Priority.values();
+		Ticket.Category[] categories = Ticket.Category.values();
+		for (int i = 0; i < 300; i++) {
+			tm.addTicketToList(i % 3 == 0 ? Ticket.TicketType.REQUEST : Ticket.TicketType.INCIDENT, "subject " + i,
+					"caller", categories[i % categories.length], priorities[i * 7 % priorities.length], "notes");
+		}
+		for (int id = 10; id < 300; id += 4) {
+			tm.executeCommand(id, new Command(Command.CommandValue.PROCESS, "owner", null, null, null, "note"));
+		}
+		tm.deleteTicketById(20);
+		for (TicketSortKey key : TicketSortKey.values()) {
+			for (int offset = 0; offset < 320; offset += 37) {
+				assertEquals(key + " " + offset, ids(tm.getTicketsForDisplay(t -> true, key, offset, 25)),
+						ids(tm.getTicketsForDisplay(null, key, offset, 25)));
+			}
+		}
+		tm.executeCommand(5, new Command(Command.CommandValue.REOPEN, null, null, null, null, "reopened"));
+		String[][] rows = tm.getTicketsForDisplay(null, TicketSortKey.STATE, 0, Integer.MAX_VALUE);
+		assertEquals(tm.getTicketIds().length, rows.length);
+		for (int i = 1; i < rows.length; i++) {
+			int c = Integer.compare(TicketTransitions.getStateIndex(rows[i - 1][2]),
+					TicketTransitions.getStateIndex(rows[i][2]));
+			assertTrue(c < 0 || c == 0 && Integer.parseInt(rows[i - 1][0]) < Integer.parseInt(rows[i][0]));
+		}
+		assertEquals(Ticket.WORKING_NAME, tm.getTicketDisplayRow(5)[2]);
+		assertEquals("6", rows[rows.length - 1][0]);
+	}
+
+	/**
+	 * Test for method searchTickets() as tickets are added, changed and deleted
+	 */
+	@Test
+	public void testSearchTickets() {
+		tm.setArchiveTerminal(true);
+		tm.setSearchIndexed(true);
+		try {
+			tm.loadTicketsFromFile("test-files/ticket1.txt");
+			assertTrue(tm.isSearchIndexed());
+			assertArrayEquals(new int[] { 1, 2, 5 }, tm.searchTicketIds("sesmith5"));
+			assertArrayEquals(new int[] { 6 }, tm.searchTicketIds("pizza"));
+			assertArrayEquals(new int[] { 1, 2, 4 }, tm.searchTicketIds("github OR \"ebi 1011\""));
+			assertEquals("GitHub down", tm.searchTickets("github").get(0).getSubject());
+
+			tm.addTicketToList(Ticket.TicketType.INCIDENT, "Projector broken", "caller", Ticket.Category.HARDWARE,
+					Ticket.Priority.HIGH, "bulb is out");
+			int id = tm.getTicketIds()[6];
+			assertArrayEquals(new int[] { id }, tm.searchTicketIds("\"bulb is out\""));
+			tm.executeCommand(id, new Command(Command.CommandValue.PROCESS, "wolfpack", null, null, null, "New bulb"));
+			assertArrayEquals(new int[] { id }, tm.searchTicketIds("wolfpack new"));
+			tm.deleteTicketById(id);
+			tm.deleteTicketById(6);
+			assertArrayEquals(new int[0], tm.searchTicketIds("bulb OR pizza"));
+
+			tm.setSearchIndexed(false);
+			try {
+				tm.searchTicketIds("bulb");
+				fail();
+			} catch (IllegalStateException e) {
+				assertEquals("Search index is off.", e.getMessage());
+			}
+			tm.setSearchIndexed(true);
+			assertArrayEquals(new int[] { 1, 2, 5 }, tm.searchTicketIds("sesmith5"));
+		} finally {
+			tm.setSearchIndexed(false);
+			tm.setArchiveTerminal(false);
+		}
+		try {
+			tm.searchTicketIds(null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Query cannot be null.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for method getTicketIdsContaining()
+	 * 
+	 * @throws IOException if the unordered ticket file cannot be written
+	 */
+	@Test
+	public void testGetTicketIdsContaining() throws IOException {
+		tm.setArchiveTerminal(true);
+		tm.setSubstringIndexed(true);
+		try {
+			tm.loadTicketsFromFile("test-files/ticket1.txt");
+			assertTrue(tm.isSubstringIndexed());
+			assertArrayEquals(new int[] { 1, 2, 5 }, tm.getTicketIdsContaining("SMITH"));
+			assertArrayEquals(new int[] { 2, 4 }, tm.getTicketIdsContaining("work"));
+			assertArrayEquals(new int[] { 6 }, tm.getTicketIdsContaining("zz"));
+			assertArrayEquals(new int[] { 1 }, tm.getTicketIdsContaining("github d"));
+			assertArrayEquals(new int[] { 1, 2, 3, 4, 5, 6 }, tm.getTicketIdsContaining(""));
+
+			tm.addTicketToList(Ticket.TicketType.INCIDENT, "Projector broken", "caller", Ticket.Category.HARDWARE,
+					Ticket.Priority.HIGH, "bulb is out");
+			int id = tm.getTicketIds()[6];
+			assertArrayEquals(new int[] { id }, tm.getTicketIdsContaining("jector"));
+			tm.deleteTicketById(id);
+			tm.deleteTicketById(6);
+			assertArrayEquals(new int[0], tm.getTicketIdsContaining("jector"));
+			assertArrayEquals(new int[0], tm.getTicketIdsContaining("zz"));
+
+			tm.setSubstringIndexed(false);
+			try {
+				tm.getTicketIdsContaining("smith");
+				fail();
+			} catch (IllegalStateException e) {
+				assertEquals("Substring index is off.", e.getMessage());
+			}
+			tm.setSubstringIndexed(true);
+			assertArrayEquals(new int[] { 1, 2, 5 }, tm.getTicketIdsContaining("sesmith5"));
+		} finally {
+			tm.setSubstringIndexed(false);
+			tm.setArchiveTerminal(false);
+		}
+		tm.setSubstringIndexed(true);
+		try {
+			File file = folder.newFile("unordered.txt");
+			Files.write(file.toPath(), ("*3#New#Incident#Printer jam#sesmith5#Hardware#Low##\n-note\n"
+					+ "*1#New#Request#Toner#jtking#Hardware#Low##\n-note\n").getBytes(StandardCharsets.UTF_8));
+			tm.loadTicketsFromFile(file.getPath());
+			assertArrayEquals(new int[] { 3, 1 }, tm.getTicketIds());
+			assertArrayEquals(new int[] { 1, 3 }, tm.getTicketIdsContaining(""));
+		} finally {
+			tm.setSubstringIndexed(false);
+		}
+		try {
+			tm.getTicketIdsContaining(null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Text cannot be null.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for method getTicketDisplayCursor()
+	 */
+	@Test
+	public void testGetTicketDisplayCursor() {
+		tm.setArchiveTerminal(true);
+		try {
+			tm.loadTicketsFromFile("test-files/ticket1.txt");
+		} finally {
+			tm.setArchiveTerminal(false);
+		}
+		Spliterator<String[]> cursor = tm.getTicketDisplayCursor(null);
+		assertEquals("1,2,3,4,5,6", StreamSupport.stream(cursor, false).map(row -> row[0])
+				.collect(Collectors.joining(",")));
+		cursor = tm.getTicketDisplayCursor(t -> t.getTicketType() == Ticket.TicketType.REQUEST);
+		assertEquals("2,3,5,6", StreamSupport.stream(cursor, false).map(row -> row[0])
+				.collect(Collectors.joining(",")));
+
+		cursor = tm.getTicketDisplayCursor(null);
+		assertTrue(cursor.tryAdvance(row -> assertEquals("1", row[0])));
+		assertTrue(cursor.tryAdvance(row -> assertEquals("2", row[0])));
+		tm.addTicketToList(Ticket.TicketType.INCIDENT, "subject", "caller", Ticket.Category.DATABASE,
+				Ticket.Priority.HIGH, "notes");
+		assertEquals(5, StreamSupport.stream(cursor, false).count());
+
+		cursor = tm.getTicketDisplayCursor(null);
+		assertTrue(cursor.tryAdvance(row -> assertEquals("1", row[0])));
+		assertTrue(cursor.tryAdvance(row -> assertEquals("2", row[0])));
+		tm.deleteTicketById(1);
+		try {
+			cursor.tryAdvance(row -> fail());
+			fail();
+		} catch (ConcurrentModificationException e) {
+			assertEquals(null, e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the IDs of display rows, separated by commas
+	 * 
+	 * @param rows display rows
+	 * @return IDs of the rows
+	 */
+	private static String ids(String[][] rows) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < rows.length; i++) {
+			sb.append(i == 0 ? "" : ",").append(rows[i][0]);
+		}
+		return sb.toString();
+	}
+
 	/**
 	 * Test for method getTicketsForDisplayByType()
 	 */
@@ -87,7 +487,27 @@ public class TicketManagerTest {
 			assertEquals(e.getMessage(), "Ticket type cannot be null.");
 		}
 		
-		tm.getTicketsForDisplayByType(Ticket.TicketType.INCIDENT);
+		String[][] incidents = tm.getTicketsForDisplayByType(Ticket.TicketType.INCIDENT);
+		assertEquals(2, incidents.length);
+		assertEquals("1", incidents[0][0]);
+		assertEquals("4", incidents[1][0]);
+	}
+
+	/**
+	 * Test for methods getTicketsByState() and getTicketsByOwner()
+	 */
+	@Test
+	public void testGetTicketsByAttribute() {
+		tm.loadTicketsFromFile("test-files/ticket1.txt");
+		assertEquals(1, tm.getTicketsByState(Ticket.NEW_NAME).size());
+		tm.executeCommand(1, new Command(Command.CommandValue.PROCESS, "jtking", null, null, null, "note"));
+		assertEquals(0, tm.getTicketsByState(Ticket.NEW_NAME).size());
+		assertEquals(2, tm.getTicketsByState(Ticket.WORKING_NAME).size());
+		assertEquals(2, tm.getTicketsByOwner("jtking").size());
+		assertEquals(3, tm.getTicketsByCategory(Ticket.Category.INQUIRY).size());
+		assertEquals(2, tm.getTicketsByPriority(Ticket.Priority.URGENT).size());
+		tm.deleteTicketById(5);
+		assertEquals(1, tm.getTicketsByOwner("jtking").size());
 	}
 
 	/**
@@ -113,11 +533,318 @@ public class TicketManagerTest {
 
 	/**
 	 * Test for method deleteTicketById()
+	 * 
+	 * @throws IOException if the unordered ticket file cannot be written
 	 */
 	@Test
-	public void testDeleteTicketById() {
+	public void testDeleteTicketById() throws IOException {
 		tm.loadTicketsFromFile("test-files/ticket1.txt");
 		tm.deleteTicketById(3);
 		assertEquals(tm.getTickets().size(), 5);
+		tm.deleteTicketById(6);
+		tm.deleteTicketById(1);
+		assertArrayEquals(new int[] { 2, 4, 5 }, tm.getTicketIds());
+
+		// A list that is not in order of ticket ID
+		File file = folder.newFile("unordered.txt");
+		Files.write(file.toPath(), ("*3#New#Incident#Printer jam#sesmith5#Hardware#Low##\n-note\n"
+				+ "*1#New#Request#Toner#jtking#Hardware#Low##\n-note\n"
+				+ "*2#New#Request#Paper#jtking#Hardware#Low##\n-note\n").getBytes(StandardCharsets.UTF_8));
+		tm.loadTicketsFromFile(file.getPath());
+		tm.deleteTicketById(1);
+		assertArrayEquals(new int[] { 3, 2 }, tm.getTicketIds());
+		tm.deleteTicketById(3);
+		assertArrayEquals(new int[] { 2 }, tm.getTicketIds());
+	}
+
+	/**
+	 * Test for method setWriteAheadLog()
+	 */
+	@Test
+	public void testWriteAheadLog() {
+		String file = new File(folder.getRoot(), "TicketManagerTest.txt").getPath();
+		tm.loadTicketsFromFile("test-files/ticket1.txt");
+		tm.saveTicketsToFile(file);
+		tm.setWriteAheadLog(true);
+		try {
+			assertTrue(tm.isWriteAheadLog());
+			tm.executeCommand(1, new Command(Command.CommandValue.PROCESS, "Benson", null, null, null, "note"));
+			tm.deleteTicketById(3);
+			tm.createNewTicketList();
+			tm.loadTicketsFromFile(file);
+			assertEquals(5, tm.getTickets().size());
+			assertEquals("Working", tm.getTicketById(1).getState());
+			assertNull(tm.getTicketById(3));
+		} finally {
+			tm.setWriteAheadLog(false);
+		}
+	}
+
+	/**
+	 * Test for method setWriteAheadLog() with a journal that cannot be written
+	 */
+	@Test
+	public void testWriteAheadLogFailed() {
+		File file = new File(folder.getRoot(), "failed.txt");
+		tm.loadTicketsFromFile("test-files/ticket1.txt");
+		tm.saveTicketsToFile(file.getPath());
+		// A directory in place of the journal cannot be appended to
+		assertTrue(new File(folder.getRoot(), "failed.txt" + TicketJournal.JOURNAL_EXTENSION).mkdir());
+		tm.setWriteAheadLog(true);
+		try {
+			try {
+				tm.executeCommand(1, new Command(Command.CommandValue.PROCESS, "Benson", null, null, null, "note"));
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertEquals("Unable to save file.", e.getMessage());
+			}
+			assertEquals("Working", tm.getTicketById(1).getState());
+			try {
+				tm.deleteTicketById(3);
+				fail();
+			} catch (IllegalStateException e) {
+				assertEquals("Write-ahead log failed.", e.getMessage());
+			}
+			try {
+				tm.addTicketToList(Ticket.TicketType.INCIDENT, "Projector broken", "caller", Ticket.Category.HARDWARE,
+						Ticket.Priority.HIGH, "bulb is out");
+				fail();
+			} catch (IllegalStateException e) {
+				assertEquals("Write-ahead log failed.", e.getMessage());
+			}
+			assertNotNull(tm.getTicketById(3));
+
+			// A full save makes the change durable and changes are accepted again
+			File saved = new File(folder.getRoot(), "saved.txt");
+			tm.saveTicketsToFile(saved.getPath());
+			tm.deleteTicketById(3);
+			tm.createNewTicketList();
+			tm.loadTicketsFromFile(saved.getPath());
+			assertEquals("Working", tm.getTicketById(1).getState());
+			assertNull(tm.getTicketById(3));
+		} finally {
+			tm.setWriteAheadLog(false);
+		}
+	}
+
+	/**
+	 * Test for method setConcurrent(), with several threads sending commands to
+	 * the same ticket and to different tickets
+	 * 
+	 * @throws InterruptedException if a thread is interrupted
+	 */
+	@Test
+	public void testConcurrent() throws InterruptedException {
+		tm.loadTicketsFromFile("test-files/ticket1.txt");
+		tm.setConcurrent(true);
+		try {
+			assertTrue(tm.isConcurrent());
+			int notesBefore = tm.getTicketById(2).getNoteCount();
+			AtomicInteger applied = new AtomicInteger();
+			Thread[] threads = new Thread[4];
+			for (int t = 0; t < threads.length; t++) {
+				threads[t] = new Thread(() -> {
+					for (int i = 0; i < 200; i++) {
+						try {
+							tm.executeCommand(2, new Command(Command.CommandValue.FEEDBACK, null,
+									Command.FeedbackCode.AWAITING_CALLER, null, null, "feedback"));
+							applied.incrementAndGet();
+						} catch (UnsupportedOperationException e) {
+							// another thread moved the ticket first
+						}
+						try {
+							tm.executeCommand(2, new Command(Command.CommandValue.REOPEN, null, null, null, null,
+									"reopen"));
+							applied.incrementAndGet();
+						} catch (UnsupportedOperationException e) {
+							// another thread moved the ticket first
+						}
+						tm.getTicketsForDisplay();
+					}
+				});
+				threads[t].start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			Ticket ticket = tm.getTicketById(2);
+			assertEquals(notesBefore + applied.get(), ticket.getNoteCount());
+			assertEquals(1, tm.getTicketsByState(ticket.getState()).stream().filter(t -> t == ticket).count());
+		} finally {
+			tm.setConcurrent(false);
+		}
+	}
+
+	/**
+	 * Test for method executeCommands()
+	 */
+	@Test
+	public void testExecuteCommands() {
+		tm.loadTicketsFromFile("test-files/ticket1.txt");
+		HashMap<Integer, Command> commands = new HashMap<Integer, Command>();
+		commands.put(1, new Command(Command.CommandValue.PROCESS, "Benson", null, null, null, "note"));
+		commands.put(2, new Command(Command.CommandValue.PROCESS, "Benson", null, null, null, "note"));
+		commands.put(9, new Command(Command.CommandValue.PROCESS, "Benson", null, null, null, "note"));
+		BatchResult result = tm.executeCommands(commands);
+		assertEquals(1, result.getSuccessCount());
+		assertEquals(Integer.valueOf(1), result.getSucceeded().get(0));
+		assertEquals(1, result.getRejectedCount());
+		assertTrue(result.getRejected().containsKey(2));
+		assertEquals(Integer.valueOf(9), result.getNotFound().get(0));
+		assertEquals("Working", tm.getTicketById(1).getState());
+	}
+
+	/**
+	 * Test for method executeWhere(), closing every resolved ticket in sequence
+	 * and in the concurrent mode
+	 */
+	@Test
+	public void testExecuteWhere() {
+		for (int pass = 0; pass < 2; pass++) {
+			tm.loadTicketsFromFile("test-files/ticket1.txt");
+			tm.setConcurrent(pass == 1);
+			try {
+				BatchResult result = tm.executeWhere(t -> Ticket.RESOLVED_NAME.equals(t.getState()),
+						t -> new Command(Command.CommandValue.CONFIRM, null, null, null, null, "closed"));
+				assertEquals(1, result.getSuccessCount());
+				assertEquals(Integer.valueOf(4), result.getSucceeded().get(0));
+				assertEquals(0, result.getRejectedCount());
+				assertEquals(2, tm.getTicketsByState(Ticket.CLOSED_NAME).size());
+
+				result = tm.executeWhere(t -> true,
+						t -> new Command(Command.CommandValue.PROCESS, "Benson", null, null, null, "note"));
+				assertEquals(1, result.getSuccessCount());
+				assertEquals(5, result.getRejectedCount());
+			} finally {
+				tm.setConcurrent(false);
+			}
+		}
+		try {
+			tm.executeWhere(null, t -> null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Filter and command factory cannot be null.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for method archiveTerminalTickets()
+	 */
+	@Test
+	public void testArchiveTerminalTickets() {
+		tm.loadTicketsFromFile("test-files/ticket1.txt");
+		String before = tm.getTickets().toString();
+		String[][] rows = tm.getTicketsForDisplay();
+		tm.setArchiveTerminal(true);
+		try {
+			assertTrue(tm.isArchiveTerminal());
+			tm.loadTicketsFromFile("test-files/ticket1.txt");
+			assertEquals(2, tm.getArchivedCount());
+			assertEquals(4, tm.tickets.size());
+			assertEquals(before, tm.getTickets().toString());
+			assertEquals(rows.length, tm.getTicketsForDisplay().length);
+			for (int i = 0; i < rows.length; i++) {
+				assertEquals(String.join(",", rows[i]), String.join(",", tm.getTicketsForDisplay()[i]));
+			}
+			assertEquals(Ticket.CLOSED_NAME, tm.getTicketById(5).getState());
+			assertEquals(1, tm.getTicketsByState(Ticket.CANCELED_NAME).size());
+
+			tm.executeCommand(5, new Command(Command.CommandValue.REOPEN, null, null, null, null, "reopened"));
+			assertEquals(1, tm.getArchivedCount());
+			assertEquals(Ticket.WORKING_NAME, tm.getTicketById(5).getState());
+			assertTrue(tm.getTicketById(5) == tm.getTicketById(5));
+			assertEquals(5, tm.tickets.get(4).getTicketId());
+			try {
+				tm.executeCommand(6, new Command(Command.CommandValue.REOPEN, null, null, null, null, "reopened"));
+				fail();
+			} catch (UnsupportedOperationException e) {
+				assertEquals(1, tm.getArchivedCount());
+			}
+
+			tm.deleteTicketById(6);
+			assertEquals(0, tm.getArchivedCount());
+			assertNull(tm.getTicketById(6));
+			assertEquals(0, tm.getTicketsByState(Ticket.CANCELED_NAME).size());
+			tm.loadTicketsFromFile("test-files/ticket1.txt");
+			assertEquals(0, tm.archiveTerminalTickets());
+			BatchResult result = tm.executeWhere(t -> Ticket.CLOSED_NAME.equals(t.getState()),
+					t -> new Command(Command.CommandValue.REOPEN, null, null, null, null, "reopened"));
+			assertEquals(1, result.getSuccessCount());
+			assertEquals(1, tm.getArchivedCount());
+			tm.executeCommand(5, new Command(Command.CommandValue.RESOLVE, null, null,
+					Command.ResolutionCode.COMPLETED, null, "done"));
+			tm.executeCommand(5, new Command(Command.CommandValue.CONFIRM, null, null, null, null, "closed"));
+			assertEquals(1, tm.archiveTerminalTickets());
+			HashMap<Integer, Command> commands = new HashMap<Integer, Command>();
+			commands.put(5, new Command(Command.CommandValue.REOPEN, null, null, null, null, "again"));
+			commands.put(9, new Command(Command.CommandValue.REOPEN, null, null, null, null, "again"));
+			result = tm.executeCommands(commands);
+			assertEquals(1, result.getSuccessCount());
+			assertEquals(Integer.valueOf(9), result.getNotFound().get(0));
+			assertEquals(1, tm.getArchivedCount());
+		} finally {
+			tm.setArchiveTerminal(false);
+			tm.createNewTicketList();
+		}
+	}
+
+	/**
+	 * Test for method addTicketChangeListener()
+	 */
+	@Test
+	public void testTicketChangeListener() {
+		StringBuilder events = new StringBuilder();
+		TicketChangeListener listener = new TicketChangeListener() {
+			@Override
+			public void ticketAdded(int id) {
+				events.append("+").append(id);
+			}
+
+			@Override
+			public void ticketUpdated(int id) {
+				events.append("~").append(id);
+			}
+
+			@Override
+			public void ticketDeleted(int id) {
+				events.append("-").append(id);
+			}
+
+			@Override
+			public void ticketsReloaded() {
+				events.append("*");
+			}
+		};
+		tm.addTicketChangeListener(listener);
+		try {
+			tm.loadTicketsFromFile("test-files/ticket1.txt");
+			tm.executeCommand(1, new Command(Command.CommandValue.PROCESS, "Benson", null, null, null, "note"));
+			tm.executeCommand(99, new Command(Command.CommandValue.PROCESS, "Benson", null, null, null, "note"));
+			tm.deleteTicketById(2);
+			tm.deleteTicketById(2);
+			tm.executeWhere(t -> t.getTicketId() == 3,
+					t -> new Command(Command.CommandValue.REOPEN, null, null, null, null, "note"));
+			assertEquals("*~1-2~3", events.toString());
+
+			assertArrayEquals(new int[] { 1, 3, 4, 5, 6 }, tm.getTicketIds());
+			assertArrayEquals(new int[] { 1, 4 }, tm.getTicketIdsByType(Ticket.TicketType.INCIDENT));
+			assertArrayEquals(tm.getTicketsForDisplay()[1], tm.getTicketDisplayRow(3));
+			assertNull(tm.getTicketDisplayRow(2));
+			tm.archiveTerminalTickets();
+			assertArrayEquals(new int[] { 1, 3, 4, 5, 6 }, tm.getTicketIds());
+			assertArrayEquals(tm.getTicketsForDisplay()[3], tm.getTicketDisplayRow(5));
+
+			events.setLength(0);
+			tm.addTicketToList(Ticket.TicketType.REQUEST, "Subject", "caller", Ticket.Category.INQUIRY,
+					Ticket.Priority.LOW, "note");
+			int id = tm.getTicketIds()[5];
+			assertEquals("+" + id, events.toString());
+			tm.createNewTicketList();
+			assertEquals("+" + id + "*", events.toString());
+		} finally {
+			tm.removeTicketChangeListener(listener);
+		}
+		tm.loadTicketsFromFile("test-files/ticket1.txt");
+		assertEquals(0, tm.getArchivedCount());
 	}
 }
@@ -0,0 +1,73 @@
+package edu.ncsu.csc216.ticket_manager.model.search;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+/**
+ * Class for testing TicketPostingList
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketPostingListTest {
+
+	/**
+	 * Test for method add() with IDs in ascending order
+	 */
+	@Test
+	public void testAddAscending() {
+		TicketPostingList list = new TicketPostingList();
+		for (int id = 1; id <= 1000; id++) {
+			assertTrue(list.add(id));
+		}
+		assertFalse(list.add(1000));
+		assertFalse(list.add(500));
+		assertEquals(1000, list.size());
+		assertEquals(1000, list.getEncodedSize());
+		assertTrue(list.contains(1));
+		assertTrue(list.contains(777));
+		assertFalse(list.contains(0));
+		assertFalse(list.contains(1001));
+		assertTrue(list.add(1 << 20));
+		assertTrue(list.contains(1 << 20));
+		assertEquals(1003, list.getEncodedSize());
+	}
+
+	/**
+	 * Test for method add(), remove() and contains() against a TreeSet
+	 */
+	@Test
+	public void testAddRemove() {
+		TicketPostingList list = new TicketPostingList();
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		Random random = new Random(7);
+		for (int i = 0; i < 30000; i++) {
+			int id = i % 5 == 0 ? random.nextInt(i + 1) : i;
+			if (random.nextInt(4) == 0) {
+				assertEquals(expected.remove(id), list.remove(id));
+			} else {
+				assertEquals(expected.add(id), list.add(id));
+			}
+			if (i % 1000 == 0) {
+				assertEquals(expected.size(), list.size());
+			}
+		}
+		int[] ids = new int[expected.size()];
+		int n = 0;
+		for (int id : expected) {
+			ids[n++] = id;
+			assertTrue(list.contains(id));
+		}
+		assertArrayEquals(ids, list.toArray());
+		for (int id = 0; id < 30000; id += 7) {
+			assertEquals(expected.contains(id), list.contains(id));
+		}
+	}
+}
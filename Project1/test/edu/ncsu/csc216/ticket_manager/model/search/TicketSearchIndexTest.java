@@ -0,0 +1,110 @@
+package edu.ncsu.csc216.ticket_manager.model.search;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.ticket_manager.model.command.Command;
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+
+/**
+ * Class for testing TicketSearchIndex
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketSearchIndexTest {
+
+	/** Tickets in the index by ID */
+	private HashMap<Integer, Ticket> tickets = new HashMap<Integer, Ticket>();
+	/** Index under test */
+	private TicketSearchIndex index = new TicketSearchIndex();
+
+	/**
+	 * Adds a New ticket to the index
+	 *
+	 * @param id      ID of ticket
+	 * @param subject subject of ticket
+	 * @param caller  caller of ticket
+	 * @param note    first note of ticket
+	 * @return new Ticket
+	 */
+	private Ticket add(int id, String subject, String caller, String note) {
+		ArrayList<String> notes = new ArrayList<String>();
+		notes.add(note);
+		Ticket ticket = new Ticket(id, "New", "Incident", subject, caller, "Hardware", "Medium", "", null, notes);
+		tickets.put(id, ticket);
+		index.add(ticket);
+		return ticket;
+	}
+
+	/**
+	 * Returns the IDs of the tickets that match a query
+	 *
+	 * @param query query to run
+	 * @return matching IDs
+	 */
+	private int[] search(String query) {
+		return index.search(query, id -> tickets.containsKey(id) ? TicketSearchIndex.fields(tickets.get(id)) : null);
+	}
+
+	/**
+	 * Test for method search() with words, phrases and OR
+	 */
+	@Test
+	public void testSearch() {
+		add(1, "Printer jam on floor 2", "sesmith5", "Paper tray is stuck");
+		add(2, "Printer out of toner", "jtking", "Tray paper is fine");
+		add(3, "Network down", "sesmith5", "Printer queue is full");
+		assertArrayEquals(new int[] { 1, 2, 3 }, search("printer"));
+		assertArrayEquals(new int[] { 1, 3 }, search("PRINTER sesmith5"));
+		assertArrayEquals(new int[] { 1 }, search("\"paper tray\""));
+		assertArrayEquals(new int[] { 1, 2 }, search("paper tray"));
+		assertArrayEquals(new int[] { 1, 3 }, search("jam OR network"));
+		assertArrayEquals(new int[] { 2, 3 }, search("toner OR \"queue is full\""));
+		assertArrayEquals(new int[] { 1 }, search("floor-2"));
+		assertArrayEquals(new int[0], search("scanner"));
+		assertArrayEquals(new int[0], search(""));
+		assertArrayEquals(new int[0], search("\"tray stuck\""));
+		try {
+			search(null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Query cannot be null.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for method update() and remove()
+	 */
+	@Test
+	public void testUpdate() {
+		Ticket ticket = add(1, "Printer jam", "sesmith5", "Paper tray is stuck");
+		add(2, "Network down", "jtking", "Switch failed");
+		String owner = ticket.getOwner();
+		int noteCount = ticket.getNoteCount();
+		ticket.update(new Command(Command.CommandValue.PROCESS, "jtking", null, null, null, "Replaced the roller"));
+		index.update(ticket, owner, noteCount);
+		assertArrayEquals(new int[] { 1, 2 }, search("jtking"));
+		assertArrayEquals(new int[] { 1 }, search("roller"));
+
+		owner = ticket.getOwner();
+		noteCount = ticket.getNoteCount();
+		ticket.update(new Command(Command.CommandValue.FEEDBACK, null, Command.FeedbackCode.AWAITING_CALLER, null,
+				null, "Ask jtking"));
+		index.update(ticket, owner, noteCount);
+		assertArrayEquals(new int[] { 1, 2 }, search("jtking"));
+
+		index.remove(ticket);
+		tickets.remove(1);
+		assertArrayEquals(new int[0], search("printer"));
+		assertArrayEquals(new int[] { 2 }, search("jtking"));
+		index.remove(tickets.get(2));
+		assertEquals(0, index.getTermCount());
+	}
+}
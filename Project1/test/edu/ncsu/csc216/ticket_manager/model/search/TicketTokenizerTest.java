@@ -0,0 +1,29 @@
+package edu.ncsu.csc216.ticket_manager.model.search;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * Class for testing TicketTokenizer
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketTokenizerTest {
+
+	/**
+	 * Test for method tokenize()
+	 */
+	@Test
+	public void testTokenize() {
+		assertEquals(Arrays.asList("lights", "not", "working", "in", "ebi", "1011"),
+				TicketTokenizer.tokenize("Lights not working in EBI 1011"));
+		assertEquals(Arrays.asList("e", "mail", "caf\u00e9"), TicketTokenizer.tokenize("  E-mail: Caf\u00c9!"));
+		assertEquals(Collections.emptyList(), TicketTokenizer.tokenize(" -- "));
+		assertEquals(Collections.emptyList(), TicketTokenizer.tokenize(null));
+	}
+}
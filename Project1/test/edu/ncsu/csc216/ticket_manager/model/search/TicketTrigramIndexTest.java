@@ -0,0 +1,129 @@
+package edu.ncsu.csc216.ticket_manager.model.search;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket;
+
+/**
+ * Class for testing TicketTrigramIndex
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketTrigramIndexTest {
+
+	/** Tickets in the index by ID */
+	private HashMap<Integer, Ticket> tickets = new HashMap<Integer, Ticket>();
+	/** Index under test */
+	private TicketTrigramIndex index = new TicketTrigramIndex();
+
+	/**
+	 * Adds a New ticket to the index
+	 *
+	 * @param id      ID of ticket
+	 * @param subject subject of ticket
+	 * @param caller  caller of ticket
+	 * @return new Ticket
+	 */
+	private Ticket add(int id, String subject, String caller) {
+		Ticket ticket = new Ticket(id, "New", "Incident", subject, caller, "Hardware", "Medium", "", null,
+				new ArrayList<String>());
+		tickets.put(id, ticket);
+		index.add(ticket);
+		return ticket;
+	}
+
+	/**
+	 * Returns the IDs of the tickets whose subject or caller contains a text
+	 *
+	 * @param text text to find
+	 * @return matching IDs
+	 */
+	private int[] find(String text) {
+		return index.find(text, id -> tickets.containsKey(id) ? TicketTrigramIndex.fields(tickets.get(id)) : null);
+	}
+
+	/**
+	 * Test for method find()
+	 */
+	@Test
+	public void testFind() {
+		add(1, "Printer jam on floor 2", "sesmith5");
+		add(2, "Printer out of toner", "jtking");
+		add(3, "Network down", "sesmith5");
+		assertArrayEquals(new int[] { 1, 2 }, find("PRINT"));
+		assertArrayEquals(new int[] { 1, 3 }, find("smith"));
+		assertArrayEquals(new int[] { 1, 2, 3 }, find("n"));
+		assertArrayEquals(new int[] { 3 }, find("WN"));
+		assertArrayEquals(new int[] { 1 }, find("jam on f"));
+		assertArrayEquals(new int[] { 2 }, find("tking"));
+		assertArrayEquals(new int[0], find("jam floor"));
+		assertArrayEquals(new int[0], find("sesmith5jt"));
+		assertArrayEquals(new int[0], find("xyz"));
+		try {
+			find(null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Text cannot be null.", e.getMessage());
+		}
+		try {
+			find("");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Text cannot be empty.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for method contains()
+	 */
+	@Test
+	public void testContains() {
+		Ticket ticket = add(1, "Printer jam on floor 2", "sesmith5");
+		assertTrue(TicketTrigramIndex.contains(ticket, "JAM ON"));
+		assertTrue(TicketTrigramIndex.contains(ticket, "Smith"));
+		assertFalse(TicketTrigramIndex.contains(ticket, "jam floor"));
+		// Each character is lower-cased alone, as find() does
+		Ticket dotted = add(2, "\u0130stanbul office", "jtking");
+		assertTrue(TicketTrigramIndex.contains(dotted, "istanbul"));
+		assertArrayEquals(new int[] { 2 }, find("istanbul"));
+		assertEquals("istanbul", TicketTrigramIndex.toLowerCase("\u0130STANBUL"));
+	}
+
+	/**
+	 * Test for methods remove() and clear()
+	 */
+	@Test
+	public void testRemove() {
+		Ticket jam = add(1, "Printer jam", "sesmith5");
+		add(2, "Paper jam", "jtking");
+		int grams = index.getGramCount();
+		Ticket scanner = add(3, "Scanner", "wpack");
+		index.remove(scanner);
+		tickets.remove(3);
+		assertEquals(grams, index.getGramCount());
+		assertArrayEquals(new int[0], find("can"));
+
+		index.remove(jam);
+		tickets.remove(1);
+		assertArrayEquals(new int[] { 2 }, find("jam"));
+		assertArrayEquals(new int[0], find("printer"));
+		assertArrayEquals(new int[0], find("smi"));
+
+		// A ticket that is gone is dropped while checking long text
+		tickets.remove(2);
+		assertArrayEquals(new int[0], find("paper jam"));
+		index.clear();
+		assertEquals(0, index.getGramCount());
+		assertArrayEquals(new int[0], find("jam"));
+	}
+}
@@ -0,0 +1,117 @@
+package edu.ncsu.csc216.ticket_manager.model.ticket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.ticket_manager.model.command.Command;
+
+/**
+ * Class for testing the heap footprint of Ticket. Walks the object graph of a
+ * ticket through reflection, in the way a layout tool such as JOL would, and
+ * checks which objects belong to one ticket only.
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketFootprintTest {
+
+	/**
+	 * Test that a ticket owns no state objects and shares its state with other
+	 * tickets in the same state
+	 *
+	 * @throws IllegalAccessException if a field cannot be read
+	 */
+	@Test
+	public void testStateShared() throws IllegalAccessException {
+		ArrayList<String> notes = new ArrayList<String>();
+		notes.add("note");
+		Ticket a = new Ticket(1, "New", "Request", "Printer", "Benson", "Hardware", "Low", "", null, notes);
+		Ticket b = new Ticket(2, "Working", "Incident", "Network", "Benson", "Network", "Low", "Ben", null,
+				new ArrayList<String>());
+		a.update(new Command(Command.CommandValue.PROCESS, "Ben", null, null, null, "note"));
+		assertSame(field(a, "state"), field(b, "state"));
+
+		// the only model object a ticket owns is its notes
+		assertEquals(1, ownedModelObjects(a));
+		assertEquals(1, countFields(TicketState.class));
+	}
+
+	/**
+	 * Returns the value of a field of a ticket
+	 *
+	 * @param ticket ticket to read
+	 * @param name   name of the field
+	 * @return value of the field
+	 * @throws IllegalAccessException if the field cannot be read
+	 */
+	private static Object field(Ticket ticket, String name) throws IllegalAccessException {
+		for (Field f : Ticket.class.getDeclaredFields()) {
+			if (f.getName().equals(name)) {
+				f.setAccessible(true);
+				return f.get(ticket);
+			}
+		}
+		throw new IllegalArgumentException(name);
+	}
+
+	/**
+	 * Counts the instance fields of Ticket that hold a given type
+	 *
+	 * @param type type of field
+	 * @return number of fields
+	 */
+	private static int countFields(Class<?> type) {
+		int count = 0;
+		for (Field f : Ticket.class.getDeclaredFields()) {
+			if (!Modifier.isStatic(f.getModifiers()) && type.isAssignableFrom(f.getType())) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the objects of the model package reachable from a ticket that are
+	 * not shared constants
+	 *
+	 * @param ticket ticket to walk
+	 * @return number of objects the ticket owns besides itself
+	 * @throws IllegalAccessException if a field cannot be read
+	 */
+	private static int ownedModelObjects(Ticket ticket) throws IllegalAccessException {
+		Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		walk(ticket, seen);
+		return seen.size() - 1;
+	}
+
+	/**
+	 * Adds an object and the model objects it references to a set, skipping
+	 * enum constants
+	 *
+	 * @param o    object to walk
+	 * @param seen objects found so far
+	 * @throws IllegalAccessException if a field cannot be read
+	 */
+	private static void walk(Object o, Set<Object> seen) throws IllegalAccessException {
+		if (o == null || o instanceof Enum || !o.getClass().getName().startsWith("edu.ncsu") || !seen.add(o)) {
+			return;
+		}
+		for (Class<?> c = o.getClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+			for (Field f : c.getDeclaredFields()) {
+				if (!Modifier.isStatic(f.getModifiers()) && !f.getType().isPrimitive()) {
+					f.setAccessible(true);
+					walk(f.get(o), seen);
+				}
+			}
+		}
+	}
+}
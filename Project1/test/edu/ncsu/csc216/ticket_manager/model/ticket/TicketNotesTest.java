@@ -0,0 +1,91 @@
+package edu.ncsu.csc216.ticket_manager.model.ticket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Class for testing TicketNotes
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketNotesTest {
+
+	/**
+	 * Test for method render()
+	 */
+	@Test
+	public void testRender() {
+		TicketNotes notes = new TicketNotes();
+		assertEquals("", notes.render());
+		notes.add("first");
+		String first = notes.render();
+		assertEquals("-first\n", first);
+		assertSame(first, notes.render());
+		notes.add("second");
+		assertEquals("-first\n-second\n", notes.render());
+		assertEquals(2, notes.size());
+		assertEquals("second", notes.get(1));
+	}
+
+	/**
+	 * Test for method appendTo()
+	 */
+	@Test
+	public void testAppendTo() {
+		ArrayList<String> list = new ArrayList<String>();
+		list.add("a");
+		list.add("b");
+		TicketNotes notes = new TicketNotes(list);
+		StringBuilder sb = new StringBuilder("x");
+		notes.appendTo(sb);
+		assertEquals("x-a\n-b\n", sb.toString());
+	}
+
+	/**
+	 * Test for method writeTo()
+	 * 
+	 * @throws IOException if the Writer cannot be written
+	 */
+	@Test
+	public void testWriteTo() throws IOException {
+		TicketNotes notes = new TicketNotes();
+		notes.add("a");
+		notes.render();
+		notes.add("b");
+		StringWriter out = new StringWriter();
+		notes.writeTo(out);
+		assertEquals(notes.render(), out.toString());
+		assertEquals("-a\n-b\n", out.toString());
+	}
+
+	/**
+	 * Test for method isLoaded()
+	 */
+	@Test
+	public void testIsLoaded() {
+		AtomicInteger loads = new AtomicInteger();
+		TicketNotes notes = new TicketNotes(() -> {
+			loads.incrementAndGet();
+			ArrayList<String> list = new ArrayList<String>();
+			list.add("loaded");
+			return list;
+		});
+		assertFalse(notes.isLoaded());
+		assertEquals(0, loads.get());
+		assertEquals(1, notes.size());
+		assertTrue(notes.isLoaded());
+		notes.add("added");
+		assertEquals("-loaded\n-added\n", notes.render());
+		assertEquals(1, loads.get());
+	}
+}
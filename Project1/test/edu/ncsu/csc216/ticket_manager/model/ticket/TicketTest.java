@@ -2,8 +2,11 @@ package edu.ncsu.csc216.ticket_manager.model.ticket;
 
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 
 import org.junit.Test;
 
@@ -30,6 +33,46 @@ public class TicketTest {
 		assertEquals(a.getTicketId(), 1);
 	}
 
+	/**
+	 * Test for the counter when tickets are created on several threads and read
+	 * from a file
+	 * 
+	 * @throws InterruptedException if a thread is interrupted
+	 */
+	@Test
+	public void testCounterConcurrent() throws InterruptedException {
+		Ticket.setCounter(1);
+		int[][] ids = new int[4][5000];
+		Thread[] threads = new Thread[ids.length];
+		for (int t = 0; t < threads.length; t++) {
+			int[] mine = ids[t];
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < mine.length; i++) {
+					mine[i] = new Ticket(Ticket.TicketType.REQUEST, "subject", "caller", Ticket.Category.INQUIRY,
+							Ticket.Priority.LOW, "note").getTicketId();
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		BitSet seen = new BitSet();
+		for (int[] mine : ids) {
+			for (int id : mine) {
+				assertFalse(seen.get(id));
+				seen.set(id);
+			}
+		}
+		assertEquals(20000, seen.cardinality());
+
+		new Ticket(30000, "New", "Request", "Oh yea", "Benson", "Inquiry", "Urgent", "", null, notes);
+		new Ticket(25, "New", "Request", "Oh yea", "Benson", "Inquiry", "Urgent", "", null, notes);
+		assertEquals(30001, new Ticket(Ticket.TicketType.REQUEST, "subject", "caller", Ticket.Category.INQUIRY,
+				Ticket.Priority.LOW, "note").getTicketId());
+		Ticket.setCounter(1);
+	}
+
 	/**
 	 * Test for method setCounter()
 	 */
@@ -225,4 +268,25 @@ public class TicketTest {
 		assertEquals(f.getState(), "Canceled");
 	}	
 
+
+	/**
+	 * Test for the enum getters
+	 */
+	@Test
+	public void testEnumGetters() {
+		Ticket a = new Ticket(1, "Feedback", "Incident", "s", "Benson", "Network", "High", "Ben",
+				"Awaiting Change", notes);
+		Ticket b = new Ticket(Ticket.TicketType.REQUEST, "s", "Benson", Ticket.Category.DATABASE,
+				Ticket.Priority.LOW, "note");
+		assertEquals(Command.FeedbackCode.AWAITING_CHANGE, a.getTicketFeedbackCode());
+		assertNull(a.getTicketResolutionCode());
+		assertNull(a.getTicketCancellationCode());
+		assertEquals(TicketTransitions.FEEDBACK, a.getStateIndex());
+		assertEquals("Network", a.getCategory());
+		assertEquals("High", a.getPriority());
+		assertEquals("Incident", a.getTicketTypeString());
+		b.update(new Command(Command.CommandValue.PROCESS, "Ben", null, null, null, "note"));
+		assertEquals(a.getOwner(), b.getOwner());
+		assertEquals("", b.getCode());
+	}
 }
@@ -0,0 +1,76 @@
+package edu.ncsu.csc216.ticket_manager.model.ticket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.ticket_manager.model.command.Command;
+import edu.ncsu.csc216.ticket_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.ticket_manager.model.command.Command.ResolutionCode;
+import edu.ncsu.csc216.ticket_manager.model.ticket.Ticket.TicketType;
+import edu.ncsu.csc216.ticket_manager.model.ticket.TicketTransitions.Transition;
+
+/**
+ * Class for testing TicketTransitions
+ *
+ * @author Benson Liu
+ *
+ */
+public class TicketTransitionsTest {
+
+	/**
+	 * Test for method getTransition()
+	 */
+	@Test
+	public void testGetTransition() {
+		Transition process = TicketTransitions.getTransition(TicketTransitions.NEW, CommandValue.PROCESS,
+				TicketType.REQUEST);
+		assertEquals(TicketTransitions.WORKING, process.getTargetState());
+		assertTrue(process.hasEffect(TicketTransitions.SET_OWNER));
+		assertNull(process.getResolutionCodes());
+		assertNull(TicketTransitions.getTransition(TicketTransitions.NEW, CommandValue.CONFIRM, TicketType.REQUEST));
+		for (CommandValue command : CommandValue.values()) {
+			assertNull(TicketTransitions.getTransition(TicketTransitions.CANCELED, command, TicketType.INCIDENT));
+		}
+		Transition reopen = TicketTransitions.getTransition(TicketTransitions.RESOLVED, CommandValue.REOPEN,
+				TicketType.INCIDENT);
+		assertEquals(TicketTransitions.CLEAR_FEEDBACK_CODE | TicketTransitions.CLEAR_RESOLUTION_CODE
+				| TicketTransitions.CLEAR_CANCELLATION_CODE, reopen.getEffects());
+	}
+
+	/**
+	 * Test for method isAllowed() with resolution codes that depend on the ticket
+	 * type
+	 */
+	@Test
+	public void testIsAllowed() {
+		Command completed = new Command(CommandValue.RESOLVE, null, null, ResolutionCode.COMPLETED, null, "note");
+		Command solved = new Command(CommandValue.RESOLVE, null, null, ResolutionCode.SOLVED, null, "note");
+		assertTrue(TicketTransitions.isAllowed(TicketTransitions.WORKING, completed, TicketType.REQUEST));
+		assertFalse(TicketTransitions.isAllowed(TicketTransitions.WORKING, completed, TicketType.INCIDENT));
+		assertTrue(TicketTransitions.isAllowed(TicketTransitions.FEEDBACK, solved, TicketType.INCIDENT));
+		assertFalse(TicketTransitions.isAllowed(TicketTransitions.FEEDBACK, solved, TicketType.REQUEST));
+		assertFalse(TicketTransitions.isAllowed(TicketTransitions.CLOSED, solved, TicketType.REQUEST));
+	}
+
+	/**
+	 * Test for method getTransitions() and the state names
+	 */
+	@Test
+	public void testGetTransitions() {
+		List<Transition> resolved = TicketTransitions.getTransitions(TicketTransitions.RESOLVED, TicketType.REQUEST);
+		assertEquals(3, resolved.size());
+		assertEquals(CommandValue.FEEDBACK, resolved.get(0).getCommand());
+		assertEquals(CommandValue.CONFIRM, resolved.get(1).getCommand());
+		assertEquals(CommandValue.REOPEN, resolved.get(2).getCommand());
+		assertEquals(6, TicketTransitions.getStateCount());
+		assertEquals(Ticket.FEEDBACK_NAME, TicketTransitions.getStateName(TicketTransitions.FEEDBACK));
+		assertEquals(TicketTransitions.CLOSED, TicketTransitions.getStateIndex(Ticket.CLOSED_NAME));
+		assertEquals(-1, TicketTransitions.getStateIndex("Open"));
+	}
+}